@@ -0,0 +1,161 @@
+package de.sebphil.renderer.objects;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+class RenVectorRasterizer extends RenRasterizer {
+
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+	// Der Framebuffer (int) bentigt bei gleicher Anzahl von Elementen nur die halbe Breite eines Vektors.
+	private static final VectorSpecies<Integer> INT_SPECIES = VectorSpecies.of(int.class,
+			VectorShape.forBitSize(Math.max(64, SPECIES.vectorBitSize() / 2)));
+	private static final VectorSpecies<Float> FLOAT_SPECIES = VectorSpecies.of(float.class,
+			INT_SPECIES.vectorShape());
+	private static final int LANES = SPECIES.length();
+	private static final DoubleVector IOTA = DoubleVector.zero(SPECIES).addIndex(1);
+
+	/**
+	 * Constructor fr einen RenVectorRasterizer.
+	 *
+	 * Diese Klasse erbt von der Klasse RenRasterizer und wertet die Pixel einer Zeile mithilfe der
+	 * Vector API (jdk.incubator.vector) in Gruppen von LANES Pixeln gleichzeitig aus. Edge-Functions, Depthtest
+	 * und das Schreiben in den Depth- und Framebuffer geschehen dabei mit Masken. Die Edge-Functions werden als
+	 * double ausgewertet; da ihre Werte ganze Zahlen kleiner als 2^53 sind, ist dies exakt. Das erzeugte Bild ist
+	 * somit identisch mit dem des RenRasterizer.
+	 *
+	 * Diese Klasse liegt in dem eigenen Quellverzeichnis src-vector, damit src ohne das Modul
+	 * jdk.incubator.vector kompiliert werden kann. Sie wird nach src (in dasselbe Ausgabeverzeichnis) kompiliert:
+	 * javac --add-modules jdk.incubator.vector -cp out -d out src-vector/de/sebphil/renderer/objects/*.java
+	 * Der SebRenderer ldt die Klasse zur Laufzeit ber Reflection, und nur wenn das Modul vorhanden ist (die JVM
+	 * muss dazu mit "--add-modules jdk.incubator.vector" gestartet werden). Fehlt die Klasse oder das Modul, wird
+	 * ohne die Vector API rasterisiert.
+	 * @see de.sebphil.renderer.objects.SebRenderer#setVectorized(boolean)
+	 *
+	 * @throws UnsupportedOperationException wenn die bevorzugte Vektorgre nicht untersttzt wird
+	 */
+	RenVectorRasterizer() {
+		if (LANES < 2 || INT_SPECIES.length() != LANES || FLOAT_SPECIES.length() != LANES)
+			throw new UnsupportedOperationException("unsupported vector shape");
+	}
+
+	@Override
+	protected void rasterizePixels(int minX, int minY, int maxX, int maxY) {
+
+		// nderung der Edge-Functions innerhalb eines Vektors (pro Spur)
+		DoubleVector laneStep0 = IOTA.mul(stepX0);
+		DoubleVector laneStep1 = IOTA.mul(stepX1);
+		DoubleVector laneStep2 = IOTA.mul(stepX2);
+		IntVector colorVec = IntVector.broadcast(INT_SPECIES, color);
+
+		long row0 = edgeC0 + stepX0 * minX + stepY0 * minY;
+		long row1 = edgeC1 + stepX1 * minX + stepY1 * minY;
+		long row2 = edgeC2 + stepX2 * minX + stepY2 * minY;
+
+		for (int y = minY; y <= maxY; y++) {
+
+			long e0 = row0;
+			long e1 = row1;
+			long e2 = row2;
+
+			int rowIndex = y * width;
+			double depthRow = depthC + depthY * y;
+			boolean inside = false;
+
+			for (int x = minX; x <= maxX; x += LANES) {
+
+				// Pixel, welche in dem Dreieck (und innerhalb des Bereiches) liegen
+				VectorMask<Double> mask = SPECIES.indexInRange(x, maxX + 1)
+						.and(laneStep0.add(e0).compare(VectorOperators.GE, 0))
+						.and(laneStep1.add(e1).compare(VectorOperators.GE, 0))
+						.and(laneStep2.add(e2).compare(VectorOperators.GE, 0));
+
+				e0 += stepX0 * LANES;
+				e1 += stepX1 * LANES;
+				e2 += stepX2 * LANES;
+
+				if (!mask.anyTrue()) {
+
+					// Da das Dreieck konvex ist, kann kein weiteres Pixel dieser Zeile im Dreieck liegen.
+					if (inside)
+						break;
+
+					continue;
+				}
+
+				inside = true;
+
+				writePixels(rowIndex + x, x, depthRow, mask, colorVec);
+			}
+
+			row0 += stepY0;
+			row1 += stepY1;
+			row2 += stepY2;
+		}
+	}
+
+	@Override
+	protected void fillSpan(int y, int x0, int x1) {
+
+		int rowIndex = y * width;
+		double depthRow = depthC + depthY * y;
+		IntVector colorVec = IntVector.broadcast(INT_SPECIES, color);
+
+		for (int x = x0; x <= x1; x += LANES)
+			writePixels(rowIndex + x, x, depthRow, SPECIES.indexInRange(x, x1 + 1), colorVec);
+	}
+
+	/**
+	 * Vollfhrt den Depthtest fr eine Gruppe von LANES Pixeln und trgt die Pixel, welche diesen
+	 * bestehen, in den Depth- und Framebuffer ein.
+	 *
+	 * @param index		Index des ersten Pixels im Depth- und Framebuffer
+	 * @param x			x-Koordinate des ersten Pixels
+	 * @param depthRow	Wert der Ebenengleichung fr den Depthbuffer am Anfang der Zeile
+	 * @param mask		Maske der Pixel, welche in dem Dreieck liegen
+	 * @param colorVec	Farbe des Dreiecks in jeder Spur
+	 */
+	private void writePixels(int index, int x, double depthRow, VectorMask<Double> mask, IntVector colorVec) {
+
+		DoubleVector z = IOTA.add(x).mul(depthX).add(depthRow);
+
+		// Im Farb-Pass (PASS_COLOR) werden nur Pixel mit dem gleichen Wert wie im Depthbuffer eingetragen.
+		VectorOperators.Comparison test = pass == PASS_COLOR ? VectorOperators.EQ : VectorOperators.LT;
+
+		if (depthBufferF != null) {
+
+			FloatVector zF = (FloatVector) z.convertShape(VectorOperators.D2F, FLOAT_SPECIES, 0);
+			VectorMask<Float> maskF = mask.cast(FLOAT_SPECIES);
+			FloatVector stored = FloatVector.fromArray(FLOAT_SPECIES, depthBufferF, index, maskF);
+
+			maskF = maskF.and(stored.compare(test, zF));
+
+			if (pass != PASS_COLOR)
+				zF.intoArray(depthBufferF, index, maskF);
+
+			if (pass != PASS_DEPTH) {
+				colorVec.intoArray(framebuffer, index, maskF.cast(INT_SPECIES));
+				pixelWrites += maskF.trueCount();
+			}
+
+		} else {
+
+			DoubleVector stored = DoubleVector.fromArray(SPECIES, depthBuffer, index, mask);
+
+			mask = mask.and(stored.compare(test, z));
+
+			if (pass != PASS_COLOR)
+				z.intoArray(depthBuffer, index, mask);
+
+			if (pass != PASS_DEPTH) {
+				colorVec.intoArray(framebuffer, index, mask.cast(INT_SPECIES));
+				pixelWrites += mask.trueCount();
+			}
+		}
+	}
+
+}
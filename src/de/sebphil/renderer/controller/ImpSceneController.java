@@ -266,6 +266,9 @@ public class ImpSceneController implements Initializable {
 					
 					shape.setColor(color);
 					
+					// Dreiecksnetz und Flchen-Normalen der Figur einmalig beim Import erstellen
+					shape.updateMesh();
+					
 					// aktuelle Figur zu der Liste fr die Objekte hinzufgen.
 					objects.add(shape);
 
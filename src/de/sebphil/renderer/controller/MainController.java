@@ -17,6 +17,7 @@ import de.sebphil.renderer.objects.SebRenderer;
 import de.sebphil.renderer.uicontrol.CustomTreeCell;
 import de.sebphil.renderer.uicontrol.RenObjItem;
 import de.sebphil.renderer.util.RenUtilities;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
@@ -82,6 +83,9 @@ public class MainController implements Initializable {
 	@FXML
 	private TextField farField;
 
+	@FXML
+	private TextField threadsField;
+
 	@FXML
 	private Label widthLabel;
 
@@ -210,6 +214,37 @@ public class MainController implements Initializable {
 
 		});
 
+		threadsField.textProperty().addListener(l -> {
+
+			String text = threadsField.getText();
+
+			if (RenUtilities.isNumeric(text, false, false)) {
+
+				int threads;
+
+				try {
+					threads = Integer.parseInt(text);
+				} catch (NumberFormatException e) {
+					// Der Wert ist zu gro fr einen int (oder enthlt mehrere Vorzeichen).
+					threads = text.matches("\\+?\\d+") ? Integer.MAX_VALUE : 1;
+				}
+
+				mainRenderer.setThreadCount(threads);
+
+				// Die begrenzte Anzahl wird in das Feld bernommen (dabei wird dieser Listener erneut aufgerufen).
+				String count = Integer.toString(mainRenderer.getThreadCount());
+
+				if (!count.equals(text)) {
+					Platform.runLater(() -> threadsField.setText(count));
+					return;
+				}
+
+				render(mainRenderer, mainScene, mainWriter);
+
+			}
+
+		});
+
 		fovField.textProperty().addListener(l -> {
 
 			if (RenUtilities.isNumeric(fovField.getText(), true, true)) {
@@ -235,6 +270,7 @@ public class MainController implements Initializable {
 
 		nearField.setText(Double.toString(mainRenderer.getNear()));
 		farField.setText(Double.toString(mainRenderer.getFar()));
+		threadsField.setText(Integer.toString(mainRenderer.getThreadCount()));
 
 		RenCamera cam = mainScene.getCamera();
 
@@ -715,8 +751,8 @@ public class MainController implements Initializable {
 		colPicker.setOnAction(e -> {
 			copyShape.setColor(colPicker.getValue());
 			shape.setColor(colPicker.getValue());
-			render(preRenderer, preScene, preWriter);
-			render(mainRenderer, mainScene, writer);
+			relight(preRenderer, preScene, preWriter);
+			relight(mainRenderer, mainScene, writer);
 		});
 
 		// Steuerung fr die Vorschau
@@ -1025,10 +1061,11 @@ public class MainController implements Initializable {
 
 					if (!(renObj instanceof RenShape)) {
 						mainScene.getLights().add(renObj.getPosition());
+						relight(mainRenderer, mainScene, writer);
+					} else {
+						render(mainRenderer, mainScene, writer);
 					}
 
-					render(mainRenderer, mainScene, writer);
-
 				}
 			}
 		};
@@ -1224,7 +1261,10 @@ public class MainController implements Initializable {
 		TreeItem<RenObjItem> item = new TreeItem<RenObjItem>(new RenObjItem(renObj.getName(), renObj));
 		objectsItem.getChildren().add(item);
 
-		render(mainRenderer, mainScene, mainWriter);
+		if (renObj instanceof RenShape)
+			render(mainRenderer, mainScene, mainWriter);
+		else
+			relight(mainRenderer, mainScene, mainWriter);
 
 	}
 
@@ -1289,6 +1329,23 @@ public class MainController implements Initializable {
 		return 1 / ((double) (stop - start) / 1000);
 	}
 
+	/**
+	 * Schattiert eine bestimmte Szene neu, nachdem sich nur ihre Lichtquellen oder die Farben ihrer Figuren gendert
+	 * haben (siehe SebRenderer.relight). Ist dies nicht mglich (z.B. weil der Visibility-Buffer des Renderers nicht
+	 * aktiviert ist), wird die Szene vollstndig gerendert.
+	 * 
+	 * @param renderer 	Renderer, welcher die Szene zuletzt gerendert hat
+	 * @param scene 	Szene, welche neu schattiert werden soll
+	 * @param writer 	PixelWriter der verwendeten Zeichenflche
+	 */
+	private void relight(SebRenderer renderer, RenScene scene, PixelWriter writer) {
+
+		if (!renderer.relight(scene))
+			renderer.update(scene);
+
+		renderer.draw(writer);
+	}
+
 	/**
 	 * Diese Funktion rendert die aktuelle Hauptszene mit dem aktuellen Hautprenderer.
 	 */
@@ -0,0 +1,416 @@
+package de.sebphil.renderer.math;
+
+public final class Mat4 {
+
+	/*
+	 * Eine 4x4 Matrix wird als double[16] gespeichert: Das Element in Zeile r und Spalte c liegt bei Index r * 4 + c.
+	 * Vektoren werden (wie bisher) als Zeilenvektoren von links multipliziert (v' = v * M), die Translation liegt
+	 * somit in den Elementen 12, 13 und 14.
+	 * Eine Matrix ist affin, wenn ihre letzte Spalte (0, 0, 0, 1) ist (World- und View-Matrizen).
+	 *
+	 * Keine der Funktionen erzeugt Objekte. Das Ergebnis wird stets in ein bergebenes Array (dst) geschrieben,
+	 * welches (sofern nicht anders angegeben) auch einer der Operanden sein darf.
+	 */
+
+	private Mat4() {
+	}
+
+	/**
+	 * Erzeugt eine neue Einheitsmatrix.
+	 *
+	 * @return Einheitsmatrix
+	 */
+	public static double[] create() {
+		return identity(new double[16]);
+	}
+
+	/**
+	 * Schreibt die Einheitsmatrix in dst.
+	 *
+	 * @param dst	Ergebnis
+	 * @return dst
+	 */
+	public static double[] identity(double[] dst) {
+		dst[0] = 1; dst[1] = 0; dst[2] = 0; dst[3] = 0;
+		dst[4] = 0; dst[5] = 1; dst[6] = 0; dst[7] = 0;
+		dst[8] = 0; dst[9] = 0; dst[10] = 1; dst[11] = 0;
+		dst[12] = 0; dst[13] = 0; dst[14] = 0; dst[15] = 1;
+		return dst;
+	}
+
+	/**
+	 * Schreibt eine Rotationsmatrix um die x-Achse in dst.
+	 *
+	 * @param angle	Winkel in Radiant
+	 * @param dst	Ergebnis
+	 * @return dst
+	 */
+	public static double[] rotationX(double angle, double[] dst) {
+		identity(dst);
+		dst[5] = Math.cos(angle);
+		dst[6] = Math.sin(angle);
+		dst[9] = -Math.sin(angle);
+		dst[10] = Math.cos(angle);
+		return dst;
+	}
+
+	/**
+	 * Schreibt eine Rotationsmatrix um die y-Achse in dst.
+	 *
+	 * @param angle	Winkel in Radiant
+	 * @param dst	Ergebnis
+	 * @return dst
+	 */
+	public static double[] rotationY(double angle, double[] dst) {
+		identity(dst);
+		dst[0] = Math.cos(angle);
+		dst[2] = Math.sin(angle);
+		dst[8] = -Math.sin(angle);
+		dst[10] = Math.cos(angle);
+		return dst;
+	}
+
+	/**
+	 * Schreibt eine Rotationsmatrix um die z-Achse in dst.
+	 *
+	 * @param angle	Winkel in Radiant
+	 * @param dst	Ergebnis
+	 * @return dst
+	 */
+	public static double[] rotationZ(double angle, double[] dst) {
+		identity(dst);
+		dst[0] = Math.cos(angle);
+		dst[1] = Math.sin(angle);
+		dst[4] = -Math.sin(angle);
+		dst[5] = Math.cos(angle);
+		return dst;
+	}
+
+	/**
+	 * Schreibt eine Skalierungsmatrix in dst.
+	 *
+	 * @param x		Skalierung in x-Richtung
+	 * @param y		Skalierung in y-Richtung
+	 * @param z		Skalierung in z-Richtung
+	 * @param dst	Ergebnis
+	 * @return dst
+	 */
+	public static double[] scale(double x, double y, double z, double[] dst) {
+		identity(dst);
+		dst[0] = x;
+		dst[5] = y;
+		dst[10] = z;
+		return dst;
+	}
+
+	/**
+	 * Schreibt eine Translationsmatrix in dst.
+	 *
+	 * @param x		Translation in x-Richtung
+	 * @param y		Translation in y-Richtung
+	 * @param z		Translation in z-Richtung
+	 * @param dst	Ergebnis
+	 * @return dst
+	 */
+	public static double[] translation(double x, double y, double z, double[] dst) {
+		identity(dst);
+		dst[12] = x;
+		dst[13] = y;
+		dst[14] = z;
+		return dst;
+	}
+
+	/**
+	 * Multipliziert zwei Matrizen (a * b).
+	 *
+	 * @param a		Matrix1
+	 * @param b		Matrix2
+	 * @param dst	Ergebnis (darf a oder b sein)
+	 * @return dst
+	 */
+	public static double[] mul(double[] a, double[] b, double[] dst) {
+
+		double b0 = b[0], b1 = b[1], b2 = b[2], b3 = b[3];
+		double b4 = b[4], b5 = b[5], b6 = b[6], b7 = b[7];
+		double b8 = b[8], b9 = b[9], b10 = b[10], b11 = b[11];
+		double b12 = b[12], b13 = b[13], b14 = b[14], b15 = b[15];
+
+		for (int r = 0; r < 16; r += 4) {
+
+			double a0 = a[r], a1 = a[r + 1], a2 = a[r + 2], a3 = a[r + 3];
+
+			dst[r] = a0 * b0 + a1 * b4 + a2 * b8 + a3 * b12;
+			dst[r + 1] = a0 * b1 + a1 * b5 + a2 * b9 + a3 * b13;
+			dst[r + 2] = a0 * b2 + a1 * b6 + a2 * b10 + a3 * b14;
+			dst[r + 3] = a0 * b3 + a1 * b7 + a2 * b11 + a3 * b15;
+		}
+
+		return dst;
+	}
+
+	/**
+	 * Multipliziert zwei affine Matrizen (a * b). Da die letzte Spalte beider Matrizen (0, 0, 0, 1) ist, entfallen
+	 * 28 der 64 Multiplikationen.
+	 *
+	 * @param a		affine Matrix1
+	 * @param b		affine Matrix2
+	 * @param dst	Ergebnis (affin, darf a oder b sein)
+	 * @return dst
+	 */
+	public static double[] mulAffine(double[] a, double[] b, double[] dst) {
+
+		double b0 = b[0], b1 = b[1], b2 = b[2];
+		double b4 = b[4], b5 = b[5], b6 = b[6];
+		double b8 = b[8], b9 = b[9], b10 = b[10];
+		double b12 = b[12], b13 = b[13], b14 = b[14];
+
+		for (int r = 0; r < 12; r += 4) {
+
+			double a0 = a[r], a1 = a[r + 1], a2 = a[r + 2];
+
+			dst[r] = a0 * b0 + a1 * b4 + a2 * b8;
+			dst[r + 1] = a0 * b1 + a1 * b5 + a2 * b9;
+			dst[r + 2] = a0 * b2 + a1 * b6 + a2 * b10;
+			dst[r + 3] = 0;
+		}
+
+		double a12 = a[12], a13 = a[13], a14 = a[14];
+
+		dst[12] = a12 * b0 + a13 * b4 + a14 * b8 + b12;
+		dst[13] = a12 * b1 + a13 * b5 + a14 * b9 + b13;
+		dst[14] = a12 * b2 + a13 * b6 + a14 * b10 + b14;
+		dst[15] = 1;
+
+		return dst;
+	}
+
+	/**
+	 * Invertiert eine affine Matrix.
+	 *
+	 * @param m		affine Matrix (der 3x3 Anteil muss invertierbar sein)
+	 * @param dst	Ergebnis (darf m sein)
+	 * @return dst
+	 */
+	public static double[] invertAffine(double[] m, double[] dst) {
+
+		double m0 = m[0], m1 = m[1], m2 = m[2];
+		double m4 = m[4], m5 = m[5], m6 = m[6];
+		double m8 = m[8], m9 = m[9], m10 = m[10];
+		double m12 = m[12], m13 = m[13], m14 = m[14];
+
+		// Adjunkte des 3x3 Anteils
+		double i0 = m5 * m10 - m6 * m9;
+		double i1 = m2 * m9 - m1 * m10;
+		double i2 = m1 * m6 - m2 * m5;
+		double i4 = m6 * m8 - m4 * m10;
+		double i5 = m0 * m10 - m2 * m8;
+		double i6 = m2 * m4 - m0 * m6;
+		double i8 = m4 * m9 - m5 * m8;
+		double i9 = m1 * m8 - m0 * m9;
+		double i10 = m0 * m5 - m1 * m4;
+
+		double invDet = 1 / (m0 * i0 + m1 * i4 + m2 * i8);
+
+		dst[0] = i0 * invDet;
+		dst[1] = i1 * invDet;
+		dst[2] = i2 * invDet;
+		dst[3] = 0;
+		dst[4] = i4 * invDet;
+		dst[5] = i5 * invDet;
+		dst[6] = i6 * invDet;
+		dst[7] = 0;
+		dst[8] = i8 * invDet;
+		dst[9] = i9 * invDet;
+		dst[10] = i10 * invDet;
+		dst[11] = 0;
+
+		// Translation: -t * M^-1
+		dst[12] = -(m12 * dst[0] + m13 * dst[4] + m14 * dst[8]);
+		dst[13] = -(m12 * dst[1] + m13 * dst[5] + m14 * dst[9]);
+		dst[14] = -(m12 * dst[2] + m13 * dst[6] + m14 * dst[10]);
+		dst[15] = 1;
+
+		return dst;
+	}
+
+	/**
+	 * Invertiert eine affine Matrix, deren 3x3 Anteil orthonormal ist (nur Rotation und Translation, wie z.B. die
+	 * lookAt-Matrix einer Kamera). Der 3x3 Anteil wird dazu lediglich transponiert.
+	 *
+	 * @param m		affine Matrix mit orthonormalem 3x3 Anteil
+	 * @param dst	Ergebnis (darf nicht m sein)
+	 * @return dst
+	 */
+	public static double[] invertRigid(double[] m, double[] dst) {
+
+		dst[0] = m[0];
+		dst[1] = m[4];
+		dst[2] = m[8];
+		dst[3] = 0;
+		dst[4] = m[1];
+		dst[5] = m[5];
+		dst[6] = m[9];
+		dst[7] = 0;
+		dst[8] = m[2];
+		dst[9] = m[6];
+		dst[10] = m[10];
+		dst[11] = 0;
+		dst[12] = -(m[12] * dst[0] + m[13] * dst[4] + m[14] * dst[8]);
+		dst[13] = -(m[12] * dst[1] + m[13] * dst[5] + m[14] * dst[9]);
+		dst[14] = -(m[12] * dst[2] + m[13] * dst[6] + m[14] * dst[10]);
+		dst[15] = 1;
+
+		return dst;
+	}
+
+	/**
+	 * Errechnet die Determinante des 3x3 Anteils (Rotation und Skalierung) einer Matrix.
+	 *
+	 * @param m	Matrix
+	 * @return Determinante
+	 */
+	public static double determinant3(double[] m) {
+		return m[0] * (m[5] * m[10] - m[6] * m[9]) - m[1] * (m[4] * m[10] - m[6] * m[8])
+				+ m[2] * (m[4] * m[9] - m[5] * m[8]);
+	}
+
+	/**
+	 * Schreibt die Normalenmatrix einer Matrix in dst: die Kofaktormatrix ihres 3x3 Anteils (die Inverse-Transponierte
+	 * multipliziert mit der Determinante). Eine Flchen-Normale n wird mit n' = n * dst transformiert und zeigt
+	 * anschlieend in dieselbe Richtung wie das Kreuzprodukt der transformierten Kanten, auch bei ungleichmiger
+	 * Skalierung und Spiegelungen. (Die Lnge bleibt dabei nicht erhalten.)
+	 *
+	 * @param m		Matrix
+	 * @param dst	Ergebnis (affin, ohne Translation; darf m sein)
+	 * @return dst
+	 */
+	public static double[] normalMatrix(double[] m, double[] dst) {
+
+		double m0 = m[0], m1 = m[1], m2 = m[2];
+		double m4 = m[4], m5 = m[5], m6 = m[6];
+		double m8 = m[8], m9 = m[9], m10 = m[10];
+
+		dst[0] = m5 * m10 - m6 * m9;
+		dst[1] = m6 * m8 - m4 * m10;
+		dst[2] = m4 * m9 - m5 * m8;
+		dst[3] = 0;
+		dst[4] = m2 * m9 - m1 * m10;
+		dst[5] = m0 * m10 - m2 * m8;
+		dst[6] = m1 * m8 - m0 * m9;
+		dst[7] = 0;
+		dst[8] = m1 * m6 - m2 * m5;
+		dst[9] = m2 * m4 - m0 * m6;
+		dst[10] = m0 * m5 - m1 * m4;
+		dst[11] = 0;
+		dst[12] = 0;
+		dst[13] = 0;
+		dst[14] = 0;
+		dst[15] = 1;
+
+		return dst;
+	}
+
+	/**
+	 * Transformiert einen Punkt (w = 1) mit einer Matrix und teilt das Ergebnis durch die w-Komponente
+	 * (wenn diese nicht 0 ist).
+	 *
+	 * @param m		Matrix
+	 * @param x		x-Koordinate
+	 * @param y		y-Koordinate
+	 * @param z		z-Koordinate
+	 * @param dst	Array, in welches das Ergebnis (x, y, z) geschrieben wird
+	 * @param off	Index in dst
+	 */
+	public static void transformPoint(double[] m, double x, double y, double z, double[] dst, int off) {
+
+		double rx = x * m[0] + y * m[4] + z * m[8] + m[12];
+		double ry = x * m[1] + y * m[5] + z * m[9] + m[13];
+		double rz = x * m[2] + y * m[6] + z * m[10] + m[14];
+		double w = x * m[3] + y * m[7] + z * m[11] + m[15];
+
+		if (w != 0) {
+			rx /= w;
+			ry /= w;
+			rz /= w;
+		}
+
+		dst[off] = rx;
+		dst[off + 1] = ry;
+		dst[off + 2] = rz;
+	}
+
+	/**
+	 * Transformiert eine Richtung (w = 0) mit dem 3x3 Anteil einer Matrix.
+	 *
+	 * @param m		Matrix
+	 * @param x		x-Koordinate
+	 * @param y		y-Koordinate
+	 * @param z		z-Koordinate
+	 * @param dst	Array, in welches das Ergebnis (x, y, z) geschrieben wird
+	 * @param off	Index in dst
+	 */
+	public static void transformDir(double[] m, double x, double y, double z, double[] dst, int off) {
+		dst[off] = x * m[0] + y * m[4] + z * m[8];
+		dst[off + 1] = x * m[1] + y * m[5] + z * m[9];
+		dst[off + 2] = x * m[2] + y * m[6] + z * m[10];
+	}
+
+	/**
+	 * Transformiert mehrere Punkte (w = 1) mit einer affinen Matrix. Die Punkte werden fortlaufend (x, y, z pro
+	 * Punkt) aus dem Array in gelesen und an dieselbe Stelle des Arrays out geschrieben.
+	 *
+	 * @param m		affine Matrix
+	 * @param in	Koordinaten der Punkte
+	 * @param from	erster Punkt (einschlielich), welcher transformiert werden soll
+	 * @param to	letzter Punkt (ausschlielich), welcher transformiert werden soll
+	 * @param out	Array, in welches das Ergebnis geschrieben wird (darf in sein)
+	 */
+	public static void transformAffine(double[] m, double[] in, int from, int to, double[] out) {
+
+		double m0 = m[0], m1 = m[1], m2 = m[2];
+		double m4 = m[4], m5 = m[5], m6 = m[6];
+		double m8 = m[8], m9 = m[9], m10 = m[10];
+		double m12 = m[12], m13 = m[13], m14 = m[14];
+
+		for (int i = from * 3; i < to * 3; i += 3) {
+
+			double x = in[i];
+			double y = in[i + 1];
+			double z = in[i + 2];
+
+			out[i] = x * m0 + y * m4 + z * m8 + m12;
+			out[i + 1] = x * m1 + y * m5 + z * m9 + m13;
+			out[i + 2] = x * m2 + y * m6 + z * m10 + m14;
+		}
+	}
+
+	/**
+	 * Transformiert mehrere Punkte (w = 1) wie transformAffine, rechnet dabei allerdings mit float.
+	 * (Die Elemente der Matrix werden dazu einmalig auf float gerundet.)
+	 *
+	 * @param m		affine Matrix
+	 * @param in	Koordinaten der Punkte
+	 * @param from	erster Punkt (einschlielich), welcher transformiert werden soll
+	 * @param to	letzter Punkt (ausschlielich), welcher transformiert werden soll
+	 * @param out	Array, in welches das Ergebnis geschrieben wird (darf in sein)
+	 */
+	public static void transformAffine(double[] m, float[] in, int from, int to, float[] out) {
+
+		float m0 = (float) m[0], m1 = (float) m[1], m2 = (float) m[2];
+		float m4 = (float) m[4], m5 = (float) m[5], m6 = (float) m[6];
+		float m8 = (float) m[8], m9 = (float) m[9], m10 = (float) m[10];
+		float m12 = (float) m[12], m13 = (float) m[13], m14 = (float) m[14];
+
+		for (int i = from * 3; i < to * 3; i += 3) {
+
+			float x = in[i];
+			float y = in[i + 1];
+			float z = in[i + 2];
+
+			out[i] = x * m0 + y * m4 + z * m8 + m12;
+			out[i + 1] = x * m1 + y * m5 + z * m9 + m13;
+			out[i + 2] = x * m2 + y * m6 + z * m10 + m14;
+		}
+	}
+
+}
@@ -0,0 +1,59 @@
+package de.sebphil.renderer.math;
+
+public final class Vec3 {
+
+	/*
+	 * Vektoren werden fortlaufend in double Arrays gespeichert (x, y, z pro Vektor). Ein Vektor wird durch das
+	 * Array und den Index seiner x-Koordinate angegeben. Keine der Funktionen erzeugt Objekte.
+	 */
+
+	private Vec3() {
+	}
+
+	/**
+	 * Errechnet das Skalarprodukt zweier Vektoren.
+	 *
+	 * @param a		Array des 1. Vektors
+	 * @param ai	Index des 1. Vektors
+	 * @param b		Array des 2. Vektors
+	 * @param bi	Index des 2. Vektors
+	 * @return Skalarprodukt
+	 */
+	public static double dot(double[] a, int ai, double[] b, int bi) {
+		return a[ai] * b[bi] + a[ai + 1] * b[bi + 1] + a[ai + 2] * b[bi + 2];
+	}
+
+	/**
+	 * Schreibt einen Vektor in ein Array.
+	 *
+	 * @param x		x-Koordinate
+	 * @param y		y-Koordinate
+	 * @param z		z-Koordinate
+	 * @param dst	Array, in welches der Vektor geschrieben wird
+	 * @param off	Index in dst
+	 */
+	public static void set(double x, double y, double z, double[] dst, int off) {
+		dst[off] = x;
+		dst[off + 1] = y;
+		dst[off + 2] = z;
+	}
+
+	/**
+	 * Normiert einen Vektor (auf die Lnge 1). Ein Vektor der Lnge 0 bleibt unverndert.
+	 *
+	 * @param v		Array des Vektors
+	 * @param off	Index des Vektors
+	 */
+	public static void normalize(double[] v, int off) {
+
+		double length = Math.sqrt(v[off] * v[off] + v[off + 1] * v[off + 1] + v[off + 2] * v[off + 2]);
+
+		if (length == 0)
+			return;
+
+		v[off] /= length;
+		v[off + 1] /= length;
+		v[off + 2] /= length;
+	}
+
+}
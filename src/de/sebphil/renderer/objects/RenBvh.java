@@ -0,0 +1,919 @@
+package de.sebphil.renderer.objects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+import javafx.geometry.Point3D;
+
+public class RenBvh {
+
+	// Anzahl der Bins pro Knoten beim Aufbau nach der Surface Area Heuristic (SAH)
+	private static final int SAH_BINS = 16;
+	// Der Baum wird neu aufgebaut, wenn seine Kosten um diesen Faktor grer sind als nach dem letzten Aufbau
+	private static final double REBUILD_FACTOR = 1.5;
+	// Mindestanzahl der Figuren, ab welcher der Baum (im Hintergrund) neu aufgebaut wird
+	private static final int REBUILD_MIN_SHAPES = 64;
+	// Anzahl der Aufrufe von update, nach welchen die Kosten des Baumes (bei nderungen) erneut ermittelt werden
+	private static final int COST_INTERVAL = 16;
+
+	// Kein Knoten bzw. freigegebener Knoten
+	private static final int NONE = -1, FREE = -2;
+
+	private Tree tree;
+	// Figuren, deren Bounding-Volumes sich seit dem letzten Aufruf von update gendert haben
+	private Set<RenShape> dirty;
+	private Consumer<RenShape> boundsListener;
+	// Reihenfolge, welche dem nchsten eingefgten Blatt zugewiesen wird
+	private int nextOrder;
+	// Zhler, welcher bei jedem Einfgen und Entfernen einer Figur erhht wird
+	private int modCount;
+	// Kosten des Baumes nach dem letzten Aufbau
+	private double builtCost;
+	private boolean changed;
+	private int updates;
+	// Neuaufbau im Hintergrund (null, wenn keiner luft) und modCount zum Zeitpunkt seines Starts
+	private ForkJoinTask<Tree> rebuild;
+	private int rebuildModCount;
+	// Stapel fr das Durchlaufen des Baumes
+	private int[] stack;
+
+	/**
+	 * Constructor fr eine RenBvh.
+	 *
+	 * Diese Klasse stellt eine dynamische Bounding Volume Hierarchy ber die Figuren einer Szene dar: ein binrer
+	 * Baum, dessen Bltter die Bounding-Boxen der Figuren im World-Space (siehe RenShape#getWorldBounds) enthalten
+	 * und dessen innere Knoten die Bounding-Boxen ihrer Kinder umschlieen. Eine RenScene hlt ihren Baum
+	 * automatisch aktuell:
+	 * <ul>
+	 * <li>Figuren werden beim Hinzufgen zur Szene eingefgt (an der Stelle, an welcher die Box des Elternknotens
+	 * am wenigsten wchst) und beim Entfernen entfernt.
+	 * <li>ndert sich die Transformation oder das Dreiecksnetz einer Figur, wird sie markiert und bei dem nchsten
+	 * Aufruf von update werden ihr Blatt und dessen Vorfahren angepasst (Refit), ohne die Struktur zu ndern.
+	 * <li>Durch Einfgen, Entfernen und Refits verschlechtert sich der Baum mit der Zeit. Steigen seine Kosten
+	 * (Summe der Oberflchen der inneren Knoten) um REBUILD_FACTOR, so wird er im Hintergrund nach der Surface Area
+	 * Heuristic mit SAH_BINS Bins pro Knoten neu aufgebaut und bei einem spteren Aufruf von update bernommen.
+	 * </ul>
+	 * Der SebRenderer durchluft den Baum beim View-Frustum-Culling, sodass Teilbume auerhalb des sichtbaren
+	 * Bereiches mit einem Test bersprungen werden. Zustzlich knnen Figuren mit queryBox und queryRay gesucht
+	 * werden. Jede Figur wird nur einmal eingefgt, auch wenn sie mehrfach in der Szene enthalten ist. Statische
+	 * Figuren sind nur ber ihren RenStaticBatch enthalten, die Suchfunktionen geben jedoch die Figuren selbst aus.
+	 */
+	public RenBvh() {
+		this.tree = new Tree(16);
+		this.dirty = Collections.newSetFromMap(new IdentityHashMap<RenShape, Boolean>());
+		this.boundsListener = dirty::add;
+		this.stack = new int[64];
+	}
+
+	/**
+	 * Fgt eine Figur ein. (Ist die Figur bereits enthalten, wird nur gezhlt, wie oft sie eingefgt wurde.)
+	 *
+	 * @param shape	Figur
+	 */
+	public void insert(RenShape shape) {
+
+		Integer existing = tree.leaves.get(shape);
+
+		if (existing != null) {
+			tree.counts[existing]++;
+			return;
+		}
+
+		int leaf = tree.allocate();
+
+		tree.shapes[leaf] = shape;
+		tree.orders[leaf] = nextOrder++;
+		tree.counts[leaf] = 1;
+		System.arraycopy(shape.getWorldBounds(), 0, tree.boxes, leaf * 6, 6);
+		tree.leaves.put(shape, leaf);
+		tree.insertLeaf(leaf);
+
+		shape.addBoundsListener(boundsListener);
+
+		modCount++;
+		changed = true;
+	}
+
+	/**
+	 * Entfernt eine Figur. (Wurde die Figur mehrfach eingefgt, wird sie erst beim letzten Entfernen entfernt.)
+	 *
+	 * @param shape	Figur
+	 * @return true, wenn die Figur anschlieend nicht mehr enthalten ist
+	 */
+	public boolean remove(RenShape shape) {
+
+		Integer leaf = tree.leaves.get(shape);
+
+		if (leaf == null)
+			return true;
+
+		if (--tree.counts[leaf] > 0)
+			return false;
+
+		tree.leaves.remove(shape);
+		tree.removeLeaf(leaf);
+		tree.release(leaf);
+
+		shape.removeBoundsListener(boundsListener);
+		dirty.remove(shape);
+
+		modCount++;
+		changed = true;
+
+		return true;
+	}
+
+	/**
+	 * Bringt den Baum auf den aktuellen Stand: bernimmt einen abgeschlossenen Neuaufbau, passt die Bltter aller
+	 * genderten Figuren an und startet bei Bedarf einen Neuaufbau im Hintergrund. Diese Funktion wird von dem
+	 * SebRenderer vor jedem Frame und von den Suchfunktionen aufgerufen.
+	 */
+	public void update() {
+
+		if (rebuild != null && rebuild.isDone()) {
+
+			Tree built = rebuild.join();
+			rebuild = null;
+
+			/*
+			 * Wurden seit dem Start Figuren eingefgt oder entfernt, wird das Ergebnis verworfen. Sonst werden alle
+			 * Bltter bernommen, deren Figuren sich seit dem Start bewegt haben.
+			 */
+			if (rebuildModCount == modCount) {
+
+				tree = built;
+				builtCost = tree.cost();
+				dirty.clear();
+
+				for (int leaf : tree.leaves.values())
+					refitLeaf(leaf);
+			}
+		}
+
+		for (RenShape shape : dirty) {
+
+			Integer leaf = tree.leaves.get(shape);
+
+			if (leaf != null)
+				refitLeaf(leaf);
+		}
+
+		if (!dirty.isEmpty())
+			changed = true;
+
+		dirty.clear();
+
+		if (!changed || ++updates < COST_INTERVAL || rebuild != null || tree.leaves.size() < REBUILD_MIN_SHAPES)
+			return;
+
+		updates = 0;
+		changed = false;
+
+		if (tree.cost() > builtCost * REBUILD_FACTOR) {
+
+			// Momentaufnahme der Bltter, aus welcher der neue Baum im Hintergrund aufgebaut wird
+			int count = tree.leaves.size();
+			RenShape[] shapes = new RenShape[count];
+			double[] boxes = new double[count * 6];
+			int[] orders = new int[count];
+			int[] counts = new int[count];
+			int i = 0;
+
+			for (int leaf : tree.leaves.values()) {
+				shapes[i] = tree.shapes[leaf];
+				System.arraycopy(tree.boxes, leaf * 6, boxes, i * 6, 6);
+				orders[i] = tree.orders[leaf];
+				counts[i] = tree.counts[leaf];
+				i++;
+			}
+
+			rebuildModCount = modCount;
+			rebuild = ForkJoinPool.commonPool().submit(() -> Tree.build(shapes, boxes, orders, counts));
+		}
+	}
+
+	/**
+	 * bernimmt die aktuellen Bounding-Volumes der Figur eines Blattes und passt (falls sich diese gendert haben)
+	 * die Bounding-Boxen aller Vorfahren an.
+	 *
+	 * @param leaf	Blatt
+	 */
+	private void refitLeaf(int leaf) {
+
+		double[] bounds = tree.shapes[leaf].getWorldBounds();
+
+		for (int i = 0; i < 6; i++) {
+
+			if (tree.boxes[leaf * 6 + i] != bounds[i]) {
+				System.arraycopy(bounds, 0, tree.boxes, leaf * 6, 6);
+				tree.refit(tree.parents[leaf]);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Ermittelt alle Figuren, welche (teilweise) innerhalb des sichtbaren Bereiches liegen. Teilbume, deren
+	 * Bounding-Box vollstndig auerhalb bzw. innerhalb liegt, werden dabei nicht weiter getestet. Die Figuren
+	 * werden in der Reihenfolge ausgegeben, in welcher sie eingefgt wurden. Das Ergebnis ist dasselbe wie beim
+	 * Test jeder einzelnen Figur mit RenFrustum#classify.
+	 *
+	 * @param frustum	sichtbarer Bereich
+	 * @param visible	Liste, in welche die sichtbaren Figuren eingetragen werden
+	 * @param inside	wird fr jede Figur in visible auf true gesetzt, wenn diese vollstndig innerhalb liegt
+	 *            		(mindestens getShapeCount() Eintrge)
+	 * @return Anzahl der Figuren, welche vollstndig innerhalb liegen
+	 */
+	int cull(RenFrustum frustum, List<RenShape> visible, boolean[] inside) {
+
+		if (tree.root == NONE)
+			return 0;
+
+		// Ergebnisse als (Reihenfolge, Blatt, vollstndig innerhalb), um sie anschlieend sortieren zu knnen
+		long[] found = new long[tree.leaves.size()];
+		int count = 0;
+
+		// Auf dem Stapel wird der Index eines Knotens und in Bit 0 gespeichert, ob dieser vollstndig innerhalb liegt.
+		int top = 0;
+		stack[top++] = tree.root << 1;
+
+		while (top > 0) {
+
+			int entry = stack[--top];
+			int node = entry >> 1;
+			boolean nodeInside = (entry & 1) != 0;
+
+			if (!nodeInside) {
+
+				int location = tree.lefts[node] == NONE ? frustum.classify(tree.shapes[node].getWorldBounds())
+						: frustum.classifyBox(tree.boxes, node * 6);
+
+				if (location == RenFrustum.OUTSIDE)
+					continue;
+
+				nodeInside = location == RenFrustum.INSIDE;
+			}
+
+			if (tree.lefts[node] == NONE) {
+				found[count++] = (long) tree.orders[node] << 32 | (long) node << 1 | (nodeInside ? 1 : 0);
+				continue;
+			}
+
+			if (top + 2 > stack.length)
+				stack = Arrays.copyOf(stack, stack.length * 2);
+
+			stack[top++] = tree.rights[node] << 1 | (nodeInside ? 1 : 0);
+			stack[top++] = tree.lefts[node] << 1 | (nodeInside ? 1 : 0);
+		}
+
+		Arrays.sort(found, 0, count);
+
+		int insideCount = 0;
+
+		for (int i = 0; i < count; i++) {
+
+			int node = (int) found[i] >> 1;
+
+			if ((found[i] & 1) != 0) {
+				inside[visible.size()] = true;
+				insideCount++;
+			}
+
+			visible.add(tree.shapes[node]);
+		}
+
+		return insideCount;
+	}
+
+	/**
+	 * Sucht alle Figuren, deren Bounding-Box im World-Space eine achsenparallele Box schneidet. (Von einem
+	 * RenStaticBatch werden die Figuren ausgegeben, deren eigene Bounding-Box die Box schneidet.)
+	 *
+	 * @param min	kleinste Ecke der Box
+	 * @param max	grte Ecke der Box
+	 * @return Figuren, deren Bounding-Box die Box schneidet (in keiner bestimmten Reihenfolge)
+	 */
+	public List<RenShape> queryBox(Point3D min, Point3D max) {
+
+		update();
+
+		double[] box = { min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ() };
+		List<RenShape> result = new ArrayList<RenShape>();
+
+		if (tree.root == NONE)
+			return result;
+
+		int top = 0;
+		stack[top++] = tree.root;
+
+		while (top > 0) {
+
+			int node = stack[--top];
+
+			if (!overlaps(tree.boxes, node * 6, box))
+				continue;
+
+			if (tree.lefts[node] == NONE) {
+
+				if (tree.shapes[node] instanceof RenStaticBatch) {
+					for (RenShape member : ((RenStaticBatch) tree.shapes[node]).getMembers())
+						if (overlaps(member.getWorldBounds(), 0, box))
+							result.add(member);
+				} else {
+					result.add(tree.shapes[node]);
+				}
+
+				continue;
+			}
+
+			if (top + 2 > stack.length)
+				stack = Arrays.copyOf(stack, stack.length * 2);
+
+			stack[top++] = tree.rights[node];
+			stack[top++] = tree.lefts[node];
+		}
+
+		return result;
+	}
+
+	/**
+	 * Sucht alle Figuren, deren Bounding-Box im World-Space von einem Strahl getroffen wird (z.B. um eine Figur mit
+	 * der Maus auszuwhlen). Die Dreiecke der Figuren werden dabei nicht getestet.
+	 *
+	 * @param origin	Ursprung des Strahls
+	 * @param direction	Richtung des Strahls (muss nicht normiert sein)
+	 * @return getroffene Figuren, sortiert nach dem Abstand, an welchem der Strahl ihre Bounding-Box erreicht
+	 */
+	public List<RenShape> queryRay(Point3D origin, Point3D direction) {
+
+		update();
+
+		List<RenShape> result = new ArrayList<RenShape>();
+
+		if (tree.root == NONE)
+			return result;
+
+		double[] ray = { origin.getX(), origin.getY(), origin.getZ(), 1 / direction.getX(), 1 / direction.getY(),
+				1 / direction.getZ() };
+
+		// Treffer als (Abstand, Index in shapes)
+		List<double[]> hits = new ArrayList<double[]>();
+		List<RenShape> shapes = new ArrayList<RenShape>();
+
+		int top = 0;
+		stack[top++] = tree.root;
+
+		while (top > 0) {
+
+			int node = stack[--top];
+			double distance = intersect(tree.boxes, node * 6, ray);
+
+			if (distance < 0)
+				continue;
+
+			if (tree.lefts[node] == NONE) {
+
+				if (tree.shapes[node] instanceof RenStaticBatch) {
+					for (RenShape member : ((RenStaticBatch) tree.shapes[node]).getMembers()) {
+
+						double memberDistance = intersect(member.getWorldBounds(), 0, ray);
+
+						if (memberDistance >= 0) {
+							hits.add(new double[] { memberDistance, shapes.size() });
+							shapes.add(member);
+						}
+					}
+				} else {
+					hits.add(new double[] { distance, shapes.size() });
+					shapes.add(tree.shapes[node]);
+				}
+
+				continue;
+			}
+
+			if (top + 2 > stack.length)
+				stack = Arrays.copyOf(stack, stack.length * 2);
+
+			stack[top++] = tree.rights[node];
+			stack[top++] = tree.lefts[node];
+		}
+
+		hits.sort((a, b) -> Double.compare(a[0], b[0]));
+
+		for (double[] hit : hits)
+			result.add(shapes.get((int) hit[1]));
+
+		return result;
+	}
+
+	/**
+	 * @param bounds	Array mit einer Bounding-Box (minX, minY, minZ, maxX, maxY, maxZ)
+	 * @param off		Index der Bounding-Box in bounds
+	 * @param box		Box (minX, minY, minZ, maxX, maxY, maxZ)
+	 * @return true, wenn sich die Bounding-Box und die Box schneiden
+	 */
+	private static boolean overlaps(double[] bounds, int off, double[] box) {
+
+		for (int k = 0; k < 3; k++)
+			if (bounds[off + k] > box[3 + k] || bounds[off + 3 + k] < box[k])
+				return false;
+
+		return true;
+	}
+
+	/**
+	 * Schneidet einen Strahl mit einer Bounding-Box (Slab-Test).
+	 *
+	 * @param bounds	Array mit einer Bounding-Box (minX, minY, minZ, maxX, maxY, maxZ)
+	 * @param off		Index der Bounding-Box in bounds
+	 * @param ray		Ursprung und Kehrwerte der Richtung des Strahls
+	 * @return Parameter des Strahls, an welchem er die Box erreicht (0, wenn der Ursprung innerhalb liegt),
+	 *         oder -1, wenn er die Box verfehlt
+	 */
+	private static double intersect(double[] bounds, int off, double[] ray) {
+
+		double near = 0, far = Double.POSITIVE_INFINITY;
+
+		for (int k = 0; k < 3; k++) {
+
+			double t1 = (bounds[off + k] - ray[k]) * ray[3 + k];
+			double t2 = (bounds[off + 3 + k] - ray[k]) * ray[3 + k];
+
+			// Bei einer Richtung von 0 ergibt sich NaN, wenn der Ursprung auf der Ebene liegt (kein Einfluss)
+			if (!Double.isNaN(t1) && !Double.isNaN(t2)) {
+				near = Math.max(near, Math.min(t1, t2));
+				far = Math.min(far, Math.max(t1, t2));
+			}
+		}
+
+		return near <= far ? near : -1;
+	}
+
+	/**
+	 * @return Anzahl der (verschiedenen) Figuren im Baum
+	 */
+	public int getShapeCount() {
+		return tree.leaves.size();
+	}
+
+	/**
+	 * @return Kosten des Baumes (Summe der Oberflchen der inneren Knoten, siehe REBUILD_FACTOR)
+	 */
+	public double getCost() {
+		return tree.cost();
+	}
+
+	/**
+	 * Knoten des Baumes in Arrays (6 Werte pro Bounding-Box, minX, minY, minZ, maxX, maxY, maxZ). Ein Blatt hat
+	 * keine Kinder (lefts[node] == NONE) und enthlt genau eine Figur. Freigegebene Knoten werden in einer Liste
+	 * (ber lefts) wiederverwendet.
+	 */
+	private static class Tree {
+
+		double[] boxes;
+		int[] parents, lefts, rights, orders, counts;
+		RenShape[] shapes;
+		int root, size, free;
+		Map<RenShape, Integer> leaves;
+
+		Tree(int capacity) {
+			this.boxes = new double[capacity * 6];
+			this.parents = new int[capacity];
+			this.lefts = new int[capacity];
+			this.rights = new int[capacity];
+			this.orders = new int[capacity];
+			this.counts = new int[capacity];
+			this.shapes = new RenShape[capacity];
+			this.root = NONE;
+			this.free = NONE;
+			this.leaves = new IdentityHashMap<RenShape, Integer>();
+		}
+
+		/**
+		 * Baut einen Baum fr eine Menge von Blttern von oben nach unten nach der Surface Area Heuristic auf: Die
+		 * Bltter eines Knotens werden nach den Mittelpunkten ihrer Boxen entlang der lngsten Achse in SAH_BINS
+		 * Bins eingeteilt und an der Grenze zweier Bins geteilt, fr welche die Summe aus Oberflche mal Anzahl der
+		 * Bltter beider Hlften am kleinsten ist.
+		 *
+		 * @param shapes	Figuren der Bltter
+		 * @param boxes		Bounding-Boxen der Bltter
+		 * @param orders	Reihenfolge der Bltter
+		 * @param counts	Anzahl, wie oft jede Figur eingefgt wurde
+		 * @return neuer Baum
+		 */
+		static Tree build(RenShape[] shapes, double[] boxes, int[] orders, int[] counts) {
+
+			int n = shapes.length;
+			Tree tree = new Tree(Math.max(n * 2, 16));
+
+			if (n == 0)
+				return tree;
+
+			int[] items = new int[n];
+			for (int i = 0; i < n; i++)
+				items[i] = i;
+
+			int[] bins = new int[n];
+			int[] binCounts = new int[SAH_BINS];
+			double[] binBoxes = new double[SAH_BINS * 6];
+			double[] rightAreas = new double[SAH_BINS];
+			double[] box = new double[6];
+
+			// Aufgaben als (Knoten, erstes Blatt, letztes Blatt (ausschlielich))
+			int[] tasks = new int[64 * 3];
+			int taskCount = 0;
+
+			tree.root = tree.allocate();
+			tasks[taskCount++] = tree.root;
+			tasks[taskCount++] = 0;
+			tasks[taskCount++] = n;
+
+			while (taskCount > 0) {
+
+				int to = tasks[--taskCount];
+				int from = tasks[--taskCount];
+				int node = tasks[--taskCount];
+
+				if (to - from == 1) {
+
+					int item = items[from];
+
+					tree.shapes[node] = shapes[item];
+					tree.orders[node] = orders[item];
+					tree.counts[node] = counts[item];
+					System.arraycopy(boxes, item * 6, tree.boxes, node * 6, 6);
+					tree.leaves.put(shapes[item], node);
+					continue;
+				}
+
+				// Bereich der Mittelpunkte und lngste Achse
+				empty(box);
+
+				for (int i = from; i < to; i++)
+					for (int k = 0; k < 3; k++)
+						include(box, k, (boxes[items[i] * 6 + k] + boxes[items[i] * 6 + 3 + k]) / 2);
+
+				int axis = 0;
+				for (int k = 1; k < 3; k++)
+					if (box[3 + k] - box[k] > box[3 + axis] - box[axis])
+						axis = k;
+
+				double min = box[axis];
+				double extent = box[3 + axis] - min;
+				int mid = (from + to) / 2;
+
+				if (extent > 0) {
+
+					Arrays.fill(binCounts, 0);
+					for (int b = 0; b < SAH_BINS; b++)
+						empty(binBoxes, b * 6);
+
+					for (int i = from; i < to; i++) {
+
+						int item = items[i];
+						double center = (boxes[item * 6 + axis] + boxes[item * 6 + 3 + axis]) / 2;
+						int b = Math.min((int) ((center - min) / extent * SAH_BINS), SAH_BINS - 1);
+
+						bins[item] = b;
+						binCounts[b]++;
+						union(binBoxes, b * 6, boxes, item * 6);
+					}
+
+					// Oberflchen der rechten Hlften (Bins b bis SAH_BINS - 1)
+					empty(box);
+					for (int b = SAH_BINS - 1; b > 0; b--) {
+						union(box, 0, binBoxes, b * 6);
+						rightAreas[b] = area(box, 0);
+					}
+
+					int bestSplit = -1, leftCount = 0;
+					double bestCost = Double.MAX_VALUE;
+
+					empty(box);
+					for (int b = 0; b < SAH_BINS - 1; b++) {
+
+						union(box, 0, binBoxes, b * 6);
+						leftCount += binCounts[b];
+
+						int rightCount = to - from - leftCount;
+
+						if (leftCount == 0 || rightCount == 0)
+							continue;
+
+						double cost = area(box, 0) * leftCount + rightAreas[b + 1] * rightCount;
+
+						if (cost < bestCost) {
+							bestCost = cost;
+							bestSplit = b;
+						}
+					}
+
+					// Bltter nach dem besten Bin aufteilen (sonst wird in der Mitte geteilt)
+					if (bestSplit >= 0) {
+
+						int left = from, right = to - 1;
+
+						while (left <= right) {
+
+							if (bins[items[left]] <= bestSplit) {
+								left++;
+							} else {
+								int tmp = items[left];
+								items[left] = items[right];
+								items[right--] = tmp;
+							}
+						}
+
+						mid = left;
+					}
+				}
+
+				int leftNode = tree.allocate();
+				int rightNode = tree.allocate();
+
+				tree.lefts[node] = leftNode;
+				tree.rights[node] = rightNode;
+				tree.parents[leftNode] = node;
+				tree.parents[rightNode] = node;
+
+				if (taskCount + 6 > tasks.length)
+					tasks = Arrays.copyOf(tasks, tasks.length * 2);
+
+				tasks[taskCount++] = leftNode;
+				tasks[taskCount++] = from;
+				tasks[taskCount++] = mid;
+				tasks[taskCount++] = rightNode;
+				tasks[taskCount++] = mid;
+				tasks[taskCount++] = to;
+			}
+
+			// Kinder haben stets einen greren Index als ihre Eltern, daher gengt ein Durchlauf rckwrts.
+			for (int node = tree.size - 1; node >= 0; node--)
+				if (tree.lefts[node] != NONE)
+					tree.union(node);
+
+			return tree;
+		}
+
+		/**
+		 * @return Index eines neuen (oder freigegebenen) Knotens ohne Eltern und Kinder
+		 */
+		int allocate() {
+
+			int node;
+
+			if (free != NONE) {
+				node = free;
+				free = lefts[node];
+			} else {
+
+				if (size == parents.length)
+					grow();
+
+				node = size++;
+			}
+
+			parents[node] = NONE;
+			lefts[node] = NONE;
+			rights[node] = NONE;
+
+			return node;
+		}
+
+		/**
+		 * Gibt einen Knoten frei, sodass er von allocate wiederverwendet wird.
+		 *
+		 * @param node	Knoten
+		 */
+		void release(int node) {
+			shapes[node] = null;
+			parents[node] = FREE;
+			lefts[node] = free;
+			free = node;
+		}
+
+		/**
+		 * Verdoppelt die Gre aller Arrays.
+		 */
+		private void grow() {
+
+			int capacity = parents.length * 2;
+
+			boxes = Arrays.copyOf(boxes, capacity * 6);
+			parents = Arrays.copyOf(parents, capacity);
+			lefts = Arrays.copyOf(lefts, capacity);
+			rights = Arrays.copyOf(rights, capacity);
+			orders = Arrays.copyOf(orders, capacity);
+			counts = Arrays.copyOf(counts, capacity);
+			shapes = Arrays.copyOf(shapes, capacity);
+		}
+
+		/**
+		 * Fgt ein Blatt ein. Ausgehend von der Wurzel wird jeweils das Kind gewhlt, bei welchem die Oberflchen
+		 * der Vorfahren am wenigsten wachsen, bis es gnstiger ist, das Blatt als Geschwister des aktuellen Knotens
+		 * einzufgen.
+		 *
+		 * @param leaf	Blatt (Box und Figur mssen gesetzt sein)
+		 */
+		void insertLeaf(int leaf) {
+
+			if (root == NONE) {
+				root = leaf;
+				return;
+			}
+
+			int sibling = root;
+
+			while (lefts[sibling] != NONE) {
+
+				int left = lefts[sibling], right = rights[sibling];
+
+				double area = area(boxes, sibling * 6);
+				double combined = unionArea(sibling, leaf);
+
+				// Kosten, das Blatt hier einzufgen, und Zuwachs, welchen alle tieferen Knoten ebenfalls verursachen
+				double cost = 2 * combined;
+				double inheritance = 2 * (combined - area);
+
+				double leftCost = childCost(left, leaf) + inheritance;
+				double rightCost = childCost(right, leaf) + inheritance;
+
+				if (cost < leftCost && cost < rightCost)
+					break;
+
+				sibling = leftCost < rightCost ? left : right;
+			}
+
+			int oldParent = parents[sibling];
+			int newParent = allocate();
+
+			parents[newParent] = oldParent;
+			lefts[newParent] = sibling;
+			rights[newParent] = leaf;
+			parents[sibling] = newParent;
+			parents[leaf] = newParent;
+
+			if (oldParent == NONE)
+				root = newParent;
+			else if (lefts[oldParent] == sibling)
+				lefts[oldParent] = newParent;
+			else
+				rights[oldParent] = newParent;
+
+			refit(newParent);
+		}
+
+		/**
+		 * @param child	Kind des aktuellen Knotens
+		 * @param leaf	einzufgendes Blatt
+		 * @return Kosten, wenn das Blatt unterhalb des Kindes eingefgt wird (ohne Kosten der Vorfahren)
+		 */
+		private double childCost(int child, int leaf) {
+
+			if (lefts[child] == NONE)
+				return unionArea(child, leaf);
+
+			return unionArea(child, leaf) - area(boxes, child * 6);
+		}
+
+		/**
+		 * Entfernt ein Blatt (ohne es freizugeben). Sein Geschwister nimmt dabei den Platz des Elternknotens ein.
+		 *
+		 * @param leaf	Blatt
+		 */
+		void removeLeaf(int leaf) {
+
+			if (leaf == root) {
+				root = NONE;
+				return;
+			}
+
+			int parent = parents[leaf];
+			int grandParent = parents[parent];
+			int sibling = lefts[parent] == leaf ? rights[parent] : lefts[parent];
+
+			if (grandParent == NONE) {
+				root = sibling;
+				parents[sibling] = NONE;
+			} else {
+
+				if (lefts[grandParent] == parent)
+					lefts[grandParent] = sibling;
+				else
+					rights[grandParent] = sibling;
+
+				parents[sibling] = grandParent;
+				refit(grandParent);
+			}
+
+			release(parent);
+		}
+
+		/**
+		 * Ermittelt die Bounding-Boxen eines Knotens und aller seiner Vorfahren neu aus ihren Kindern.
+		 *
+		 * @param node	innerer Knoten (oder NONE)
+		 */
+		void refit(int node) {
+			while (node != NONE) {
+				union(node);
+				node = parents[node];
+			}
+		}
+
+		/**
+		 * Setzt die Bounding-Box eines inneren Knotens auf die Vereinigung der Boxen seiner Kinder.
+		 *
+		 * @param node	innerer Knoten
+		 */
+		void union(int node) {
+
+			int a = lefts[node] * 6, b = rights[node] * 6, off = node * 6;
+
+			for (int k = 0; k < 3; k++) {
+				boxes[off + k] = Math.min(boxes[a + k], boxes[b + k]);
+				boxes[off + 3 + k] = Math.max(boxes[a + 3 + k], boxes[b + 3 + k]);
+			}
+		}
+
+		/**
+		 * @return Oberflche der Vereinigung der Bounding-Boxen zweier Knoten
+		 */
+		private double unionArea(int a, int b) {
+
+			double dx = Math.max(boxes[a * 6 + 3], boxes[b * 6 + 3]) - Math.min(boxes[a * 6], boxes[b * 6]);
+			double dy = Math.max(boxes[a * 6 + 4], boxes[b * 6 + 4]) - Math.min(boxes[a * 6 + 1], boxes[b * 6 + 1]);
+			double dz = Math.max(boxes[a * 6 + 5], boxes[b * 6 + 5]) - Math.min(boxes[a * 6 + 2], boxes[b * 6 + 2]);
+
+			return 2 * (dx * dy + dy * dz + dz * dx);
+		}
+
+		/**
+		 * @return Summe der Oberflchen aller inneren Knoten
+		 */
+		double cost() {
+
+			double cost = 0;
+
+			for (int node = 0; node < size; node++)
+				if (parents[node] != FREE && lefts[node] != NONE)
+					cost += area(boxes, node * 6);
+
+			return cost;
+		}
+
+		/**
+		 * @return Oberflche einer Box in einem Array
+		 */
+		private static double area(double[] box, int off) {
+
+			double dx = box[off + 3] - box[off];
+			double dy = box[off + 4] - box[off + 1];
+			double dz = box[off + 5] - box[off + 2];
+
+			return 2 * (dx * dy + dy * dz + dz * dx);
+		}
+
+		/**
+		 * Setzt eine Box auf eine leere Box (kleinste Ecke +unendlich, grte Ecke -unendlich).
+		 */
+		private static void empty(double[] box, int off) {
+			for (int k = 0; k < 3; k++) {
+				box[off + k] = Double.POSITIVE_INFINITY;
+				box[off + 3 + k] = Double.NEGATIVE_INFINITY;
+			}
+		}
+
+		private static void empty(double[] box) {
+			empty(box, 0);
+		}
+
+		/**
+		 * Erweitert eine Box (an Offset 0) entlang einer Achse, sodass sie einen Wert enthlt.
+		 */
+		private static void include(double[] box, int axis, double value) {
+			box[axis] = Math.min(box[axis], value);
+			box[3 + axis] = Math.max(box[3 + axis], value);
+		}
+
+		/**
+		 * Erweitert eine Box, sodass sie eine weitere Box enthlt.
+		 */
+		private static void union(double[] box, int off, double[] other, int otherOff) {
+			for (int k = 0; k < 3; k++) {
+				box[off + k] = Math.min(box[off + k], other[otherOff + k]);
+				box[off + 3 + k] = Math.max(box[off + 3 + k], other[otherOff + 3 + k]);
+			}
+		}
+
+	}
+
+}
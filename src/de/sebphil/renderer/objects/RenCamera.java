@@ -1,13 +1,19 @@
 package de.sebphil.renderer.objects;
 
-import de.sebphil.renderer.util.RenUtilities;
+import de.sebphil.renderer.math.Mat4;
 import javafx.geometry.Point3D;
 
 public class RenCamera extends RenObject {
 
-	private double[][] camRotMat;
+	private double[] camRotMat;
 	private Point3D lookDir;
 	private Point3D newRight, newUp;
+	// Array fr Zwischenergebnisse (lookDir und die Worldmatrix der Kamera)
+	private double[] tmpVec, camWorldMat;
+	// zwischengespeicherte View-Matrix und die Werte, mit welchen sie erstellt wurde
+	private double[] viewMat;
+	private Point3D viewTo;
+	private int viewVersion;
 
 	/**
 	 * Constructor fr eine RenCamera.
@@ -24,8 +30,32 @@ public class RenCamera extends RenObject {
 		setRotYMat(generateRotXMat(Math.toRadians(getAngleY())));
 		setRotZMat(generateRotXMat(Math.toRadians(getAngleZ())));
 
-		camRotMat = RenUtilities.multMatMat(getRotZMat(), getRotYMat());
-		camRotMat = RenUtilities.multMatMat(camRotMat, getRotXMat());
+		camRotMat = new double[16];
+		tmpVec = new double[3];
+		camWorldMat = new double[16];
+
+		Mat4.mul(getRotZMat(), getRotYMat(), camRotMat);
+		Mat4.mul(camRotMat, getRotXMat(), camRotMat);
+	}
+
+	/**
+	 * Gibt die View-Matrix zurck. Die Matrix wird nur neu generiert, wenn sich die Position oder die Rotation der
+	 * Kamera oder der Zielpunkt seit dem letzten Aufruf gendert hat. Sonst wird dasselbe Array zurckgegeben.
+	 * Eine neu generierte View-Matrix ist stets ein neues Array, da RenTransform#getWorldViewMat die View-Matrix
+	 * anhand des Arrays wiedererkennt.
+	 * 
+	 * @param to Zielpunkt
+	 * @return View-Matrix (darf nicht verndert werden)
+	 */
+	public double[] lookAt(Point3D to) {
+
+		if (viewMat == null || viewVersion != getTransform().getVersion() || !to.equals(viewTo)) {
+			viewMat = generateViewMat(to);
+			viewTo = to;
+			viewVersion = getTransform().getVersion();
+		}
+
+		return viewMat;
 	}
 
 	/**
@@ -34,14 +64,13 @@ public class RenCamera extends RenObject {
 	 * @param to Zielpunkt
 	 * @return View-Matrix
 	 */
-	public double[][] lookAt(Point3D to) {
-
-		double[][] camWorldMat = new double[4][4];
+	private double[] generateViewMat(Point3D to) {
 
 		Point3D tmp = new Point3D(0, 1, 0);
 		Point3D pos = getPosition();
 
-		lookDir = RenUtilities.multMatVec(camRotMat, to);
+		Mat4.transformPoint(camRotMat, to.getX(), to.getY(), to.getZ(), tmpVec, 0);
+		lookDir = new Point3D(tmpVec[0], tmpVec[1], tmpVec[2]);
 		to = getPosition().add(lookDir);
 
 		Point3D forward = to.subtract(getPosition()).normalize();
@@ -55,24 +84,24 @@ public class RenCamera extends RenObject {
 		if ((forward.getY() >= 0.9 && forward.getY() <= 1.1) || (forward.getY() >= -0.9 && forward.getY() <= -1.1)) 
 			forward = new Point3D(forward.getX(), forward.getY() + 0.2, forward.getZ());
 
-		camWorldMat[0][0] = newRight.getX();
-		camWorldMat[0][1] = newRight.getY();
-		camWorldMat[0][2] = newRight.getZ();
+		camWorldMat[0] = newRight.getX();
+		camWorldMat[1] = newRight.getY();
+		camWorldMat[2] = newRight.getZ();
 		
-		camWorldMat[1][0] = newUp.getX();
-		camWorldMat[1][1] = newUp.getY();
-		camWorldMat[1][2] = newUp.getZ();
+		camWorldMat[4] = newUp.getX();
+		camWorldMat[5] = newUp.getY();
+		camWorldMat[6] = newUp.getZ();
 		
-		camWorldMat[2][0] = newForward.getX();
-		camWorldMat[2][1] = newForward.getY();
-		camWorldMat[2][2] = newForward.getZ();
+		camWorldMat[8] = newForward.getX();
+		camWorldMat[9] = newForward.getY();
+		camWorldMat[10] = newForward.getZ();
 		
-		camWorldMat[3][0] = pos.getX();
-		camWorldMat[3][1] = pos.getY();
-		camWorldMat[3][2] = pos.getZ();
-		camWorldMat[3][3] = 1;
+		camWorldMat[12] = pos.getX();
+		camWorldMat[13] = pos.getY();
+		camWorldMat[14] = pos.getZ();
+		camWorldMat[15] = 1;
 
-		return RenUtilities.invertLookAtMat(camWorldMat);
+		return Mat4.invertRigid(camWorldMat, new double[16]);
 	}
 	
 	public double getYaw() {
@@ -92,8 +121,8 @@ public class RenCamera extends RenObject {
 	public void setYaw(double yaw) {
 		setAngleY(yaw);
 
-		camRotMat = RenUtilities.multMatMat(getRotXMat(), getRotYMat());
-		camRotMat = RenUtilities.multMatMat(camRotMat, getRotZMat());
+		Mat4.mul(getRotXMat(), getRotYMat(), camRotMat);
+		Mat4.mul(camRotMat, getRotZMat(), camRotMat);
 	}
 	
 	/**
@@ -108,16 +137,17 @@ public class RenCamera extends RenObject {
 		
 		setAngleX(pitch);
 		
-		camRotMat = RenUtilities.multMatMat(getRotXMat(), getRotYMat());
-		camRotMat = RenUtilities.multMatMat(camRotMat, getRotZMat());
+		Mat4.mul(getRotXMat(), getRotYMat(), camRotMat);
+		Mat4.mul(camRotMat, getRotZMat(), camRotMat);
 	}
 
-	public double[][] getCamRotMat() {
+	public double[] getCamRotMat() {
 		return camRotMat;
 	}
 
-	public void setCamRotMat(double[][] camRotMat) {
+	public void setCamRotMat(double[] camRotMat) {
 		this.camRotMat = camRotMat;
+		this.viewMat = null;
 	}
 
 	public Point3D getLookDir() {
@@ -0,0 +1,302 @@
+package de.sebphil.renderer.objects;
+
+class RenClipper {
+
+	/*
+	 * Guard-Band im NDC-Space: Dreiecke werden erst seitlich geclippt, wenn ein Eckpunkt weiter als GUARD_BAND
+	 * auerhalb der Mitte liegt (das Bild liegt zwischen -1 und 1). Innerhalb des Guard-Bands reicht der
+	 * Wertebereich der Festkommazahlen des Rasterizers sicher aus.
+	 */
+	static final double GUARD_BAND = 16;
+
+	// Bits der Outcodes eines Eckpunktes (ein Bit pro Ebene, siehe PLANES)
+	private static final int CLIP_NEAR = 1, CLIP_FAR = 2, CLIP_GUARD = 0b111100;
+
+	/*
+	 * Ebenen im Clip-Space als (a, b, c, d, e): Ein Punkt (x, y, z, w) liegt innerhalb, wenn
+	 * a * x + b * y + c * z + d * w + e >= 0. (Da projMat[11] = -1 ist, gilt w = -z im View-Space, w ist
+	 * vor der Kamera also negativ.) Die near Ebene hngt von nearPlane ab und wird in distance gesondert berechnet.
+	 * near, far, Guard-Band (rechts, links, unten, oben), Bild (rechts, links, unten, oben)
+	 */
+	private static final double[][] PLANES = {
+			{ 0, 0, 0, -1, 0 },
+			{ 0, 0, 1, -1, 0 },
+			{ 1, 0, 0, -GUARD_BAND, 0 },
+			{ -1, 0, 0, -GUARD_BAND, 0 },
+			{ 0, 1, 0, -GUARD_BAND, 0 },
+			{ 0, -1, 0, -GUARD_BAND, 0 },
+			{ 1, 0, 0, -1, 0 },
+			{ -1, 0, 0, -1, 0 },
+			{ 0, 1, 0, -1, 0 },
+			{ 0, -1, 0, -1, 0 } };
+
+	// Ein Dreieck erhlt beim Clippen gegen jede der sechs Ebenen hchstens einen weiteren Eckpunkt.
+	private static final int MAX_VERTS = 3 + 6;
+
+	private double nearPlane;
+	private double[] projMat;
+
+	// Polygone im Clip-Space (x, y, z, w pro Eckpunkt), abwechselnd Ein- und Ausgabe
+	private double[] polyIn, polyOut;
+	// Ergebnis im NDC-Space (x, y, z pro Eckpunkt)
+	private double[] result;
+	private boolean clipped;
+
+	/**
+	 * Constructor fr einen RenClipper.
+	 *
+	 * Diese Klasse clippt Dreiecke im (homogenen) Clip-Space, also vor der Division durch w, mithilfe des
+	 * Sutherland-Hodgman Algorithmus. Alle Polygone werden in Arrays gespeichert, welche wiederverwendet werden,
+	 * sodass beim Clippen keine Objekte erzeugt werden. Jeder Thread des SebRenderer besitzt daher einen eigenen
+	 * RenClipper.
+	 *
+	 * Fr jeden Eckpunkt wird ein Outcode ermittelt, welcher angibt, auerhalb welcher Ebenen er liegt:
+	 * <ul>
+	 * <li>Liegen alle Eckpunkte auerhalb derselben Ebene, wird das Dreieck verworfen.
+	 * <li>Liegt ein Eckpunkt vor der near Ebene, hinter der far Ebene oder auerhalb des Guard-Bands, wird
+	 * das Dreieck gegen genau diese Ebenen geclippt.
+	 * <li>Sonst wird das Dreieck nicht geclippt. Eckpunkte, welche seitlich auerhalb des Bildes liegen, werden durch
+	 * die Kacheln und den Rasterizer (Scissor) abgeschnitten.
+	 * </ul>
+	 * Da ein solches Dreieck ungeteilt rasterisiert wird (anstatt als geclipptes Polygon), knnen sich die Kanten
+	 * und Tiefenwerte in der letzten Stelle von einem geclippten Dreieck unterscheiden. Bei gleichen Tiefenwerten
+	 * zweier Figuren kann deshalb vereinzelt ein anderes Pixel sichtbar sein.
+	 */
+	RenClipper() {
+		this.polyIn = new double[MAX_VERTS * 4];
+		this.polyOut = new double[MAX_VERTS * 4];
+		this.result = new double[MAX_VERTS * 3];
+	}
+
+	/**
+	 * Legt die Projektionsmatrix und die near Clipping-Ebene fest.
+	 *
+	 * @param projMat	Projektionsmatrix (siehe Mat4, projMat[11] muss -1 sein)
+	 * @param nearPlane	Entfernung der near Clipping-Ebene im View-Space
+	 */
+	void setProjection(double[] projMat, double nearPlane) {
+		this.projMat = projMat;
+		this.nearPlane = nearPlane;
+	}
+
+	/**
+	 * Transformiert ein Dreieck aus dem View-Space in den Clip-Space und clippt dieses. Das Ergebnis ist ein
+	 * konvexes Polygon im NDC-Space (siehe getResult), welches als Fcher von Dreiecken um den ersten Eckpunkt
+	 * gezeichnet werden kann.
+	 *
+	 * @param x0	x-Koordinate des 1. Eckpunktes im View-Space
+	 * @param y0	y-Koordinate des 1. Eckpunktes im View-Space
+	 * @param z0	z-Koordinate des 1. Eckpunktes im View-Space
+	 * @param x1	x-Koordinate des 2. Eckpunktes im View-Space
+	 * @param y1	y-Koordinate des 2. Eckpunktes im View-Space
+	 * @param z1	z-Koordinate des 2. Eckpunktes im View-Space
+	 * @param x2	x-Koordinate des 3. Eckpunktes im View-Space
+	 * @param y2	y-Koordinate des 3. Eckpunktes im View-Space
+	 * @param z2	z-Koordinate des 3. Eckpunktes im View-Space
+	 * @return Anzahl der Eckpunkte des Ergebnisses (0, wenn das Dreieck vollstndig auerhalb liegt)
+	 */
+	int clipTriangle(double x0, double y0, double z0, double x1, double y1, double z1, double x2, double y2,
+			double z2) {
+
+		toClipSpace(0, x0, y0, z0);
+		toClipSpace(1, x1, y1, z1);
+		toClipSpace(2, x2, y2, z2);
+
+		int codesAnd = -1, codesOr = 0;
+
+		for (int i = 0; i < 3; i++) {
+
+			int code = outcode(polyIn, i);
+
+			codesAnd &= code;
+			codesOr |= code;
+		}
+
+		clipped = false;
+
+		// Alle Eckpunkte liegen auerhalb derselben Ebene
+		if (codesAnd != 0)
+			return 0;
+
+		int count = 3;
+
+		// Das Dreieck wird nur gegen die Ebenen geclippt, welche es tatschlich schneidet.
+		if ((codesOr & (CLIP_NEAR | CLIP_FAR | CLIP_GUARD)) != 0) {
+
+			clipped = true;
+
+			for (int plane = 0; plane < 6 && count > 0; plane++) {
+
+				if ((codesOr & (1 << plane)) == 0)
+					continue;
+
+				count = clipPolygon(count, plane);
+
+				double[] tmp = polyIn;
+				polyIn = polyOut;
+				polyOut = tmp;
+			}
+		}
+
+		toNdcSpace(count);
+
+		return count;
+	}
+
+	/**
+	 * Transformiert ein Dreieck aus dem View-Space in den NDC-Space (siehe getResult), ohne Outcodes zu ermitteln
+	 * oder zu clippen. Das Dreieck muss vollstndig innerhalb des sichtbaren Bereiches liegen (z.B. weil die Figur
+	 * vollstndig innerhalb des RenFrustum liegt).
+	 *
+	 * @param x0	x-Koordinate des 1. Eckpunktes im View-Space
+	 * @param y0	y-Koordinate des 1. Eckpunktes im View-Space
+	 * @param z0	z-Koordinate des 1. Eckpunktes im View-Space
+	 * @param x1	x-Koordinate des 2. Eckpunktes im View-Space
+	 * @param y1	y-Koordinate des 2. Eckpunktes im View-Space
+	 * @param z1	z-Koordinate des 2. Eckpunktes im View-Space
+	 * @param x2	x-Koordinate des 3. Eckpunktes im View-Space
+	 * @param y2	y-Koordinate des 3. Eckpunktes im View-Space
+	 * @param z2	z-Koordinate des 3. Eckpunktes im View-Space
+	 * @return Anzahl der Eckpunkte des Ergebnisses (immer 3)
+	 */
+	int projectTriangle(double x0, double y0, double z0, double x1, double y1, double z1, double x2, double y2,
+			double z2) {
+
+		toClipSpace(0, x0, y0, z0);
+		toClipSpace(1, x1, y1, z1);
+		toClipSpace(2, x2, y2, z2);
+
+		clipped = false;
+
+		toNdcSpace(3);
+
+		return 3;
+	}
+
+	/**
+	 * Dividiert die Eckpunkte des Polygons in polyIn durch w (Clip-Space -> NDC-Space) und schreibt diese in result.
+	 *
+	 * @param count	Anzahl der Eckpunkte des Polygons
+	 */
+	private void toNdcSpace(int count) {
+
+		for (int i = 0; i < count; i++) {
+
+			double w = polyIn[i * 4 + 3];
+
+			result[i * 3] = polyIn[i * 4] / w;
+			result[i * 3 + 1] = polyIn[i * 4 + 1] / w;
+			result[i * 3 + 2] = polyIn[i * 4 + 2] / w;
+		}
+	}
+
+	/**
+	 * Clippt das Polygon in polyIn gegen eine Ebene (Sutherland-Hodgman) und schreibt das Ergebnis in polyOut.
+	 *
+	 * @param count	Anzahl der Eckpunkte des Polygons
+	 * @param plane	Index der Ebene in PLANES
+	 * @return Anzahl der Eckpunkte des geclippten Polygons
+	 */
+	private int clipPolygon(int count, int plane) {
+
+		int outCount = 0;
+
+		int prev = count - 1;
+		double prevDist = distance(polyIn, prev, plane);
+
+		for (int cur = 0; cur < count; cur++) {
+
+			double curDist = distance(polyIn, cur, plane);
+
+			// Die Kante schneidet die Ebene: Schnittpunkt eintragen
+			if ((curDist >= 0) != (prevDist >= 0)) {
+
+				double t = prevDist / (prevDist - curDist);
+
+				for (int k = 0; k < 4; k++)
+					polyOut[outCount * 4 + k] = polyIn[prev * 4 + k] + (polyIn[cur * 4 + k] - polyIn[prev * 4 + k]) * t;
+
+				outCount++;
+			}
+
+			if (curDist >= 0) {
+
+				System.arraycopy(polyIn, cur * 4, polyOut, outCount * 4, 4);
+				outCount++;
+			}
+
+			prev = cur;
+			prevDist = curDist;
+		}
+
+		return outCount;
+	}
+
+	/**
+	 * Transformiert einen Eckpunkt aus dem View-Space in den Clip-Space (ohne Division durch w).
+	 *
+	 * @param i	Index des Eckpunktes in polyIn
+	 * @param x	x-Koordinate im View-Space
+	 * @param y	y-Koordinate im View-Space
+	 * @param z	z-Koordinate im View-Space
+	 */
+	private void toClipSpace(int i, double x, double y, double z) {
+		polyIn[i * 4] = x * projMat[0] + y * projMat[4] + z * projMat[8] + projMat[12];
+		polyIn[i * 4 + 1] = x * projMat[1] + y * projMat[5] + z * projMat[9] + projMat[13];
+		polyIn[i * 4 + 2] = x * projMat[2] + y * projMat[6] + z * projMat[10] + projMat[14];
+		polyIn[i * 4 + 3] = x * projMat[3] + y * projMat[7] + z * projMat[11] + projMat[15];
+	}
+
+	/**
+	 * Ermittelt den Outcode eines Eckpunktes.
+	 *
+	 * @param poly	Polygon im Clip-Space
+	 * @param i		Index des Eckpunktes
+	 * @return Outcode (Bit i ist gesetzt, wenn der Eckpunkt auerhalb der Ebene PLANES[i] liegt)
+	 */
+	private int outcode(double[] poly, int i) {
+
+		int code = 0;
+
+		for (int plane = 0; plane < PLANES.length; plane++)
+			if (distance(poly, i, plane) < 0)
+				code |= 1 << plane;
+
+		return code;
+	}
+
+	/**
+	 * Errechnet den (nicht normierten) Abstand eines Eckpunktes zu einer Ebene.
+	 *
+	 * @param poly	Polygon im Clip-Space
+	 * @param i		Index des Eckpunktes
+	 * @param plane	Index der Ebene in PLANES
+	 * @return positiv, wenn der Eckpunkt innerhalb der Ebene liegt; 0, wenn auf der Ebene; sonst negativ
+	 */
+	private double distance(double[] poly, int i, int plane) {
+
+		// near Ebene: -w >= nearPlane (w = -z im View-Space)
+		if (plane == 0)
+			return -poly[i * 4 + 3] - nearPlane;
+
+		double[] p = PLANES[plane];
+
+		return p[0] * poly[i * 4] + p[1] * poly[i * 4 + 1] + p[2] * poly[i * 4 + 2] + p[3] * poly[i * 4 + 3] + p[4];
+	}
+
+	/**
+	 * @return Eckpunkte des zuletzt geclippten Dreiecks im NDC-Space (x, y, z pro Eckpunkt). Das Array wird bei
+	 *         jedem Aufruf von clipTriangle berschrieben und darf verndert werden.
+	 */
+	double[] getResult() {
+		return result;
+	}
+
+	/**
+	 * @return true, wenn das zuletzt bearbeitete Dreieck geometrisch geclippt werden musste
+	 */
+	boolean wasClipped() {
+		return clipped;
+	}
+
+}
@@ -0,0 +1,22 @@
+package de.sebphil.renderer.objects;
+
+/**
+ * Format, in welchem der SebRenderer die Werte des Depthbuffers speichert.
+ * In beiden Formaten bedeutet ein grerer Wert, dass ein Pixel nher an der Kamera liegt,
+ * und der Depthbuffer wird mit 0 (unendlich weit entfernt) geleert.
+ */
+public enum RenDepthFormat {
+
+	/**
+	 * double[] mit 1/z (z im View-Space).
+	 */
+	DOUBLE,
+
+	/**
+	 * float[] mit "reversed-Z": die near Clipping-Ebene entspricht 1, die far Clipping-Ebene 0.
+	 * Da der Wert linear zu 1/z ist, wird die Genauigkeit des float ber die gesamte Tiefe gut ausgenutzt.
+	 * Der Depthbuffer bentigt dabei nur halb so viel Speicher wie im Format DOUBLE.
+	 */
+	FLOAT_REVERSED
+
+}
@@ -0,0 +1,292 @@
+package de.sebphil.renderer.objects;
+
+public class RenFrameStats {
+
+	private long blocksAccepted, blocksRejected, blocksPartial;
+	private long frustumCulledShapes, frustumInsideShapes, cachedShapes, batches, batchedShapes;
+	private long occludedTriangles, occludedShapes, occludedTileTriangles, pixelWrites, shadedTriangles;
+	private long clippedTriangles, backfaceTriangles, transformedVertices, vertexReferences;
+	private long clusters, frustumClusters, backfaceClusters, occludedClusters, clusterTriangles;
+
+	/**
+	 * Constructor fr RenFrameStats.
+	 *
+	 * Diese Klasse enthlt Statistiken ber den zuletzt gerenderten Frame eines SebRenderer.
+	 * Die Werte werden bei jedem Aufruf von SebRenderer.update neu ermittelt.
+	 */
+	public RenFrameStats() {
+	}
+
+	/**
+	 * Setzt alle Werte auf 0 zurck.
+	 */
+	void reset() {
+		blocksAccepted = 0;
+		blocksRejected = 0;
+		blocksPartial = 0;
+		frustumCulledShapes = 0;
+		frustumInsideShapes = 0;
+		cachedShapes = 0;
+		batches = 0;
+		batchedShapes = 0;
+		occludedTriangles = 0;
+		occludedShapes = 0;
+		occludedTileTriangles = 0;
+		pixelWrites = 0;
+		shadedTriangles = 0;
+		clippedTriangles = 0;
+		backfaceTriangles = 0;
+		transformedVertices = 0;
+		vertexReferences = 0;
+		clusters = 0;
+		frustumClusters = 0;
+		backfaceClusters = 0;
+		occludedClusters = 0;
+		clusterTriangles = 0;
+	}
+
+	/**
+	 * bernimmt die Ergebnisse des View-Frustum-Cullings (die Werte werden addiert).
+	 *
+	 * @param culled	Anzahl der Figuren auerhalb des sichtbaren Bereiches
+	 * @param inside	Anzahl der Figuren vollstndig innerhalb des sichtbaren Bereiches
+	 */
+	void countFrustumShapes(long culled, long inside) {
+		frustumCulledShapes += culled;
+		frustumInsideShapes += inside;
+	}
+
+	/**
+	 * bernimmt die Anzahl der Figuren, deren Polygone aus dem RenGeometryCache bernommen wurden (wird addiert).
+	 *
+	 * @param cached	Anzahl der Figuren
+	 */
+	void countCachedShapes(long cached) {
+		cachedShapes += cached;
+	}
+
+	/**
+	 * Zhlt einen gerenderten RenStaticBatch.
+	 *
+	 * @param members	Anzahl der statischen Figuren, welche der Batch enthlt
+	 */
+	void countBatch(long members) {
+		batches++;
+		batchedShapes += members;
+	}
+
+	/**
+	 * bernimmt die Werte eines RenRasterizer (die Werte werden addiert).
+	 *
+	 * @param rasterizer RenRasterizer, dessen Werte bernommen werden
+	 */
+	void add(RenRasterizer rasterizer) {
+		blocksAccepted += rasterizer.getBlocksAccepted();
+		blocksRejected += rasterizer.getBlocksRejected();
+		blocksPartial += rasterizer.getBlocksPartial();
+		occludedTileTriangles += rasterizer.getOccludedTileTris();
+		pixelWrites += rasterizer.getPixelWrites();
+	}
+
+	/**
+	 * bernimmt die Werte von RenTileBins (die Werte werden addiert).
+	 *
+	 * @param bins RenTileBins, deren Werte bernommen werden
+	 */
+	void add(RenTileBins bins) {
+		occludedTriangles += bins.getOccludedTris();
+		occludedShapes += bins.getOccludedShapes();
+		shadedTriangles += bins.getShadedTris();
+		clippedTriangles += bins.getClippedTris();
+		backfaceTriangles += bins.getBackfaceTris();
+		clusters += bins.getClusters();
+		frustumClusters += bins.getFrustumClusters();
+		backfaceClusters += bins.getBackfaceClusters();
+		occludedClusters += bins.getOccludedClusters();
+		clusterTriangles += bins.getClusterTris();
+		transformedVertices += bins.getTransformedVerts();
+		vertexReferences += bins.getVertexRefs();
+	}
+
+	/**
+	 * @return Anzahl der Blcke, welche vollstndig in einem Dreieck lagen (nur Depthtest)
+	 */
+	public long getBlocksAccepted() {
+		return blocksAccepted;
+	}
+
+	/**
+	 * @return Anzahl der Blcke, welche vollstndig auerhalb eines Dreiecks lagen (bersprungen)
+	 */
+	public long getBlocksRejected() {
+		return blocksRejected;
+	}
+
+	/**
+	 * @return Anzahl der Blcke, welche teilweise von einem Dreieck berdeckt wurden (Test pro Pixel)
+	 */
+	public long getBlocksPartial() {
+		return blocksPartial;
+	}
+
+	/**
+	 * @return Anzahl der Figuren, welche anhand ihrer Bounding-Volumes auerhalb des sichtbaren Bereiches lagen
+	 */
+	public long getFrustumCulledShapes() {
+		return frustumCulledShapes;
+	}
+
+	/**
+	 * @return Anzahl der Figuren, welche vollstndig innerhalb des sichtbaren Bereiches lagen (nicht geclippt)
+	 */
+	public long getFrustumInsideShapes() {
+		return frustumInsideShapes;
+	}
+
+	/**
+	 * @return Anzahl der Dreiecke, welche vor dem Einsortieren in die Kacheln als verdeckt erkannt wurden
+	 */
+	public long getOccludedTriangles() {
+		return occludedTriangles;
+	}
+
+	/**
+	 * @return Anzahl der Figuren, welche anhand ihrer Bounding-Box als verdeckt erkannt wurden
+	 */
+	public long getOccludedShapes() {
+		return occludedShapes;
+	}
+
+	/**
+	 * @return Anzahl der Dreiecke, welche in einer einzelnen Kachel als verdeckt erkannt wurden (pro Kachel gezhlt)
+	 */
+	public long getOccludedTileTriangles() {
+		return occludedTileTriangles;
+	}
+
+	/**
+	 * @return Anzahl der Schreibzugriffe auf den Framebuffer (1 pro Pixel bedeutet kein Overdraw)
+	 */
+	public long getPixelWrites() {
+		return pixelWrites;
+	}
+
+	/**
+	 * @return Anzahl der Dreiecke, welche schattiert wurden
+	 */
+	public long getShadedTriangles() {
+		return shadedTriangles;
+	}
+
+	/**
+	 * @return Anzahl der Dreiecke, welche geometrisch geclippt werden mussten (near, far oder Guard-Band)
+	 */
+	public long getClippedTriangles() {
+		return clippedTriangles;
+	}
+
+	/**
+	 * @return Anzahl der Dreiecke, welche als Rckseite erkannt wurden, bevor ihre Eckpunkte transformiert wurden
+	 */
+	public long getBackfaceTriangles() {
+		return backfaceTriangles;
+	}
+
+	/**
+	 * @return Anzahl der Figuren, welche ohne Transformation und Clipping aus dem RenGeometryCache bernommen wurden
+	 */
+	public long getCachedShapes() {
+		return cachedShapes;
+	}
+
+	/**
+	 * @return Anzahl der gerenderten Batches statischer Figuren (siehe RenShape#setStatic)
+	 */
+	public long getBatches() {
+		return batches;
+	}
+
+	/**
+	 * @return Anzahl der statischen Figuren, welche ber die gerenderten Batches gerendert wurden
+	 */
+	public long getBatchedShapes() {
+		return batchedShapes;
+	}
+
+	/**
+	 * @return Anzahl der Cluster (siehe RenShape#getClusterStarts), welche vor dem Face-Culling getestet wurden
+	 */
+	public long getClusters() {
+		return clusters;
+	}
+
+	/**
+	 * @return Anzahl der Cluster, welche auerhalb des sichtbaren Bereiches liegen
+	 */
+	public long getFrustumClusters() {
+		return frustumClusters;
+	}
+
+	/**
+	 * @return Anzahl der Cluster, welche (laut Normalen-Kegel) nur Rckseiten enthalten
+	 */
+	public long getBackfaceClusters() {
+		return backfaceClusters;
+	}
+
+	/**
+	 * @return Anzahl der Cluster, welche verdeckt sind
+	 */
+	public long getOccludedClusters() {
+		return occludedClusters;
+	}
+
+	/**
+	 * @return Anzahl der Dreiecke, welche mit ihrem Cluster verworfen wurden, ohne einzeln getestet zu werden
+	 */
+	public long getClusterTriangles() {
+		return clusterTriangles;
+	}
+
+	/**
+	 * @return Anzahl der Eckpunkte, welche in den View-Space transformiert wurden
+	 */
+	public long getTransformedVertices() {
+		return transformedVertices;
+	}
+
+	/**
+	 * @return Anzahl der Eckpunkte, welche von (nicht als Rckseite erkannten) Dreiecken verwendet wurden
+	 *         (drei pro Dreieck)
+	 */
+	public long getVertexReferences() {
+		return vertexReferences;
+	}
+
+	/**
+	 * @return Anteil der verwendeten Eckpunkte (0 bis 1), welche nicht erneut transformiert werden mussten, da sie
+	 *         bereits von einem anderen Dreieck transformiert wurden (Trefferquote des Post-Transform-Caches)
+	 */
+	public double getVertexCacheHitRate() {
+
+		if (vertexReferences == 0)
+			return 0;
+
+		return Math.max(vertexReferences - transformedVertices, 0) / (double) vertexReferences;
+	}
+
+	@Override
+	public String toString() {
+		return "blocks accepted: " + blocksAccepted + ", rejected: " + blocksRejected + ", partial: "
+				+ blocksPartial + ", frustum culled shapes: " + frustumCulledShapes + ", inside: " + frustumInsideShapes
+				+ ", cached shapes: " + cachedShapes + ", batches: " + batches + " (" + batchedShapes + " shapes)"
+				+ ", occluded shapes: " + occludedShapes + ", triangles: " + occludedTriangles
+				+ ", tile triangles: " + occludedTileTriangles + ", pixel writes: " + pixelWrites + ", shaded triangles: " + shadedTriangles
+				+ ", clipped triangles: " + clippedTriangles + ", backface triangles: " + backfaceTriangles
+				+ ", clusters: " + clusters + ", frustum: " + frustumClusters + ", backface: " + backfaceClusters
+				+ ", occluded: " + occludedClusters + ", cluster triangles: " + clusterTriangles
+				+ ", vertex cache hit rate: "
+				+ Math.round(getVertexCacheHitRate() * 1000) / 10.0 + "%";
+	}
+
+}
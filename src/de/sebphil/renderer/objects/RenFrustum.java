@@ -0,0 +1,141 @@
+package de.sebphil.renderer.objects;
+
+class RenFrustum {
+
+	// Ergebnisse von classify
+	static final int OUTSIDE = 0, INTERSECTING = 1, INSIDE = 2;
+
+	/*
+	 * Ebenen im Clip-Space wie in RenClipper als (a, b, c, d, e): near, far, Bild (rechts, links, unten, oben).
+	 * Die near Ebene (-w >= nearPlane) wird in update gesondert um nearPlane verschoben.
+	 */
+	private static final double[][] PLANES = {
+			{ 0, 0, 0, -1, 0 },
+			{ 0, 0, 1, -1, 0 },
+			{ 1, 0, 0, -1, 0 },
+			{ -1, 0, 0, -1, 0 },
+			{ 0, 1, 0, -1, 0 },
+			{ 0, -1, 0, -1, 0 } };
+
+	// Ebenen im World-Space (nx, ny, nz, d pro Ebene, Normale normiert und nach innen gerichtet)
+	private double[] planes;
+
+	/**
+	 * Constructor fr ein RenFrustum.
+	 *
+	 * Diese Klasse enthlt den sichtbaren Bereich (View-Frustum) der Kamera als sechs Ebenen im World-Space, welche
+	 * aus der View-Projektionsmatrix ermittelt werden (Gribb/Hartmann). Mit den Bounding-Volumes einer Figur
+	 * (siehe RenShape#getWorldBounds) kann so vor jeder Bearbeitung ihrer Dreiecke entschieden werden, ob die Figur
+	 * vollstndig auerhalb (wird bersprungen), teilweise oder vollstndig innerhalb (muss nicht geclippt werden)
+	 * des sichtbaren Bereiches liegt.
+	 */
+	RenFrustum() {
+		this.planes = new double[PLANES.length * 4];
+	}
+
+	/**
+	 * Ermittelt die Ebenen aus der View-Projektionsmatrix. Eine Ebene p des Clip-Space entspricht im World-Space
+	 * der Ebene viewProj * p, da ein Punkt v (Zeilenvektor) im Clip-Space v * viewProj ist.
+	 *
+	 * @param viewProj	View-Matrix multipliziert mit der Projektionsmatrix (siehe Mat4)
+	 * @param nearPlane	Entfernung der near Clipping-Ebene im View-Space
+	 */
+	void update(double[] viewProj, double nearPlane) {
+
+		for (int plane = 0; plane < PLANES.length; plane++) {
+
+			double[] p = PLANES[plane];
+			int off = plane * 4;
+
+			for (int row = 0; row < 4; row++)
+				planes[off + row] = p[0] * viewProj[row * 4] + p[1] * viewProj[row * 4 + 1]
+						+ p[2] * viewProj[row * 4 + 2] + p[3] * viewProj[row * 4 + 3];
+
+			planes[off + 3] += plane == 0 ? -nearPlane : p[4];
+
+			double length = Math.sqrt(planes[off] * planes[off] + planes[off + 1] * planes[off + 1]
+					+ planes[off + 2] * planes[off + 2]);
+
+			for (int i = 0; i < 4; i++)
+				planes[off + i] /= length;
+		}
+	}
+
+	/**
+	 * Ermittelt die Lage einer Figur zu dem sichtbaren Bereich. Zuerst wird die Bounding-Kugel getestet, nur wenn
+	 * diese eine Ebene schneidet, zustzlich die Bounding-Box. Das Ergebnis ist konservativ: Eine Figur, welche als
+	 * OUTSIDE erkannt wird, ist sicher nicht sichtbar, eine Figur, welche als INSIDE erkannt wird, schneidet
+	 * sicher keine Ebene.
+	 *
+	 * @param bounds	Bounding-Box und -Kugel der Figur im World-Space (siehe RenShape#getWorldBounds)
+	 * @return OUTSIDE, INTERSECTING oder INSIDE
+	 */
+	int classify(double[] bounds) {
+
+		int result = classifySphere(bounds[6], bounds[7], bounds[8], bounds[9]);
+
+		if (result != INTERSECTING)
+			return result;
+
+		return classifyBox(bounds, 0);
+	}
+
+	/**
+	 * Ermittelt die Lage einer Kugel zu dem sichtbaren Bereich (konservativ wie classify).
+	 *
+	 * @param cx		x-Koordinate des Mittelpunktes im World-Space
+	 * @param cy		y-Koordinate des Mittelpunktes im World-Space
+	 * @param cz		z-Koordinate des Mittelpunktes im World-Space
+	 * @param radius	Radius der Kugel
+	 * @return OUTSIDE, INTERSECTING oder INSIDE
+	 */
+	int classifySphere(double cx, double cy, double cz, double radius) {
+
+		int result = INSIDE;
+
+		for (int off = 0; off < planes.length; off += 4) {
+
+			double dist = planes[off] * cx + planes[off + 1] * cy + planes[off + 2] * cz + planes[off + 3];
+
+			if (dist < -radius)
+				return OUTSIDE;
+
+			if (dist < radius)
+				result = INTERSECTING;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Ermittelt die Lage einer achsenparallelen Box zu dem sichtbaren Bereich (konservativ wie classify).
+	 *
+	 * @param boxes	Array, welches die Box enthlt (minX, minY, minZ, maxX, maxY, maxZ)
+	 * @param off	Index der Box in boxes
+	 * @return OUTSIDE, INTERSECTING oder INSIDE
+	 */
+	int classifyBox(double[] boxes, int off) {
+
+		int result = INSIDE;
+
+		for (int p = 0; p < planes.length; p += 4) {
+
+			double nx = planes[p], ny = planes[p + 1], nz = planes[p + 2], d = planes[p + 3];
+
+			// Ecke der Box, welche am weitesten in Richtung der Normale (nach innen) bzw. entgegen liegt
+			double maxDist = nx * boxes[off + (nx >= 0 ? 3 : 0)] + ny * boxes[off + (ny >= 0 ? 4 : 1)]
+					+ nz * boxes[off + (nz >= 0 ? 5 : 2)] + d;
+			double minDist = nx * boxes[off + (nx >= 0 ? 0 : 3)] + ny * boxes[off + (ny >= 0 ? 1 : 4)]
+					+ nz * boxes[off + (nz >= 0 ? 2 : 5)] + d;
+
+			if (maxDist < 0)
+				return OUTSIDE;
+
+			if (minDist < 0)
+				result = INTERSECTING;
+		}
+
+		return result;
+	}
+
+}
@@ -0,0 +1,345 @@
+package de.sebphil.renderer.objects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+class RenGeometryCache {
+
+	// geschtzter Speicherbedarf eines Eintrages ohne seine Arrays (in Byte)
+	private static final long ENTRY_BYTES = 96;
+
+	// Eintrge in der Reihenfolge ihrer letzten Verwendung (der am lngsten nicht verwendete Eintrag zuerst)
+	private LinkedHashMap<RenShape, Entry> entries;
+	private long maxBytes, bytes;
+	/*
+	 * Aufzeichnung des aktuellen Frames (siehe begin): Figuren, Anzahl der Eckpunkte des Polygons jedes Dreiecks
+	 * (null, wenn die Figur nicht aufgezeichnet wird), unvollstndige Figuren und Aufzeichnungen jedes Threads
+	 */
+	private List<RenShape> shapes;
+	private int[][] counts;
+	private boolean[] incomplete;
+	private Recorder[] recorders;
+
+	/**
+	 * Eintrag einer Figur: Schlssel (View-Matrix, Version der Transformation und Version des Dreiecksnetzes) und
+	 * die Polygone aller Dreiecke im Screen-Space. Solange nur der Schlssel bekannt ist (die Figur wurde erst in
+	 * einem Frame mit diesem Schlssel gerendert), ist verts null.
+	 */
+	static class Entry {
+
+		private double[] viewMat;
+		private int transformVersion, meshVersion;
+		private double[] verts;
+		private int[] polyStarts;
+
+		private Entry(double[] viewMat, int transformVersion, int meshVersion) {
+			this.viewMat = viewMat;
+			this.transformVersion = transformVersion;
+			this.meshVersion = meshVersion;
+		}
+
+		/**
+		 * @return Eckpunkte aller Polygone im Screen-Space (x, y, Wert fr den Depthbuffer pro Eckpunkt)
+		 */
+		double[] getVerts() {
+			return verts;
+		}
+
+		/**
+		 * @return Index des ersten Eckpunktes des Polygons jedes Dreiecks der Figur, gefolgt von der Anzahl aller
+		 *         Eckpunkte (Dreiecke ohne Polygon, z.B. Rckseiten, haben keine Eckpunkte)
+		 */
+		int[] getPolyStarts() {
+			return polyStarts;
+		}
+
+		private boolean matches(double[] viewMat, int transformVersion, int meshVersion) {
+			return this.viewMat == viewMat && this.transformVersion == transformVersion
+					&& this.meshVersion == meshVersion;
+		}
+
+		private long getBytes() {
+			return ENTRY_BYTES + (verts == null ? 0 : verts.length * 8L + polyStarts.length * 4L);
+		}
+	}
+
+	/**
+	 * Zusammenhngender Bereich von Dreiecken einer Figur, welchen ein Thread aufgezeichnet hat.
+	 */
+	private static class Segment {
+
+		private int shape, firstTri, from, to;
+		private double[] buffer;
+
+		private Segment(int shape, int firstTri, int from) {
+			this.shape = shape;
+			this.firstTri = firstTri;
+			this.from = from;
+			this.to = from;
+		}
+	}
+
+	/**
+	 * Aufzeichnung eines Threads: Eckpunkte aller aufgezeichneten Polygone und die Bereiche, zu welchen sie gehren.
+	 */
+	private static class Recorder {
+
+		private double[] buffer = new double[256];
+		private int size;
+		private List<Segment> segments = new ArrayList<Segment>();
+	}
+
+	/**
+	 * Constructor fr einen RenGeometryCache.
+	 *
+	 * Diese Klasse speichert pro Figur die Polygone ihrer Dreiecke im Screen-Space, wie sie nach Face-Culling,
+	 * Clipping und Projektion an die Kacheln bergeben werden. Haben sich weder die View-Matrix der Kamera noch die
+	 * Transformation oder das Dreiecksnetz einer Figur gendert, so werden diese Polygone direkt bernommen, ohne die
+	 * Figur erneut zu transformieren und zu clippen. (nderungen der Projektion mssen mit clear verworfen werden.)
+	 *
+	 * Eine Figur wird erst aufgezeichnet, wenn sie in zwei aufeinanderfolgenden Frames mit demselben Schlssel
+	 * gerendert wird, damit eine bewegte Kamera keine Kosten verursacht. bersteigt der geschtzte Speicherbedarf
+	 * aller Eintrge maxBytes, so werden die am lngsten nicht verwendeten Eintrge verworfen (LRU).
+	 *
+	 * @param maxBytes	grter Speicherbedarf aller Eintrge in Byte (0 deaktiviert den Cache)
+	 */
+	RenGeometryCache(long maxBytes) {
+		this.entries = new LinkedHashMap<RenShape, Entry>(16, 0.75f, true);
+		this.maxBytes = maxBytes;
+		this.recorders = new Recorder[0];
+	}
+
+	/**
+	 * Ermittelt zu Beginn eines Frames die gltigen Eintrge aller Figuren und bereitet die Aufzeichnung der Figuren
+	 * vor, deren Schlssel sich seit dem letzten Frame nicht gendert hat.
+	 *
+	 * @param shapes		Figuren, welche gerendert werden
+	 * @param viewMat		View-Matrix der Kamera (siehe RenCamera#lookAt)
+	 * @param threadCount	Anzahl der Threads, welche Polygone aufzeichnen
+	 * @return gltiger Eintrag jeder Figur (oder null)
+	 */
+	Entry[] begin(List<RenShape> shapes, double[] viewMat, int threadCount) {
+
+		Entry[] cached = new Entry[shapes.size()];
+
+		this.shapes = shapes;
+		this.counts = new int[shapes.size()][];
+		this.incomplete = new boolean[shapes.size()];
+
+		if (recorders.length != threadCount) {
+			recorders = new Recorder[threadCount];
+
+			for (int i = 0; i < threadCount; i++)
+				recorders[i] = new Recorder();
+		}
+
+		if (maxBytes == 0)
+			return cached;
+
+		for (int s = 0; s < shapes.size(); s++) {
+
+			RenShape shape = shapes.get(s);
+			int transformVersion = shape.getTransform().getVersion();
+			int meshVersion = shape.getMeshVersion();
+			Entry entry = entries.get(shape);
+
+			if (entry == null || !entry.matches(viewMat, transformVersion, meshVersion)) {
+
+				if (entry != null)
+					bytes -= entry.getBytes();
+
+				entry = new Entry(viewMat, transformVersion, meshVersion);
+				entries.put(shape, entry);
+				bytes += entry.getBytes();
+
+			} else if (entry.verts != null) {
+				cached[s] = entry;
+			} else {
+				counts[s] = new int[shape.getIndices().length / 3];
+			}
+		}
+
+		evict();
+
+		return cached;
+	}
+
+	/**
+	 * @param shape	Index der Figur
+	 * @return true, wenn die Polygone der Figur in diesem Frame aufgezeichnet werden
+	 */
+	boolean isRecording(int shape) {
+		return counts[shape] != null;
+	}
+
+	/**
+	 * Beginnt einen zusammenhngenden Bereich von Dreiecken einer Figur, welcher von einem Thread aufgezeichnet wird.
+	 *
+	 * @param worker	Nummer des Threads
+	 * @param shape		Index der Figur
+	 * @param firstTri	Index des ersten Dreiecks des Bereiches
+	 */
+	void beginSegment(int worker, int shape, int firstTri) {
+
+		Recorder recorder = recorders[worker];
+
+		recorder.segments.add(new Segment(shape, firstTri, recorder.size));
+	}
+
+	/**
+	 * Zeichnet das Polygon eines Dreiecks im Screen-Space auf (nach beginSegment fr die Figur des Dreiecks).
+	 *
+	 * @param worker	Nummer des Threads
+	 * @param shape		Index der Figur
+	 * @param tri		Index des Dreiecks
+	 * @param poly		Eckpunkte des Polygons im Screen-Space (x, y, z pro Eckpunkt)
+	 * @param count		Anzahl der Eckpunkte
+	 */
+	void record(int worker, int shape, int tri, double[] poly, int count) {
+
+		Recorder recorder = recorders[worker];
+
+		if (recorder.size + count * 3 > recorder.buffer.length)
+			recorder.buffer = Arrays.copyOf(recorder.buffer, Math.max(recorder.buffer.length * 2, recorder.size + count * 3));
+
+		System.arraycopy(poly, 0, recorder.buffer, recorder.size, count * 3);
+		recorder.size += count * 3;
+		recorder.segments.get(recorder.segments.size() - 1).to = recorder.size;
+
+		counts[shape][tri] = count;
+	}
+
+	/**
+	 * Markiert eine Figur, von welcher in diesem Frame nicht alle sichtbaren Dreiecke aufgezeichnet werden (z.B. da
+	 * Teile der Figur verdeckt waren). (Dies kann von mehreren Threads gleichzeitig geschehen.)
+	 *
+	 * @param shape	Index der Figur
+	 */
+	void markIncomplete(int shape) {
+		incomplete[shape] = true;
+	}
+
+	/**
+	 * bernimmt am Ende eines Frames die Aufzeichnungen aller vollstndig aufgezeichneten Figuren als Eintrge und
+	 * verwirft anschlieend (wenn ntig) die am lngsten nicht verwendeten Eintrge.
+	 */
+	void finish() {
+
+		List<Segment> segments = new ArrayList<Segment>();
+
+		for (Recorder recorder : recorders) {
+
+			for (Segment segment : recorder.segments)
+				segment.buffer = recorder.buffer;
+
+			segments.addAll(recorder.segments);
+			recorder.segments.clear();
+			recorder.size = 0;
+		}
+
+		segments.sort(Comparator.comparingInt((Segment segment) -> segment.shape)
+				.thenComparingInt(segment -> segment.firstTri));
+
+		int next = 0;
+
+		for (int shape = 0; shape < counts.length; shape++) {
+
+			int first = next;
+			int length = 0;
+
+			while (next < segments.size() && segments.get(next).shape == shape)
+				length += segments.get(next).to - segments.get(next++).from;
+
+			Entry entry = entries.get(shapes.get(shape));
+
+			if (counts[shape] == null || incomplete[shape] || entry == null || entry.verts != null)
+				continue;
+
+			int[] shapeCounts = counts[shape];
+			int[] polyStarts = new int[shapeCounts.length + 1];
+			double[] verts = new double[length];
+
+			for (int t = 0; t < shapeCounts.length; t++)
+				polyStarts[t + 1] = polyStarts[t] + shapeCounts[t];
+
+			for (int i = first, pos = 0; i < next; i++) {
+
+				Segment segment = segments.get(i);
+
+				System.arraycopy(segment.buffer, segment.from, verts, pos, segment.to - segment.from);
+				pos += segment.to - segment.from;
+			}
+
+			bytes -= entry.getBytes();
+			entry.verts = verts;
+			entry.polyStarts = polyStarts;
+			bytes += entry.getBytes();
+		}
+
+		shapes = null;
+		counts = null;
+		incomplete = null;
+
+		evict();
+	}
+
+	/**
+	 * Verwirft die am lngsten nicht verwendeten Eintrge, bis der Speicherbedarf hchstens maxBytes betrgt.
+	 */
+	private void evict() {
+
+		Iterator<Entry> it = entries.values().iterator();
+
+		while (bytes > maxBytes && it.hasNext()) {
+			bytes -= it.next().getBytes();
+			it.remove();
+		}
+	}
+
+	/**
+	 * Verwirft den Eintrag einer Figur (z.B. nachdem sie aus der Szene entfernt wurde).
+	 *
+	 * @param shape	Figur
+	 */
+	void remove(RenShape shape) {
+
+		Entry entry = entries.remove(shape);
+
+		if (entry != null)
+			bytes -= entry.getBytes();
+	}
+
+	/**
+	 * Verwirft alle Eintrge (z.B. nachdem sich die Projektion gendert hat).
+	 */
+	void clear() {
+		entries.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * Legt den grten Speicherbedarf aller Eintrge fest.
+	 *
+	 * @param maxBytes	grter Speicherbedarf in Byte (0 deaktiviert den Cache)
+	 */
+	void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+		evict();
+	}
+
+	long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * @return geschtzter Speicherbedarf aller Eintrge in Byte
+	 */
+	long getBytes() {
+		return bytes;
+	}
+
+}
@@ -0,0 +1,188 @@
+package de.sebphil.renderer.objects;
+
+import java.util.Arrays;
+
+class RenHiZ {
+
+	private int width, height, blocksX, blocksY, tilesX, tileBlocks;
+	private double[] blockFar, tileFar;
+
+	/**
+	 * Constructor fr RenHiZ.
+	 *
+	 * Diese Klasse stellt eine hierarchische Depthbuffer-Pyramide (Hierarchical-Z) dar. Fr jeden Block von
+	 * RenRasterizer.BLOCK_SIZE x RenRasterizer.BLOCK_SIZE Pixeln sowie fr jede Kachel wird der Wert des am
+	 * weitesten entfernten Pixels gespeichert (da ein grerer Wert nher an der Kamera liegt, ist dies der kleinste Wert).
+	 * Ist der nchste Punkt eines Dreiecks (oder einer Figur) weiter entfernt als dieser Wert in allen Blcken, welche
+	 * das Dreieck berdeckt, so ist das Dreieck vollstndig verdeckt und muss nicht gezeichnet werden.
+	 * Die Werte sind stets konservativ, d.h. sie sind nie grer als die tatschlichen Werte des Depthbuffers.
+	 *
+	 * @param width		Breite des Depthbuffers
+	 * @param height	Hhe des Depthbuffers
+	 * @param tileSize	Kantenlnge einer Kachel in Pixel (Vielfaches von RenRasterizer.BLOCK_SIZE)
+	 */
+	RenHiZ(int width, int height, int tileSize) {
+
+		this.width = width;
+		this.height = height;
+		this.blocksX = (width + RenRasterizer.BLOCK_SIZE - 1) / RenRasterizer.BLOCK_SIZE;
+		this.blocksY = (height + RenRasterizer.BLOCK_SIZE - 1) / RenRasterizer.BLOCK_SIZE;
+		this.tileBlocks = tileSize / RenRasterizer.BLOCK_SIZE;
+		this.tilesX = (blocksX + tileBlocks - 1) / tileBlocks;
+
+		this.blockFar = new double[blocksX * blocksY];
+		this.tileFar = new double[tilesX * ((blocksY + tileBlocks - 1) / tileBlocks)];
+	}
+
+	/**
+	 * Setzt alle Werte auf 0 (unendlich weit entfernt) zurck.
+	 */
+	void reset() {
+		Arrays.fill(blockFar, 0);
+		Arrays.fill(tileFar, 0);
+	}
+
+	/**
+	 * Ermittelt die Werte aller Blcke einer Kachel neu aus dem Depthbuffer.
+	 * (Es wird genau einer der beiden Depthbuffer verwendet, der andere ist null.)
+	 *
+	 * @param tile			Index der Kachel
+	 * @param depthBuffer	Depthbuffer im Format RenDepthFormat.DOUBLE
+	 * @param depthBufferF	Depthbuffer im Format RenDepthFormat.FLOAT_REVERSED
+	 */
+	void rebuildTile(int tile, double[] depthBuffer, float[] depthBufferF) {
+
+		int firstBlockX = (tile % tilesX) * tileBlocks;
+		int firstBlockY = (tile / tilesX) * tileBlocks;
+
+		for (int blockY = firstBlockY; blockY < Math.min(firstBlockY + tileBlocks, blocksY); blockY++) {
+			for (int blockX = firstBlockX; blockX < Math.min(firstBlockX + tileBlocks, blocksX); blockX++) {
+
+				int x0 = blockX * RenRasterizer.BLOCK_SIZE;
+				int y0 = blockY * RenRasterizer.BLOCK_SIZE;
+				int x1 = Math.min(x0 + RenRasterizer.BLOCK_SIZE, width);
+				int y1 = Math.min(y0 + RenRasterizer.BLOCK_SIZE, height);
+
+				double far = Double.MAX_VALUE;
+
+				for (int y = y0; y < y1; y++) {
+
+					int index = y * width;
+
+					for (int x = x0; x < x1; x++)
+						far = Math.min(far, depthBufferF != null ? depthBufferF[index + x] : depthBuffer[index + x]);
+				}
+
+				blockFar[blockY * blocksX + blockX] = far;
+			}
+		}
+
+		updateTile(tile);
+	}
+
+	/**
+	 * Erhht den Wert eines Blockes, nachdem dieser vollstndig von einem Dreieck berdeckt wurde.
+	 *
+	 * @param blockX	x-Koordinate des Blockes
+	 * @param blockY	y-Koordinate des Blockes
+	 * @param far		kleinster Wert, welchen das Dreieck in diesem Block in den Depthbuffer geschrieben hat
+	 */
+	void raiseBlock(int blockX, int blockY, double far) {
+
+		int block = blockY * blocksX + blockX;
+
+		if (far <= blockFar[block])
+			return;
+
+		boolean tileChanged = blockFar[block] == tileFar[(blockY / tileBlocks) * tilesX + blockX / tileBlocks];
+
+		blockFar[block] = far;
+
+		if (tileChanged)
+			updateTile((blockY / tileBlocks) * tilesX + blockX / tileBlocks);
+	}
+
+	/**
+	 * berprft, ob ein Bereich vollstndig verdeckt ist.
+	 *
+	 * @param minX		linke Grenze des Bereiches in Pixel (einschlielich)
+	 * @param minY		obere Grenze des Bereiches in Pixel (einschlielich)
+	 * @param maxX		rechte Grenze des Bereiches in Pixel (einschlielich)
+	 * @param maxY		untere Grenze des Bereiches in Pixel (einschlielich)
+	 * @param nearest	grter Wert fr den Depthbuffer, welchen ein Punkt in diesem Bereich haben kann
+	 * @return true, wenn jedes Pixel des Bereiches bereits mindestens so nah an der Kamera liegt
+	 */
+	boolean isOccluded(int minX, int minY, int maxX, int maxY, double nearest) {
+
+		minX = Math.max(minX, 0);
+		minY = Math.max(minY, 0);
+		maxX = Math.min(maxX, width - 1);
+		maxY = Math.min(maxY, height - 1);
+
+		if (minX > maxX || minY > maxY)
+			return false;
+
+		/*
+		 * Bei der Berechnung der Werte eines Dreiecks knnen Rundungsfehler entstehen.
+		 * Daher muss der Abstand etwas grer sein.
+		 */
+		nearest += Math.abs(nearest) * 1e-6;
+
+		int blockMinX = minX / RenRasterizer.BLOCK_SIZE;
+		int blockMinY = minY / RenRasterizer.BLOCK_SIZE;
+		int blockMaxX = maxX / RenRasterizer.BLOCK_SIZE;
+		int blockMaxY = maxY / RenRasterizer.BLOCK_SIZE;
+
+		// Zunchst werden die Kacheln getestet, erst anschlieend die einzelnen Blcke.
+		for (int tileY = blockMinY / tileBlocks; tileY <= blockMaxY / tileBlocks; tileY++) {
+			for (int tileX = blockMinX / tileBlocks; tileX <= blockMaxX / tileBlocks; tileX++) {
+
+				if (tileFar[tileY * tilesX + tileX] >= nearest)
+					continue;
+
+				int y0 = Math.max(blockMinY, tileY * tileBlocks);
+				int y1 = Math.min(blockMaxY, tileY * tileBlocks + tileBlocks - 1);
+				int x0 = Math.max(blockMinX, tileX * tileBlocks);
+				int x1 = Math.min(blockMaxX, tileX * tileBlocks + tileBlocks - 1);
+
+				for (int blockY = y0; blockY <= y1; blockY++) {
+					for (int blockX = x0; blockX <= x1; blockX++) {
+
+						if (blockFar[blockY * blocksX + blockX] < nearest)
+							return false;
+					}
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Ermittelt den Wert einer Kachel aus den Werten ihrer Blcke.
+	 *
+	 * @param tile Index der Kachel
+	 */
+	private void updateTile(int tile) {
+
+		int firstBlockX = (tile % tilesX) * tileBlocks;
+		int firstBlockY = (tile / tilesX) * tileBlocks;
+
+		double far = Double.MAX_VALUE;
+
+		for (int blockY = firstBlockY; blockY < Math.min(firstBlockY + tileBlocks, blocksY); blockY++)
+			for (int blockX = firstBlockX; blockX < Math.min(firstBlockX + tileBlocks, blocksX); blockX++)
+				far = Math.min(far, blockFar[blockY * blocksX + blockX]);
+
+		tileFar[tile] = far;
+	}
+
+	int getWidth() {
+		return width;
+	}
+
+	int getHeight() {
+		return height;
+	}
+
+}
@@ -0,0 +1,85 @@
+package de.sebphil.renderer.objects;
+
+public class RenImageDiff {
+
+	private int pixels, differingPixels, maxChannelDiff;
+	private long channelDiffSum;
+
+	/**
+	 * Constructor fr RenImageDiff.
+	 *
+	 * Diese Klasse enthlt den Unterschied zwischen zwei Bildern gleicher Gre (z.B. zwei Framebuffern eines
+	 * SebRenderer, siehe SebRenderer#comparePrecision). Verglichen werden die Farbkanle Rot, Grn und Blau.
+	 *
+	 * @param expected	Pixel des 1. Bildes als ARGB-Werte
+	 * @param actual	Pixel des 2. Bildes als ARGB-Werte
+	 */
+	public RenImageDiff(int[] expected, int[] actual) {
+
+		if (expected.length != actual.length)
+			throw new IllegalArgumentException("Die Bilder haben eine unterschiedliche Gre.");
+
+		this.pixels = expected.length;
+
+		for (int i = 0; i < expected.length; i++) {
+
+			if (expected[i] == actual[i])
+				continue;
+
+			int diff = 0;
+
+			for (int shift = 0; shift < 24; shift += 8)
+				diff = Math.max(diff, Math.abs(((expected[i] >> shift) & 0xFF) - ((actual[i] >> shift) & 0xFF)));
+
+			if (diff == 0)
+				continue;
+
+			differingPixels++;
+			channelDiffSum += diff;
+			maxChannelDiff = Math.max(maxChannelDiff, diff);
+		}
+	}
+
+	/**
+	 * @return Anzahl der verglichenen Pixel
+	 */
+	public int getPixels() {
+		return pixels;
+	}
+
+	/**
+	 * @return Anzahl der Pixel, welche sich in mindestens einem Farbkanal unterscheiden
+	 */
+	public int getDifferingPixels() {
+		return differingPixels;
+	}
+
+	/**
+	 * @return Anteil der Pixel, welche sich unterscheiden (0 bis 1)
+	 */
+	public double getDifferingRatio() {
+		return pixels == 0 ? 0 : (double) differingPixels / pixels;
+	}
+
+	/**
+	 * @return grter Unterschied eines Farbkanals (0 bis 255)
+	 */
+	public int getMaxChannelDiff() {
+		return maxChannelDiff;
+	}
+
+	/**
+	 * @return durchschnittlicher (grter) Unterschied eines Farbkanals ber alle Pixel, welche sich unterscheiden
+	 */
+	public double getMeanChannelDiff() {
+		return differingPixels == 0 ? 0 : (double) channelDiffSum / differingPixels;
+	}
+
+	@Override
+	public String toString() {
+		return "differing pixels: " + differingPixels + " / " + pixels + " ("
+				+ Math.round(getDifferingRatio() * 100000) / 1000.0 + "%), max channel diff: " + maxChannelDiff
+				+ ", mean channel diff: " + Math.round(getMeanChannelDiff() * 10) / 10.0;
+	}
+
+}
@@ -0,0 +1,281 @@
+package de.sebphil.renderer.objects;
+
+import java.util.Arrays;
+import java.util.List;
+
+import de.sebphil.renderer.math.Vec3;
+import javafx.geometry.Point3D;
+
+class RenLightCache {
+
+	// Anzahl der Zellen pro Seite der oktaedrischen Karte (64 x 64 Zellen pro Quadrant)
+	static final int RESOLUTION = 128;
+
+	/*
+	 * Pro Zelle vier Werte: Summe der Lichtquellen, welche in der ganzen Zelle heller als das Umgebungslicht sind
+	 * (x, y, z), und Summe des Umgebungslichtes aller Lichtquellen, welche in der ganzen Zelle dunkler sind
+	 */
+	private double[] cells;
+	/*
+	 * Lichtquellen, deren Grenze eine Zelle schneidet (Index in lights, fortlaufend pro Zeile der Karte), und Beginn
+	 * der Lichtquellen jeder Zelle in der Liste ihrer Zeile (RESOLUTION + 1 Werte pro Zeile)
+	 */
+	private int[][] crossing;
+	private int[] crossingStart;
+	// Lichtquellen (normiert, x, y, z pro Lichtquelle) und Umgebungslicht, mit welchen die Karte erstellt wird
+	private double[] lights;
+	private double ambient;
+	// Szene und Version ihrer Lichtquellen, fr welche die Karte zuletzt erstellt wurde
+	private RenScene scene;
+	private int version;
+
+	/**
+	 * Constructor fr einen RenLightCache.
+	 *
+	 * Diese Klasse speichert die Summe der Helligkeiten aller (gerichteten) Lichtquellen einer Szene fr alle
+	 * Richtungen einer Flchen-Normale im World-Space. Da die Lichtquellen gerichtet sind, hngt die Helligkeit
+	 * eines Dreiecks nur von seiner Normale ab, sodass die Schattierung unabhngig von der Anzahl der Lichtquellen
+	 * mit einem Zugriff auf die Karte erfolgt.
+	 *
+	 * Die Richtungen werden oktaedrisch auf ein Quadrat abgebildet (die Normale wird auf den Oktaeder
+	 * |x| + |y| + |z| = 1 projiziert und dessen untere Hlfte nach auen geklappt), welches in Zellen aufgeteilt
+	 * wird. Fr jede Zelle wird ermittelt, welche Lichtquellen in der ganzen Zelle heller als das Umgebungslicht sind
+	 * (ihr Beitrag normal * light ist linear, sodass sie zu einem Vektor addiert werden) und welche in der ganzen
+	 * Zelle nur das Umgebungslicht beitragen (ein konstanter Wert). Nur die Lichtquellen, deren Grenze
+	 * (normal * light = ambient) die Zelle schneidet, werden bei jedem Zugriff einzeln errechnet. Dies ist pro Zelle
+	 * nur ein kleiner Teil der Lichtquellen (bei 128 x 128 Zellen schneidet die Grenze einer Lichtquelle etwa 2 % der
+	 * Zellen).
+	 *
+	 * Da nichts interpoliert wird, ist die Helligkeit fr jede Anzahl von Lichtquellen exakt und unterscheidet sich
+	 * nur durch die Reihenfolge der Additionen (Rundung in der letzten Stelle) von der Schattierung ohne Cache.
+	 */
+	RenLightCache() {
+		this.cells = new double[RESOLUTION * RESOLUTION * 4];
+		this.crossing = new int[RESOLUTION][];
+		this.crossingStart = new int[RESOLUTION * (RESOLUTION + 1)];
+		this.lights = new double[0];
+	}
+
+	/**
+	 * berprft, ob die Karte fr die Lichtquellen und das Umgebungslicht einer Szene neu erstellt werden muss, und
+	 * bernimmt in diesem Fall deren aktuelle Werte. Anschlieend mssen alle Zeilen mit build erstellt werden.
+	 *
+	 * @param scene	Szene, welche gerendert wird
+	 * @return true, wenn die Karte neu erstellt werden muss
+	 */
+	boolean prepare(RenScene scene) {
+
+		if (scene == this.scene && scene.getLightVersion() == version)
+			return false;
+
+		this.scene = scene;
+		this.version = scene.getLightVersion();
+		this.ambient = scene.getAmbient();
+
+		List<Point3D> sceneLights = scene.getLights();
+
+		lights = new double[sceneLights.size() * 3];
+
+		for (int i = 0; i < sceneLights.size(); i++) {
+
+			Point3D dir = sceneLights.get(i).normalize();
+
+			lights[i * 3] = dir.getX();
+			lights[i * 3 + 1] = dir.getY();
+			lights[i * 3 + 2] = dir.getZ();
+		}
+
+		return true;
+	}
+
+	/**
+	 * Erstellt einen Bereich von Zeilen der Karte. (Verschiedene Bereiche knnen von mehreren Threads gleichzeitig
+	 * erstellt werden.)
+	 *
+	 * Jede Zelle wird dabei von einem Kreis auf der Einheitskugel (Mittelpunkt und Radius, siehe bound) umschlossen.
+	 * Liegt der Winkel zwischen dem Mittelpunkt und einer Lichtquelle bei theta, so liegt normal * light fr alle
+	 * Normalen der Zelle zwischen cos(theta + radius) und cos(theta - radius).
+	 *
+	 * @param fromRow	erste Zeile (einschlielich)
+	 * @param toRow		letzte Zeile (ausschlielich), hchstens RESOLUTION
+	 */
+	void build(int fromRow, int toRow) {
+
+		double[] cap = new double[4];
+
+		for (int row = fromRow; row < toRow; row++) {
+
+			int[] list = new int[16];
+			int count = 0;
+
+			for (int col = 0; col < RESOLUTION; col++) {
+
+				crossingStart[row * (RESOLUTION + 1) + col] = count;
+
+				bound(row, col, cap);
+
+				double cosRadius = cap[3], sinRadius = Math.sqrt(1 - cosRadius * cosRadius);
+				double sumX = 0, sumY = 0, sumZ = 0, sumAmbient = 0;
+
+				for (int i = 0; i < lights.length; i += 3) {
+
+					double cosTheta = Vec3.dot(cap, 0, lights, i);
+					double sinTheta = Math.sqrt(Math.max(0, 1 - cosTheta * cosTheta));
+
+					// kleinster und grter Wert von normal * light innerhalb des Kreises
+					double min = cosTheta <= -cosRadius ? -1 : cosTheta * cosRadius - sinTheta * sinRadius;
+					double max = cosTheta >= cosRadius ? 1 : cosTheta * cosRadius + sinTheta * sinRadius;
+
+					if (min >= ambient) {
+						sumX += lights[i];
+						sumY += lights[i + 1];
+						sumZ += lights[i + 2];
+					} else if (max <= ambient) {
+						sumAmbient += ambient;
+					} else {
+						if (count == list.length)
+							list = Arrays.copyOf(list, count * 2);
+						list[count++] = i;
+					}
+				}
+
+				int cell = (row * RESOLUTION + col) * 4;
+
+				cells[cell] = sumX;
+				cells[cell + 1] = sumY;
+				cells[cell + 2] = sumZ;
+				cells[cell + 3] = sumAmbient;
+			}
+
+			crossingStart[row * (RESOLUTION + 1) + RESOLUTION] = count;
+			crossing[row] = list;
+		}
+	}
+
+	/**
+	 * Ermittelt einen Kreis auf der Einheitskugel, welcher alle Richtungen einer Zelle enthlt. Die Zelle wird durch
+	 * den quator in hchstens zwei ebene, konvexe Teile einer Seite des Oktaeders geteilt, deren Projektionen auf
+	 * die Kugel innerhalb des Kreises liegen, wenn ihre Ecken darin liegen. Deshalb werden die Ecken der Zelle und
+	 * die Schnittpunkte ihrer Kanten mit dem quator (auf die Kanten begrenzt) berprft.
+	 *
+	 * @param row	Zeile der Zelle
+	 * @param col	Spalte der Zelle
+	 * @param dst	Array, in welches der Mittelpunkt (x, y, z) und der Kosinus des Radius geschrieben werden
+	 */
+	private static void bound(int row, int col, double[] dst) {
+
+		double u0 = col * 2.0 / RESOLUTION - 1, u1 = (col + 1) * 2.0 / RESOLUTION - 1;
+		double v0 = row * 2.0 / RESOLUTION - 1, v1 = (row + 1) * 2.0 / RESOLUTION - 1;
+
+		direction((u0 + u1) / 2, (v0 + v1) / 2, dst, 0);
+
+		// Die Zellen berschreiten die Achsen nicht, sodass die Vorzeichen von u und v innerhalb einer Zelle gleich sind.
+		double signU = sign(u0 + u1), signV = sign(v0 + v1);
+		double minU = Math.min(Math.abs(u0), Math.abs(u1)), maxU = Math.max(Math.abs(u0), Math.abs(u1));
+		double minV = Math.min(Math.abs(v0), Math.abs(v1)), maxV = Math.max(Math.abs(v0), Math.abs(v1));
+
+		double[] points = {
+				u0, v0, u1, v0, u0, v1, u1, v1,
+				signU * clamp(1 - minV, minU, maxU), signV * minV,
+				signU * clamp(1 - maxV, minU, maxU), signV * maxV,
+				signU * minU, signV * clamp(1 - minU, minV, maxV),
+				signU * maxU, signV * clamp(1 - maxU, minV, maxV)
+		};
+		double[] point = new double[3];
+		double cosRadius = 1;
+
+		for (int i = 0; i < points.length; i += 2) {
+			direction(points[i], points[i + 1], point, 0);
+			cosRadius = Math.min(cosRadius, Vec3.dot(dst, 0, point, 0));
+		}
+
+		// Rundungsfehler der Abbildung ausgleichen (vergrert den Radius um weniger als 1e-7)
+		dst[3] = Math.max(cosRadius - 1e-9, -1);
+	}
+
+	/**
+	 * Ermittelt die (normierte) Richtung eines Punktes der Karte aus der oktaedrischen Abbildung.
+	 *
+	 * @param u		horizontale Koordinate (-1 bis 1)
+	 * @param v		vertikale Koordinate (-1 bis 1)
+	 * @param dst	Array, in welches die Richtung (x, y, z) geschrieben wird
+	 * @param off	Index in dst
+	 */
+	private static void direction(double u, double v, double[] dst, int off) {
+
+		double x = u, y = v, z = 1 - Math.abs(u) - Math.abs(v);
+
+		if (z < 0) {
+			x = (1 - Math.abs(v)) * sign(u);
+			y = (1 - Math.abs(u)) * sign(v);
+		}
+
+		Vec3.set(x, y, z, dst, off);
+		Vec3.normalize(dst, off);
+	}
+
+	/**
+	 * Gibt die Summe der Helligkeiten aller Lichtquellen fr eine Flchen-Normale zurck.
+	 *
+	 * @param x	x-Koordinate der Normale im World-Space
+	 * @param y	y-Koordinate der Normale im World-Space
+	 * @param z	z-Koordinate der Normale im World-Space
+	 * @return Summe der Helligkeiten (wie Math.max(ambient, normal * light) ber alle Lichtquellen)
+	 */
+	double lookup(double x, double y, double z) {
+
+		double sum = Math.abs(x) + Math.abs(y) + Math.abs(z);
+
+		if (sum == 0)
+			return 0;
+
+		double u = x / sum;
+		double v = y / sum;
+
+		if (z < 0) {
+			double tmp = (1 - Math.abs(v)) * sign(u);
+			v = (1 - Math.abs(u)) * sign(v);
+			u = tmp;
+		}
+
+		// Zelle, in welcher die Normale liegt
+		int col = Math.min((int) ((u + 1) * 0.5 * RESOLUTION), RESOLUTION - 1);
+		int row = Math.min((int) ((v + 1) * 0.5 * RESOLUTION), RESOLUTION - 1);
+		int cell = (row * RESOLUTION + col) * 4;
+
+		double length = Math.sqrt(x * x + y * y + z * z);
+		double shade = (x * cells[cell] + y * cells[cell + 1] + z * cells[cell + 2]) / length + cells[cell + 3];
+
+		// Lichtquellen, deren Grenze die Zelle schneidet
+		int[] list = crossing[row];
+		int end = crossingStart[row * (RESOLUTION + 1) + col + 1];
+
+		for (int k = crossingStart[row * (RESOLUTION + 1) + col]; k < end; k++) {
+
+			int i = list[k];
+
+			shade += Math.max(ambient, (x * lights[i] + y * lights[i + 1] + z * lights[i + 2]) / length);
+		}
+
+		return shade;
+	}
+
+	/**
+	 * @param value	Wert
+	 * @param min	kleinster Wert
+	 * @param max	grter Wert
+	 * @return auf min bis max begrenzter Wert
+	 */
+	private static double clamp(double value, double min, double max) {
+		return Math.max(min, Math.min(max, value));
+	}
+
+	/**
+	 * @param value	Wert
+	 * @return -1, wenn der Wert negativ ist, sonst 1
+	 */
+	private static double sign(double value) {
+		return value < 0 ? -1 : 1;
+	}
+
+}
@@ -3,9 +3,9 @@ package de.sebphil.renderer.objects;
 import java.util.Random;
 
 import de.sebphil.renderer.util.NoiseGenerator2D;
+import de.sebphil.renderer.util.RenUtilities;
 import de.sebphil.renderer.util.ResGrid;
 import javafx.geometry.Point3D;
-import javafx.scene.paint.Color;
 
 public class RenNoise extends RenShape {
 
@@ -88,16 +88,20 @@ public class RenNoise extends RenShape {
 						(y + 1) * scale);
 				
 				
-				Color color = super.getColor();
+				int color = super.getArgb();
 
 				if (colored)
-					color = noise.getNoiseRGB(grid.getVal(x, y));
+					color = RenUtilities.toArgb(noise.getNoiseRGB(grid.getVal(x, y)));
 				
 				super.getPolys().add(new RenTriangle(v4, v2, v1, color));
 				super.getPolys().add(new RenTriangle(v3, v2, v4, color));
 				
 			}
 		}
+		
+		// Bounding-Box (u.a. fr das Occlusion-Culling) und Dreiecksnetz (fr den SebRenderer) aktualisieren
+		super.updateBounds();
+		super.updateMesh();
 
 	}
 
@@ -2,29 +2,28 @@ package de.sebphil.renderer.objects;
 
 import java.util.UUID;
 
+import de.sebphil.renderer.math.Mat4;
 import javafx.geometry.Point3D;
 
 public class RenObject {
 
-	private double angleX, angleY, angleZ;
-	private double[][] rotXMat, rotYMat, rotZMat, transMat;
+	private double[] transMat;
 	private String name;
-	private Point3D position;
+	private RenTransform transform;
 	private UUID uuid;
 
 	/**
 	 * Constructor fr ein RenObject.
 	 * Dabei werden alle Membervariablen mit einem validen Wert belegt.
+	 * Position, Rotation und Skalierung werden in einer RenTransform gespeichert.
+	 * @see de.sebphil.renderer.objects.RenTransform
 	 * 
 	 * @param name	Name des zu erzeugenden Objektes
 	 */
 	public RenObject(String name) {
 		this.name = name;
 		this.uuid = UUID.randomUUID();
-		this.position = new Point3D(0, 0, 0);
-		this.rotXMat = generateRotXMat(angleX);
-		this.rotYMat = generateRotXMat(angleY);
-		this.rotZMat = generateRotXMat(angleZ);
+		this.transform = new RenTransform();
 	}
 
 	/**
@@ -33,52 +32,8 @@ public class RenObject {
 	 * @param angleX	Grad der Rotation in Radiant.
 	 * @return			Gibt eine neue Rotationsmatrix zurck.
 	 */
-	protected static double[][] generateRotXMat(double angleX) {
-
-		double[][] rotMat = new double[4][4];
-		rotMat[0][0] = 1;
-		rotMat[1][1] = Math.cos(angleX);
-		rotMat[1][2] = Math.sin(angleX);
-		rotMat[2][1] = -Math.sin(angleX);
-		rotMat[2][2] = Math.cos(angleX);
-		rotMat[3][3] = 1;
-		return rotMat;
-	}
-
-	/**
-	 * Diese Funktion generiert eine geeignete Rotationsmatrix um die z-Achse.
-	 * 
-	 * @param angleZ	Grad der Rotation in Radiant.
-	 * @return			Gibt eine neue Rotationsmatrix zurck.
-	 */
-	private static double[][] generateRotZMat(double angleZ) {
-
-		double[][] rotMat = new double[4][4];
-		rotMat[0][0] = Math.cos(angleZ);
-		rotMat[0][1] = Math.sin(angleZ);
-		rotMat[1][0] = -Math.sin(angleZ);
-		rotMat[1][1] = Math.cos(angleZ);
-		rotMat[2][2] = 1;
-		rotMat[3][3] = 1;
-		return rotMat;
-	}
-	
-	/**
-	 * Diese Funktion generiert eine geeignete Rotationsmatrix um die y-Achse.
-	 * 
-	 * @param angleY	Grad der Rotation in Radiant.
-	 * @return			Gibt eine neue Rotationsmatrix zurck.
-	 */
-	private static double[][] generateRotYMat(double angleY) {
-
-		double[][] rotMat = new double[4][4];
-		rotMat[0][0] = Math.cos(angleY);
-		rotMat[0][2] = Math.sin(angleY);
-		rotMat[2][0] = -Math.sin(angleY);
-		rotMat[1][1] = 1;
-		rotMat[2][2] = Math.cos(angleY);
-		rotMat[3][3] = 1;
-		return rotMat;
+	protected static double[] generateRotXMat(double angleX) {
+		return Mat4.rotationX(angleX, new double[16]);
 	}
 
 	/**
@@ -89,8 +44,7 @@ public class RenObject {
 	 * @param angleX	Grad der Rotation in Gradma
 	 */
 	public void setAngleX(double angleX) {
-		this.angleX = angleX % 360;
-		this.rotXMat = generateRotXMat(Math.toRadians(angleX % 360));
+		transform.setAngleX(angleX);
 	}
 
 	/**
@@ -101,8 +55,7 @@ public class RenObject {
 	 * @param angleY	Grad der Rotation in Gradma
 	 */
 	public void setAngleY(double angleY) {
-		this.angleY = angleY % 360;
-		this.rotYMat = generateRotYMat(Math.toRadians(angleY % 360));
+		transform.setAngleY(angleY);
 	}
 
 	/**
@@ -113,51 +66,50 @@ public class RenObject {
 	 * @param angleZ	Grad der Rotation in Gradma
 	 */
 	public void setAngleZ(double angleZ) {
-		this.angleZ = angleZ % 360;
-		this.rotZMat = generateRotZMat(Math.toRadians(angleZ % 360));
+		transform.setAngleZ(angleZ);
 	}
 
 	public double getAngleX() {
-		return angleX;
+		return transform.getAngleX();
 	}
 
 	public double getAngleY() {
-		return angleY;
+		return transform.getAngleY();
 	}
 
 	public double getAngleZ() {
-		return angleZ;
+		return transform.getAngleZ();
 	}
 
-	public double[][] getRotXMat() {
-		return rotXMat;
+	public double[] getRotXMat() {
+		return transform.getRotXMat();
 	}
 
-	public void setRotXMat(double[][] rotXMat) {
-		this.rotXMat = rotXMat;
+	public void setRotXMat(double[] rotXMat) {
+		transform.setRotXMat(rotXMat);
 	}
 
-	public double[][] getRotYMat() {
-		return rotYMat;
+	public double[] getRotYMat() {
+		return transform.getRotYMat();
 	}
 
-	public void setRotYMat(double[][] rotYMat) {
-		this.rotYMat = rotYMat;
+	public void setRotYMat(double[] rotYMat) {
+		transform.setRotYMat(rotYMat);
 	}
 
-	public double[][] getRotZMat() {
-		return rotZMat;
+	public double[] getRotZMat() {
+		return transform.getRotZMat();
 	}
 
-	public void setRotZMat(double[][] rotZMat) {
-		this.rotZMat = rotZMat;
+	public void setRotZMat(double[] rotZMat) {
+		transform.setRotZMat(rotZMat);
 	}
 
-	public double[][] getTransMat() {
+	public double[] getTransMat() {
 		return transMat;
 	}
 
-	public void setTransMat(double[][] transMat) {
+	public void setTransMat(double[] transMat) {
 		this.transMat = transMat;
 	}
 
@@ -170,11 +122,15 @@ public class RenObject {
 	}
 
 	public Point3D getPosition() {
-		return position;
+		return transform.getPosition();
 	}
 
 	public void setPosition(Point3D position) {
-		this.position = position;
+		transform.setPosition(position);
+	}
+
+	public RenTransform getTransform() {
+		return transform;
 	}
 
 	public UUID getUuid() {
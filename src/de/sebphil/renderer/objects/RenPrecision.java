@@ -0,0 +1,36 @@
+package de.sebphil.renderer.objects;
+
+/**
+ * Genauigkeit, mit welcher der SebRenderer die Geometrie einer Szene verarbeitet.
+ * Unabhngig von der Genauigkeit werden die Eckpunkte im Rasterizer auf Festkommazahlen mit
+ * RenRasterizer.SUB_BITS Nachkommabits (1/256 Pixel) gerundet und die Edge-Functions exakt mit ganzen Zahlen berechnet.
+ * Wie stark sich das Bild beider Genauigkeiten unterscheidet, kann mit SebRenderer#comparePrecision ermittelt werden.
+ */
+public enum RenPrecision {
+
+	/**
+	 * Alle Eckpunkte werden als double gespeichert und transformiert, der Depthbuffer hat das Format
+	 * RenDepthFormat.DOUBLE.
+	 */
+	DOUBLE,
+
+	/**
+	 * Die Eckpunkte werden als float gespeichert (RenShape#getVerticesF) und mit float in den View-Space
+	 * transformiert, sodass nur halb so viele Daten gelesen und geschrieben werden. Die Koordinaten im Screen-Space
+	 * und die Werte fr den Depthbuffer werden ebenfalls auf float gerundet, der Depthbuffer hat das Format
+	 * RenDepthFormat.FLOAT_REVERSED.
+	 * <p>
+	 * Genauigkeit: Jeder Rundungsschritt hat einen relativen Fehler von hchstens 2^-24 (ca. 6e-8). Eckpunkte aus
+	 * OBJ-Dateien (meist 4 bis 6 signifikante Stellen) werden beim Speichern als float nicht verflscht, und auch
+	 * nach der Transformation liegt der Fehler eines Eckpunktes im View-Space bei wenigen 2^-24 seiner Koordinaten.
+	 * Innerhalb des Bildes (Koordinaten bis 4096 Pixel) werden die Koordinaten im Screen-Space auf hchstens
+	 * 1/4096 Pixel genau gerundet, also deutlich genauer als die 1/256 Pixel des Rasterizers. Es weichen daher nur
+	 * einzelne Pixel an Kanten (wenn ein Eckpunkt nahe an der Grenze zweier Festkommawerte liegt) sowie Pixel, an
+	 * welchen sich zwei Flchen nahezu in derselben Tiefe berlagern, von DOUBLE ab. Die Farbe eines Dreiecks kann sich
+	 * dabei nicht unterscheiden, da die Flchen-Normalen unabhngig von der Genauigkeit mit double aus dem
+	 * Dreiecksnetz errechnet werden (siehe RenShape#getFaceNormals). Face-Culling und Clipping werden aus den
+	 * gerundeten Eckpunkten mit double berechnet.
+	 */
+	SINGLE
+
+}
@@ -0,0 +1,652 @@
+package de.sebphil.renderer.objects;
+
+class RenRasterizer {
+
+	// Anzahl der Nachkommabits der Festkommazahlen, mit welchen der Rasterizer rechnet
+	static final int SUB_BITS = 8;
+	static final int SUB_STEPS = 1 << SUB_BITS;
+	// Kantenlnge eines Blockes fr die hierarchische Rasterisierung in Pixel
+	static final int BLOCK_SIZE = 8;
+	/*
+	 * Durchgnge der Rasterisierung:
+	 * PASS_NORMAL - Depthtest, Eintragen von Farbe und Wert fr den Depthbuffer
+	 * PASS_DEPTH - Depthtest, nur Eintragen des Wertes fr den Depthbuffer (Depth-Prepass)
+	 * PASS_COLOR - nur Eintragen der Farbe, wenn der Wert mit dem Wert im Depthbuffer bereinstimmt
+	 */
+	static final int PASS_NORMAL = 0, PASS_DEPTH = 1, PASS_COLOR = 2;
+
+	private boolean hierarchical;
+	protected int pass;
+	protected int width;
+	protected int[] framebuffer;
+	protected double[] depthBuffer;
+	protected float[] depthBufferF;
+	private long blocksAccepted, blocksRejected, blocksPartial, occludedTileTris;
+	protected long pixelWrites;
+	private RenHiZ hiZ;
+	// Coverage-Buffer (eine Maske von Integer.SIZE Bits pro Zeile einer Kachel) und Anzahl der vollen Zeilen pro Kachel
+	private int[] coverage, coveredRows;
+	private int coverageTilesX;
+
+	/*
+	 * Werte des Dreiecks, welches gerade rasterisiert wird.
+	 * edgeC - Wert der Edge-Function im Mittelpunkt des Pixels (0|0) (inkl. Korrektur fr die top-left Regel)
+	 * stepX/stepY - nderung der Edge-Function pro Pixel in x- und y-Richtung
+	 * depthC/depthX/depthY - Ebenengleichung fr den Wert des Depthbuffers
+	 */
+	protected long edgeC0, edgeC1, edgeC2;
+	protected long stepX0, stepX1, stepX2, stepY0, stepY1, stepY2;
+	protected double depthC, depthX, depthY;
+	protected int color;
+
+	/**
+	 * Constructor fr einen RenRasterizer.
+	 *
+	 * Diese Klasse trgt Dreiecke im Screen-Space in einen Frame- und Depthbuffer ein.
+	 * Jeder Thread des SebRenderer besitzt einen eigenen RenRasterizer, da dieser whrend
+	 * der Rasterisierung eines Dreiecks Werte zwischenspeichert und Statistiken fhrt.
+	 */
+	RenRasterizer() {
+	}
+
+	/**
+	 * Legt die Buffer fest, in welche die Dreiecke eingetragen werden.
+	 * Es wird genau einer der beiden Depthbuffer verwendet (der andere ist null).
+	 *
+	 * @param framebuffer	Framebuffer
+	 * @param depthBuffer	Depthbuffer im Format RenDepthFormat.DOUBLE
+	 * @param depthBufferF	Depthbuffer im Format RenDepthFormat.FLOAT_REVERSED
+	 * @param width			Breite der Buffer in Pixel
+	 */
+	void setTarget(int[] framebuffer, double[] depthBuffer, float[] depthBufferF, int width) {
+		this.framebuffer = framebuffer;
+		this.depthBuffer = depthBuffer;
+		this.depthBufferF = depthBufferF;
+		this.width = width;
+	}
+
+	/**
+	 * Setzt die Statistiken dieses Rasterizers zurck.
+	 */
+	void resetStats() {
+		blocksAccepted = 0;
+		blocksRejected = 0;
+		blocksPartial = 0;
+		occludedTileTris = 0;
+		pixelWrites = 0;
+	}
+
+	/**
+	 * Rasteriert ein Dreieck, d.h. das Dreieck wird in den Depth- und Framebuffer
+	 * eingetragen. Dabei werden nur die Pixel innerhalb des angegebenen Bereiches (einer Kachel) bearbeitet.
+	 *
+	 * Die Eckpunkte werden auf Festkommazahlen mit SUB_BITS Nachkommabits gerundet. Die drei Edge-Functions
+	 * werden einmal pro Dreieck aufgestellt und anschlieend von Pixel zu Pixel (und von Zeile zu Zeile) nur noch
+	 * inkrementiert. Da mit ganzen Zahlen gerechnet wird, ist dies exakt. Mithilfe der "top-left" Regel werden
+	 * Pixel, welche genau auf einer gemeinsamen Kante zweier Dreiecke liegen, nur einem der beiden Dreiecke zugeordnet.
+	 * Der Wert fr den Depthbuffer (linear zu 1/z) ist im Screen-Space linear und wird direkt aus der Ebenengleichung
+	 * bestimmt, sodass pro Pixel keine Division ntig ist.
+	 *
+	 * @param verts		Array, in welchem die Eckpunkte des Dreiecks (x, y, Wert fr den Depthbuffer) hintereinander liegen
+	 * @param offset	Index der x-Koordinate des ersten Eckpunktes
+	 * @param color		Farbe des Dreiecks (mit Schattierung) als ARGB-Wert
+	 * @param clipMinX	linke Grenze des Bereiches (einschlielich)
+	 * @param clipMinY	obere Grenze des Bereiches (einschlielich)
+	 * @param clipMaxX	rechte Grenze des Bereiches (einschlielich)
+	 * @param clipMaxY	untere Grenze des Bereiches (einschlielich)
+	 */
+	void rasterizeTri(double[] verts, int offset, int color, int clipMinX, int clipMinY, int clipMaxX,
+			int clipMaxY) {
+
+		// Eckpunkte als Festkommazahlen
+		long x0 = Math.round(verts[offset] * SUB_STEPS), y0 = Math.round(verts[offset + 1] * SUB_STEPS);
+		long x1 = Math.round(verts[offset + 3] * SUB_STEPS), y1 = Math.round(verts[offset + 4] * SUB_STEPS);
+		long x2 = Math.round(verts[offset + 6] * SUB_STEPS), y2 = Math.round(verts[offset + 7] * SUB_STEPS);
+
+		double z0 = verts[offset + 2], z1 = verts[offset + 5], z2 = verts[offset + 8];
+
+		long area = edgeFunction(x0, y0, x1, y1, x2, y2);
+
+		if (area == 0)
+			return;
+
+		// Die Eckpunkte werden so sortiert, dass die Edge-Functions innerhalb des Dreiecks positiv sind.
+		if (area < 0) {
+
+			long tmp = x1;
+			x1 = x2;
+			x2 = tmp;
+
+			tmp = y1;
+			y1 = y2;
+			y2 = tmp;
+
+			double tmpZ = z1;
+			z1 = z2;
+			z2 = tmpZ;
+
+			area = -area;
+		}
+
+		int minX = Math.max((int) (Math.min(x0, Math.min(x1, x2)) >> SUB_BITS), clipMinX);
+		int minY = Math.max((int) (Math.min(y0, Math.min(y1, y2)) >> SUB_BITS), clipMinY);
+		int maxX = Math.min((int) (Math.max(x0, Math.max(x1, x2)) >> SUB_BITS), clipMaxX);
+		int maxY = Math.min((int) (Math.max(y0, Math.max(y1, y2)) >> SUB_BITS), clipMaxY);
+
+		if (minX > maxX || minY > maxY)
+			return;
+
+		/*
+		 * nderung der Edge-Functions pro Pixel in x-Richtung (stepX) und y-Richtung (stepY).
+		 * Edge 0: v1 -> v2, Edge 1: v2 -> v0, Edge 2: v0 -> v1
+		 */
+		stepX0 = (y1 - y2) << SUB_BITS;
+		stepY0 = (x2 - x1) << SUB_BITS;
+		stepX1 = (y2 - y0) << SUB_BITS;
+		stepY1 = (x0 - x2) << SUB_BITS;
+		stepX2 = (y0 - y1) << SUB_BITS;
+		stepY2 = (x1 - x0) << SUB_BITS;
+
+		// Edge-Functions im Mittelpunkt des Pixels (0|0) (inkl. Korrektur fr die top-left Regel)
+		long center = SUB_STEPS / 2;
+
+		edgeC0 = edgeFunction(x1, y1, x2, y2, center, center) + topLeftBias(x1, y1, x2, y2);
+		edgeC1 = edgeFunction(x2, y2, x0, y0, center, center) + topLeftBias(x2, y2, x0, y0);
+		edgeC2 = edgeFunction(x0, y0, x1, y1, center, center) + topLeftBias(x0, y0, x1, y1);
+
+		/*
+		 * Ebenengleichung fr den Wert des Depthbuffers: depth(x, y) = depthC + depthX * x + depthY * y
+		 * (x und y sind die Koordinaten des Pixels, die Werte beziehen sich auf den Mittelpunkt des Pixels)
+		 */
+		double invArea = 1.0 / area;
+		double dZ1 = z1 - z0;
+		double dZ2 = z2 - z0;
+
+		depthX = (stepX1 * dZ1 + stepX2 * dZ2) * invArea;
+		depthY = (stepY1 * dZ1 + stepY2 * dZ2) * invArea;
+		depthC = z0 + (edgeFunction(x2, y2, x0, y0, center, center) * dZ1
+				+ edgeFunction(x0, y0, x1, y1, center, center) * dZ2) * invArea;
+
+		this.color = color;
+
+		if (coverage != null)
+			rasterizeCoverage(minX, minY, maxX, maxY, clipMinX, clipMinY);
+		else if (hierarchical)
+			rasterizeBlocks(minX, minY, maxX, maxY);
+		else
+			rasterizePixels(minX, minY, maxX, maxY);
+
+		if (hiZ != null && pass != PASS_COLOR)
+			updateHiZ(minX, minY, maxX, maxY);
+	}
+
+	/**
+	 * Rasteriert das aktuelle Dreieck mithilfe des Coverage-Buffers. Fr jede Zeile wird zunchst der Bereich
+	 * (Span) ermittelt, welcher in dem Dreieck liegt. Von diesem werden nur die Pixel eingetragen, welche noch
+	 * von keinem anderen Dreieck berdeckt wurden (ohne Depthtest). Zeilen, welche bereits vollstndig
+	 * berdeckt sind, werden bersprungen. Dadurch wird jedes Pixel hchstens einmal beschrieben.
+	 * (Die Dreiecke mssen dazu von vorne nach hinten bergeben werden.)
+	 *
+	 * @param minX	linke Grenze des Bereiches (einschlielich)
+	 * @param minY	obere Grenze des Bereiches (einschlielich)
+	 * @param maxX	rechte Grenze des Bereiches (einschlielich)
+	 * @param maxY	untere Grenze des Bereiches (einschlielich)
+	 * @param tileX	x-Koordinate des ersten Pixels der Kachel
+	 * @param tileY	y-Koordinate des ersten Pixels der Kachel
+	 */
+	private void rasterizeCoverage(int minX, int minY, int maxX, int maxY, int tileX, int tileY) {
+
+		int tile = (tileY / Integer.SIZE) * coverageTilesX + tileX / Integer.SIZE;
+
+		long row0 = edgeC0 + stepX0 * minX + stepY0 * minY;
+		long row1 = edgeC1 + stepX1 * minX + stepY1 * minY;
+		long row2 = edgeC2 + stepX2 * minX + stepY2 * minY;
+
+		for (int y = minY; y <= maxY; y++, row0 += stepY0, row1 += stepY1, row2 += stepY2) {
+
+			int covIndex = y * coverageTilesX + tileX / Integer.SIZE;
+			int covered = coverage[covIndex];
+
+			if (covered == -1)
+				continue;
+
+			long e0 = row0;
+			long e1 = row1;
+			long e2 = row2;
+
+			// Span des Dreiecks in dieser Zeile ermitteln
+			int spanStart = -1, spanEnd = -1;
+
+			for (int x = minX; x <= maxX; x++) {
+
+				if ((e0 | e1 | e2) >= 0) {
+
+					if (spanStart < 0)
+						spanStart = x;
+
+					spanEnd = x;
+
+				} else if (spanStart >= 0) {
+					break;
+				}
+
+				e0 += stepX0;
+				e1 += stepX1;
+				e2 += stepX2;
+			}
+
+			if (spanStart < 0)
+				continue;
+
+			int span = (-1 >>> (Integer.SIZE - 1 - (spanEnd - spanStart))) << (spanStart - tileX);
+			int free = span & ~covered;
+
+			if (free == 0)
+				continue;
+
+			int index = y * width + tileX;
+			double depthRow = depthC + depthY * y;
+
+			// Nur die noch freien Pixel der Span beschreiben
+			for (int bits = free; bits != 0; bits &= bits - 1) {
+
+				int x = tileX + Integer.numberOfTrailingZeros(bits);
+
+				writeCovered(index + x - tileX, depthRow + depthX * x);
+			}
+
+			coverage[covIndex] = covered | span;
+
+			if ((covered | span) == -1)
+				coveredRows[tile]++;
+		}
+	}
+
+	/**
+	 * Trgt ein Pixel ohne Depthtest in den Depth- und Framebuffer ein (Coverage-Buffer).
+	 *
+	 * @param index	Index des Pixels im Depth- und Framebuffer
+	 * @param z		Wert fr den Depthbuffer
+	 */
+	private void writeCovered(int index, double z) {
+
+		if (depthBufferF != null)
+			depthBufferF[index] = (float) z;
+		else
+			depthBuffer[index] = z;
+
+		framebuffer[index] = color;
+		pixelWrites++;
+	}
+
+	/**
+	 * berprft mithilfe des RenHiZ, ob ein Dreieck innerhalb des angegebenen Bereiches (einer Kachel)
+	 * vollstndig verdeckt ist. Ist dies der Fall, muss das Dreieck in diesem Bereich nicht rasterisiert werden.
+	 *
+	 * @param verts		Array, in welchem die Eckpunkte des Dreiecks (x, y, Wert fr den Depthbuffer) hintereinander liegen
+	 * @param offset	Index der x-Koordinate des ersten Eckpunktes
+	 * @param clipMinX	linke Grenze des Bereiches (einschlielich)
+	 * @param clipMinY	obere Grenze des Bereiches (einschlielich)
+	 * @param clipMaxX	rechte Grenze des Bereiches (einschlielich)
+	 * @param clipMaxY	untere Grenze des Bereiches (einschlielich)
+	 * @return true, wenn das Dreieck in diesem Bereich verdeckt ist
+	 */
+	boolean isOccluded(double[] verts, int offset, int clipMinX, int clipMinY, int clipMaxX, int clipMaxY) {
+
+		if (!isHidden(verts, offset, clipMinX, clipMinY, clipMaxX, clipMaxY))
+			return false;
+
+		occludedTileTris++;
+
+		return true;
+	}
+
+	/**
+	 * berprft wie isOccluded, ob ein Dreieck innerhalb des angegebenen Bereiches vollstndig verdeckt ist,
+	 * zhlt dieses allerdings nicht in den Statistiken.
+	 *
+	 * @param verts		Array, in welchem die Eckpunkte des Dreiecks (x, y, Wert fr den Depthbuffer) hintereinander liegen
+	 * @param offset	Index der x-Koordinate des ersten Eckpunktes
+	 * @param clipMinX	linke Grenze des Bereiches (einschlielich)
+	 * @param clipMinY	obere Grenze des Bereiches (einschlielich)
+	 * @param clipMaxX	rechte Grenze des Bereiches (einschlielich)
+	 * @param clipMaxY	untere Grenze des Bereiches (einschlielich)
+	 * @return true, wenn das Dreieck in diesem Bereich verdeckt ist
+	 */
+	boolean isHidden(double[] verts, int offset, int clipMinX, int clipMinY, int clipMaxX, int clipMaxY) {
+
+		if (hiZ == null)
+			return false;
+
+		int minX = Math.max((int) Math.min(verts[offset], Math.min(verts[offset + 3], verts[offset + 6])), clipMinX);
+		int minY = Math.max((int) Math.min(verts[offset + 1], Math.min(verts[offset + 4], verts[offset + 7])), clipMinY);
+		int maxX = Math.min((int) Math.max(verts[offset], Math.max(verts[offset + 3], verts[offset + 6])) + 1, clipMaxX);
+		int maxY = Math.min((int) Math.max(verts[offset + 1], Math.max(verts[offset + 4], verts[offset + 7])) + 1, clipMaxY);
+
+		double nearest = Math.max(verts[offset + 2], Math.max(verts[offset + 5], verts[offset + 8]));
+
+		return minX <= maxX && minY <= maxY && hiZ.isOccluded(minX, minY, maxX, maxY, nearest);
+	}
+
+	/**
+	 * Erhht die Werte des RenHiZ fr alle Blcke, welche vollstndig von dem aktuellen Dreieck berdeckt werden.
+	 * Nach dem Depthtest ist jeder Wert in einem solchen Block mindestens so gro wie der kleinste Wert, welchen
+	 * das Dreieck in diesem Block hat. (Da die Ebenengleichung linear ist, liegt dieser an einer Ecke des Blockes.)
+	 *
+	 * @param minX	linke Grenze des Bereiches (einschlielich)
+	 * @param minY	obere Grenze des Bereiches (einschlielich)
+	 * @param maxX	rechte Grenze des Bereiches (einschlielich)
+	 * @param maxY	untere Grenze des Bereiches (einschlielich)
+	 */
+	private void updateHiZ(int minX, int minY, int maxX, int maxY) {
+
+		for (int blockY = Math.floorDiv(minY + BLOCK_SIZE - 1, BLOCK_SIZE); blockY * BLOCK_SIZE <= maxY; blockY++) {
+
+			int y0 = blockY * BLOCK_SIZE;
+			int y1 = Math.min(y0 + BLOCK_SIZE, hiZ.getHeight()) - 1;
+
+			if (y1 > maxY)
+				break;
+
+			for (int blockX = Math.floorDiv(minX + BLOCK_SIZE - 1, BLOCK_SIZE); blockX * BLOCK_SIZE <= maxX; blockX++) {
+
+				int x0 = blockX * BLOCK_SIZE;
+				int x1 = Math.min(x0 + BLOCK_SIZE, hiZ.getWidth()) - 1;
+
+				if (x1 > maxX)
+					break;
+
+				int dX = x1 - x0;
+				int dY = y1 - y0;
+
+				long e0 = edgeC0 + stepX0 * x0 + stepY0 * y0;
+				long e1 = edgeC1 + stepX1 * x0 + stepY1 * y0;
+				long e2 = edgeC2 + stepX2 * x0 + stepY2 * y0;
+
+				long min0 = e0 + Math.min(0, stepX0 * dX) + Math.min(0, stepY0 * dY);
+				long min1 = e1 + Math.min(0, stepX1 * dX) + Math.min(0, stepY1 * dY);
+				long min2 = e2 + Math.min(0, stepX2 * dX) + Math.min(0, stepY2 * dY);
+
+				if ((min0 | min1 | min2) < 0)
+					continue;
+
+				double far = depthC + depthX * x0 + depthY * y0 + Math.min(0, depthX * dX) + Math.min(0, depthY * dY);
+
+				// Rundungsfehler (u.a. bei RenDepthFormat.FLOAT_REVERSED) drfen den Wert nicht zu gro werden lassen.
+				far -= Math.abs(far) * 1e-6;
+
+				if (far > 0)
+					hiZ.raiseBlock(blockX, blockY, far);
+			}
+		}
+	}
+
+	/**
+	 * Untersucht jedes Pixel des angegebenen Bereiches, ob es in dem aktuellen Dreieck liegt, und
+	 * trgt es gegebenenfalls in den Depth- und Framebuffer ein.
+	 *
+	 * @param minX	linke Grenze des Bereiches (einschlielich)
+	 * @param minY	obere Grenze des Bereiches (einschlielich)
+	 * @param maxX	rechte Grenze des Bereiches (einschlielich)
+	 * @param maxY	untere Grenze des Bereiches (einschlielich)
+	 */
+	protected void rasterizePixels(int minX, int minY, int maxX, int maxY) {
+
+		long row0 = edgeC0 + stepX0 * minX + stepY0 * minY;
+		long row1 = edgeC1 + stepX1 * minX + stepY1 * minY;
+		long row2 = edgeC2 + stepX2 * minX + stepY2 * minY;
+
+		// Die Pixel werden Zeile fr Zeile (in der Reihenfolge des Speichers) durchlaufen.
+		for (int y = minY; y <= maxY; y++) {
+
+			long e0 = row0;
+			long e1 = row1;
+			long e2 = row2;
+
+			int index = y * width + minX;
+			double depthRow = depthC + depthY * y;
+			boolean inside = false;
+
+			for (int x = minX; x <= maxX; x++, index++) {
+
+				// Pixel liegt im Dreieck, wenn alle drei Edge-Functions nicht negativ sind.
+				if ((e0 | e1 | e2) >= 0) {
+
+					inside = true;
+
+					// Depthtest vollfhren
+					writePixel(index, depthRow + depthX * x);
+
+				} else if (inside) {
+					// Da das Dreieck konvex ist, kann kein weiteres Pixel dieser Zeile im Dreieck liegen.
+					break;
+				}
+
+				e0 += stepX0;
+				e1 += stepX1;
+				e2 += stepX2;
+			}
+
+			row0 += stepY0;
+			row1 += stepY1;
+			row2 += stepY2;
+		}
+	}
+
+	/**
+	 * Rasteriert das aktuelle Dreieck hierarchisch. Der angegebene Bereich wird dabei in Blcke von
+	 * BLOCK_SIZE x BLOCK_SIZE Pixel aufgeteilt. Fr jeden Block werden die Edge-Functions nur an seinen
+	 * Ecken ausgewertet (da die Edge-Functions linear sind, liegen dort ihre Extremwerte):
+	 * <ul>
+	 * <li>Liegt der Block vollstndig auerhalb einer Kante, wird er bersprungen.
+	 * <li>Liegt der Block vollstndig innerhalb aller Kanten, wird fr seine Pixel nur der Depthtest vollfhrt.
+	 * <li>Sonst wird jedes Pixel des Blockes einzeln untersucht.
+	 * </ul>
+	 *
+	 * @param minX	linke Grenze des Bereiches (einschlielich)
+	 * @param minY	obere Grenze des Bereiches (einschlielich)
+	 * @param maxX	rechte Grenze des Bereiches (einschlielich)
+	 * @param maxY	untere Grenze des Bereiches (einschlielich)
+	 */
+	private void rasterizeBlocks(int minX, int minY, int maxX, int maxY) {
+
+		for (int blockY = minY - Math.floorMod(minY, BLOCK_SIZE); blockY <= maxY; blockY += BLOCK_SIZE) {
+
+			int y0 = Math.max(blockY, minY);
+			int y1 = Math.min(blockY + BLOCK_SIZE - 1, maxY);
+
+			for (int blockX = minX - Math.floorMod(minX, BLOCK_SIZE); blockX <= maxX; blockX += BLOCK_SIZE) {
+
+				int x0 = Math.max(blockX, minX);
+				int x1 = Math.min(blockX + BLOCK_SIZE - 1, maxX);
+
+				int dX = x1 - x0;
+				int dY = y1 - y0;
+
+				// Edge-Functions in der oberen linken Ecke des Blockes
+				long e0 = edgeC0 + stepX0 * x0 + stepY0 * y0;
+				long e1 = edgeC1 + stepX1 * x0 + stepY1 * y0;
+				long e2 = edgeC2 + stepX2 * x0 + stepY2 * y0;
+
+				// Grter Wert der Edge-Functions innerhalb des Blockes
+				long max0 = e0 + Math.max(0, stepX0 * dX) + Math.max(0, stepY0 * dY);
+				long max1 = e1 + Math.max(0, stepX1 * dX) + Math.max(0, stepY1 * dY);
+				long max2 = e2 + Math.max(0, stepX2 * dX) + Math.max(0, stepY2 * dY);
+
+				if ((max0 | max1 | max2) < 0) {
+					blocksRejected++;
+					continue;
+				}
+
+				// Kleinster Wert der Edge-Functions innerhalb des Blockes
+				long min0 = e0 + Math.min(0, stepX0 * dX) + Math.min(0, stepY0 * dY);
+				long min1 = e1 + Math.min(0, stepX1 * dX) + Math.min(0, stepY1 * dY);
+				long min2 = e2 + Math.min(0, stepX2 * dX) + Math.min(0, stepY2 * dY);
+
+				if ((min0 | min1 | min2) >= 0) {
+
+					blocksAccepted++;
+
+					for (int y = y0; y <= y1; y++)
+						fillSpan(y, x0, x1);
+
+				} else {
+
+					blocksPartial++;
+					rasterizePixels(x0, y0, x1, y1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Trgt eine Reihe von Pixeln, welche vollstndig in dem aktuellen Dreieck liegen, in den
+	 * Depth- und Framebuffer ein (ohne die Edge-Functions auszuwerten).
+	 *
+	 * @param y		Zeile
+	 * @param x0	erstes Pixel (einschlielich)
+	 * @param x1	letztes Pixel (einschlielich)
+	 */
+	protected void fillSpan(int y, int x0, int x1) {
+
+		int index = y * width + x0;
+		double depthRow = depthC + depthY * y;
+
+		for (int x = x0; x <= x1; x++, index++)
+			writePixel(index, depthRow + depthX * x);
+	}
+
+	/**
+	 * Vollfhrt den Depthtest fr ein Pixel und trgt dieses gegebenenfalls in den Depth- und Framebuffer ein.
+	 *
+	 * @param index	Index des Pixels im Depth- und Framebuffer
+	 * @param z		Wert fr den Depthbuffer
+	 */
+	private void writePixel(int index, double z) {
+
+		if (pass == PASS_COLOR) {
+
+			// Nur Pixel eintragen, welche im Depth-Prepass sichtbar waren
+			if (depthBufferF != null ? depthBufferF[index] == (float) z : depthBuffer[index] == z) {
+				framebuffer[index] = color;
+				pixelWrites++;
+			}
+
+		} else if (depthBufferF != null) {
+
+			float zF = (float) z;
+
+			if (depthBufferF[index] < zF) {
+				depthBufferF[index] = zF;
+
+				if (pass == PASS_NORMAL) {
+					framebuffer[index] = color;
+					pixelWrites++;
+				}
+			}
+
+		} else if (depthBuffer[index] < z) {
+			// Wert in Depth- und Framebuffer aktualisieren
+			depthBuffer[index] = z;
+
+			if (pass == PASS_NORMAL) {
+				framebuffer[index] = color;
+				pixelWrites++;
+			}
+		}
+	}
+
+	/**
+	 * Gibt die Korrektur fr die Edge-Function einer Kante nach der "top-left" Regel zurck.
+	 * Pixel, welche genau auf einer oberen oder linken Kante liegen, gehren zu dem Dreieck (Korrektur 0).
+	 * Bei allen anderen Kanten gehren diese Pixel nicht zu dem Dreieck (Korrektur -1).
+	 *
+	 * @param v1X x-Koordinate des Anfangspunktes der Kante (Festkommazahl)
+	 * @param v1Y y-Koordinate des Anfangspunktes der Kante (Festkommazahl)
+	 * @param v2X x-Koordinate des Endpunktes der Kante (Festkommazahl)
+	 * @param v2Y y-Koordinate des Endpunktes der Kante (Festkommazahl)
+	 * @return Korrektur fr die Edge-Function
+	 */
+	private static long topLeftBias(long v1X, long v1Y, long v2X, long v2Y) {
+
+		boolean top = v1Y == v2Y && v2X > v1X;
+		boolean left = v2Y < v1Y;
+
+		return top || left ? 0 : -1;
+	}
+
+	/**
+	 * gibt einen negativen Wert zurck, wenn Punkt auf der rechten Seite der beschriebenen Geraden (durch v1 und v2) liegt.
+	 * gibt einen positiven Wert zurck, wenn Punkt auf der linken Seite der beschriebenen Geraden (durch v1 und v2) liegt.
+	 * (Alle Koordinaten sind Festkommazahlen mit SUB_BITS Nachkommabits.)
+	 *
+	 * @param v1X x-Koordinate des Geraden Punktes
+	 * @param v1Y y-Koordinate des Geraden Punktes
+	 * @param v2X x-Koordinate des zweiten Geraden Punktes
+	 * @param v2Y y-Koordinate des zweiten Geraden Punktes
+	 * @param pX x-Koordinate des Punktes, welcher bearbeitet werden soll
+	 * @param pY y-Koordinate des Punktes, welcher bearbeitet werden soll
+	 * @return returns gibt den Wert der Edge-Function zurck
+	 */
+	private static long edgeFunction(long v1X, long v1Y, long v2X, long v2Y, long pX, long pY) {
+		return (pY - v1Y) * (v2X - v1X) - (pX - v1X) * (v2Y - v1Y);
+	}
+
+	/**
+	 * Legt das RenHiZ fest, welches whrend der Rasterisierung aktualisiert wird.
+	 *
+	 * @param hiZ RenHiZ oder null, wenn kein Occlusion-Culling verwendet wird
+	 */
+	void setHiZ(RenHiZ hiZ) {
+		this.hiZ = hiZ;
+	}
+
+	/**
+	 * Legt den Coverage-Buffer fest. Ist dieser gesetzt, werden die Dreiecke ohne Depthtest nur in die noch
+	 * nicht berdeckten Pixel eingetragen (die Einstellungen fr die hierarchische Rasterisierung werden ignoriert).
+	 *
+	 * @param coverage		Masken der Zeilen (Index: y * tilesX + Kachel in x-Richtung) oder null
+	 * @param coveredRows	Anzahl der vollstndig berdeckten Zeilen jeder Kachel
+	 * @param tilesX		Anzahl der Kacheln (mit einer Breite von Integer.SIZE Pixeln) in x-Richtung
+	 */
+	void setCoverage(int[] coverage, int[] coveredRows, int tilesX) {
+		this.coverage = coverage;
+		this.coveredRows = coveredRows;
+		this.coverageTilesX = tilesX;
+	}
+
+	/**
+	 * Legt fest, in welchem Durchgang (PASS_NORMAL, PASS_DEPTH oder PASS_COLOR) die folgenden Dreiecke
+	 * rasterisiert werden.
+	 *
+	 * @param pass Durchgang
+	 */
+	void setPass(int pass) {
+		this.pass = pass;
+	}
+
+	void setHierarchical(boolean hierarchical) {
+		this.hierarchical = hierarchical;
+	}
+
+	long getBlocksAccepted() {
+		return blocksAccepted;
+	}
+
+	long getBlocksRejected() {
+		return blocksRejected;
+	}
+
+	long getBlocksPartial() {
+		return blocksPartial;
+	}
+
+	long getOccludedTileTris() {
+		return occludedTileTris;
+	}
+
+	long getPixelWrites() {
+		return pixelWrites;
+	}
+
+}
@@ -1,6 +1,11 @@
 package de.sebphil.renderer.objects;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.geometry.Point3D;
 
@@ -10,6 +15,14 @@ public class RenScene {
 	private RenCamera camera;
 	private ObservableList<RenShape> shapes;
 	private ObservableList<Point3D> lights;
+	// Bounding Volume Hierarchy ber alle Figuren (wird bei jeder nderung der Liste shapes angepasst)
+	private RenBvh bvh;
+	// fasst statische Figuren zu Batches zusammen, welche anstatt der Figuren in bvh enthalten sind
+	private RenStaticBatcher batcher;
+	// werden mit jeder Figur aufgerufen, welche nicht mehr selbst gerendert wird (siehe addRemoveListener)
+	private List<Consumer<RenShape>> removeListeners;
+	// Zhler, welcher bei jeder nderung der Lichtquellen oder des Umgebungslichtes erhht wird
+	private int lightVersion;
 
 	/**
 	 * Constructor fr eine RenScene.
@@ -23,6 +36,21 @@ public class RenScene {
 		this.camera = new RenCamera("camera");
 		this.shapes = FXCollections.observableArrayList();
 		this.lights = FXCollections.observableArrayList();
+		this.bvh = new RenBvh();
+		this.removeListeners = new ArrayList<Consumer<RenShape>>();
+		this.batcher = new RenStaticBatcher(bvh, shape -> {
+			for (Consumer<RenShape> listener : removeListeners)
+				listener.accept(shape);
+		});
+		this.shapes.addListener((ListChangeListener<RenShape>) change -> {
+			while (change.next()) {
+				for (RenShape shape : change.getRemoved())
+					batcher.remove(shape);
+				for (RenShape shape : change.getAddedSubList())
+					batcher.add(shape);
+			}
+		});
+		this.lights.addListener((ListChangeListener<Point3D>) change -> lightVersion++);
 	}
 
 	public double getAmbient() {
@@ -31,6 +59,7 @@ public class RenScene {
 
 	public void setAmbient(double ambient) {
 		this.ambient = ambient;
+		lightVersion++;
 	}
 
 	public RenCamera getCamera() {
@@ -49,4 +78,39 @@ public class RenScene {
 		return lights;
 	}
 
+	/**
+	 * Gibt die Bounding Volume Hierarchy ber alle Figuren dieser Szene zurck (siehe RenBvh#queryBox und
+	 * RenBvh#queryRay). Statische Figuren sind darin ber ihre Batches enthalten (siehe RenShape#setStatic).
+	 *
+	 * @return Bounding Volume Hierarchy
+	 */
+	public RenBvh getBvh() {
+		return bvh;
+	}
+
+	/**
+	 * @return Verteilung der Figuren auf die RenBvh und die Batches der statischen Figuren
+	 */
+	RenStaticBatcher getBatcher() {
+		return batcher;
+	}
+
+	/**
+	 * Fgt einen Listener hinzu, welcher mit jeder Figur aufgerufen wird, die nicht mehr selbst gerendert wird:
+	 * Figuren, welche aus der Liste shapes entfernt oder in einen Batch verschoben wurden, sowie Batches, welche
+	 * keine Figuren mehr enthalten. (Der SebRenderer verwirft damit die Eintrge seines RenGeometryCache.)
+	 *
+	 * @param listener	Listener
+	 */
+	void addRemoveListener(Consumer<RenShape> listener) {
+		removeListeners.add(listener);
+	}
+
+	/**
+	 * @return Zhler, welcher bei jeder nderung der Lichtquellen oder des Umgebungslichtes erhht wird
+	 */
+	public int getLightVersion() {
+		return lightVersion;
+	}
+
 }
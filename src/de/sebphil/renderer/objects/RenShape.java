@@ -3,19 +3,55 @@ package de.sebphil.renderer.objects;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.function.Consumer;
 
+import de.sebphil.renderer.math.Mat4;
+import de.sebphil.renderer.math.Vec3;
 import de.sebphil.renderer.util.RenUtilities;
 import javafx.geometry.Point3D;
 import javafx.scene.paint.Color;
 
 public class RenShape extends RenObject {
 
+	/*
+	 * Anzahl der Dreiecke eines Clusters (siehe getClusterStarts): Ein Cluster wird nach CLUSTER_MAX Dreiecken
+	 * beendet, oder (ab CLUSTER_MIN Dreiecken) wenn die Normale des nchsten Dreiecks um mehr als 60 Grad von der
+	 * mittleren Normale des Clusters abweicht (damit der Normalen-Kegel schmal bleibt).
+	 */
+	static final int CLUSTER_MIN = 64, CLUSTER_MAX = 128;
+	private static final double CLUSTER_CONE = 0.5;
+
 	private double maxX, maxY, maxZ, minX, minY, minZ;
-	private Point3D size, translation;
-	private Color color;
+	// Farbe als ARGB-Wert (siehe RenUtilities#toArgb)
+	private int color;
 	private List<RenTriangle> polys;
+	// Indiziertes Dreiecksnetz (siehe getVertices und getIndices)
+	private double[] vertices;
+	private float[] verticesF;
+	private int[] indices;
+	private List<RenTriangle> meshPolys;
+	// Zhler, welcher bei jeder nderung des Dreiecksnetzes oder der Liste der Dreiecke erhht wird
+	private int meshVersion;
+	// Flchen-Normalen im Object-Space und im World-Space (siehe getFaceNormals und getWorldNormals)
+	private double[] faceNormals, worldNormals;
+	// Abstnde der Ebenen aller Dreiecke (siehe getFaceDistances)
+	private double[] faceDistances;
+	// Bounding-Box des Dreiecksnetzes im Object-Space und Bounding-Volumes im World-Space (siehe getWorldBounds)
+	private double[] meshBounds, worldBounds;
+	private int worldBoundsVersion;
+	// Cluster des Dreiecksnetzes (siehe getClusterStarts und getClusterBounds)
+	private int[] clusterStarts;
+	private double[] clusterBounds;
+	// werden benachrichtigt, wenn sich die Bounding-Volumes im World-Space ndern (siehe addBoundsListener)
+	private List<Consumer<RenShape>> boundsListeners;
+	private int worldNormalsVersion;
+	// statische Figuren werden von der RenScene zu Batches zusammengefasst (siehe setStatic)
+	private boolean staticShape;
 
 	/**
 	 * Constructor fr ein RenShape.
@@ -27,10 +63,10 @@ public class RenShape extends RenObject {
 	 */
 	public RenShape(String name) {
 		super(name);
-		this.color = Color.WHITE;
+		this.color = 0xFFFFFFFF;
 		this.polys = new ArrayList<RenTriangle>();
-		this.translation = new Point3D(0, 0, 0);
-		this.size = new Point3D(1, 1, 1);
+		this.boundsListeners = new ArrayList<Consumer<RenShape>>();
+		getTransform().setChangeListener(this::boundsChanged);
 	}
 
 	/**
@@ -44,10 +80,10 @@ public class RenShape extends RenObject {
 	 */
 	public RenShape(String name, Color color) {
 		super(name);
-		this.color = color;
+		this.color = RenUtilities.toArgb(color);
 		this.polys = new ArrayList<RenTriangle>();
-		this.translation = new Point3D(0, 0, 0);
-		this.size = new Point3D(1, 1, 1);
+		this.boundsListeners = new ArrayList<Consumer<RenShape>>();
+		getTransform().setChangeListener(this::boundsChanged);
 	}
 
 	/**
@@ -68,6 +104,7 @@ public class RenShape extends RenObject {
 		copyShape.setSize(getSize());
 
 		copyShape.setPolys(getPolys());
+		copyShape.setStatic(isStatic());
 
 		copyShape.setMinX(getMinX());
 		copyShape.setMinY(getMinY());
@@ -93,6 +130,7 @@ public class RenShape extends RenObject {
 		 */
 		List<Point3D> vertices = new ArrayList<Point3D>();
 		List<RenTriangle> impPolys = new ArrayList<RenTriangle>();
+		List<Integer> impIndices = new ArrayList<Integer>();
 
 		try {
 			
@@ -127,6 +165,10 @@ public class RenShape extends RenObject {
 
 					impPolys.add(tri);
 					
+					// Die Indizes der Eckpunkte werden fr das indizierte Dreiecksnetz bernommen.
+					for (int i = 1; i <= 3; i++)
+						impIndices.add(Integer.valueOf(args[i]) - 1);
+					
 					//Aktualisiere die Maximalwerte des Objektes, wenn ntig.
 					for (int i = 0; i < 3; i++) {
 
@@ -156,63 +198,577 @@ public class RenShape extends RenObject {
 		}
 
 		//Fge alle importierten Dreiecke zu diesem RenShape hinzu.
+		boolean empty = this.polys.isEmpty();
+		
 		this.polys.addAll(impPolys);
+		
+		/*
+		 * Enthielt dieses RenShape noch keine Dreiecke, kann das indizierte Dreiecksnetz direkt aus der Datei
+		 * bernommen werden. Sonst wird es aus allen Dreiecken neu ermittelt.
+		 */
+		if (empty) {
+			
+			int[] indices = new int[impIndices.size()];
+			
+			for (int i = 0; i < indices.length; i++)
+				indices[i] = impIndices.get(i);
+			
+			setMesh(vertices, indices);
+			
+		} else {
+			updateMesh();
+		}
 	}
 	
 	/**
-	 * Generiert eine neue Skalierungsmatrix.
-	 * 
-	 * @param size	Skalierung
-	 * @return		Gibt eine neue Skalierungsmatrix mit der angegebenen Skalierung zurck
+	 * Ermittelt die Bounding-Box (minX bis maxZ) dieses Objektes neu aus den Eckpunkten aller Dreiecke.
+	 * (Sind keine Dreiecke vorhanden, werden alle Werte auf 0 gesetzt.)
 	 */
-	protected static double[][] generateSizeMat(Point3D size) {
-		double[][] sizeMat = new double[4][4];
-		sizeMat[0][0] = size.getX();
-		sizeMat[1][1] = size.getY();
-		sizeMat[2][2] = size.getZ();
-		sizeMat[3][3] = 1.0;
-		return sizeMat;
+	public void updateBounds() {
+
+		minX = minY = minZ = Double.MAX_VALUE;
+		maxX = maxY = maxZ = -Double.MAX_VALUE;
+
+		for (RenTriangle tri : polys) {
+			for (Point3D v : tri.getVert()) {
+
+				minX = Math.min(minX, v.getX());
+				minY = Math.min(minY, v.getY());
+				minZ = Math.min(minZ, v.getZ());
+
+				maxX = Math.max(maxX, v.getX());
+				maxY = Math.max(maxY, v.getY());
+				maxZ = Math.max(maxZ, v.getZ());
+			}
+		}
+
+		if (polys.isEmpty())
+			minX = minY = minZ = maxX = maxY = maxZ = 0;
 	}
 
 	/**
-	 * Generiert eine neue Translationsmatrix.
-	 * 
-	 * @param translation	Translation
-	 * @return				Gibt eine neue Trabslationsmatrix zurck mit der angegebenen Translation
+	 * Ermittelt das indizierte Dreiecksnetz (siehe getVertices und getIndices) neu aus den Dreiecken.
+	 * Eckpunkte mit denselben Koordinaten werden dabei zu einem Eckpunkt zusammengefasst.
+	 * Diese Funktion muss aufgerufen werden, nachdem die Eckpunkte der Dreiecke verndert wurden, ohne dass sich
+	 * die Anzahl der Dreiecke gendert hat.
+	 */
+	public void updateMesh() {
+
+		Map<Point3D, Integer> vertexIndices = new HashMap<Point3D, Integer>();
+		List<Point3D> meshVertices = new ArrayList<Point3D>();
+		int[] indices = new int[polys.size() * 3];
+
+		for (int t = 0; t < polys.size(); t++) {
+
+			Point3D[] vert = polys.get(t).getVert();
+
+			for (int i = 0; i < 3; i++) {
+
+				Integer index = vertexIndices.get(vert[i]);
+
+				if (index == null) {
+					index = meshVertices.size();
+					vertexIndices.put(vert[i], index);
+					meshVertices.add(vert[i]);
+				}
+
+				indices[t * 3 + i] = index;
+			}
+		}
+
+		setMesh(meshVertices, indices);
+	}
+
+	/**
+	 * Legt das indizierte Dreiecksnetz fest (gehrt zu der aktuellen Liste der Dreiecke), siehe setMesh(double[], int[]).
+	 *
+	 * @param meshVertices	Eckpunkte des Dreiecksnetzes
+	 * @param indices		Indizes der Eckpunkte aller Dreiecke (drei pro Dreieck)
 	 */
-	protected static double[][] generateTransMat(Point3D translation) {
-		double[][] transMat = new double[4][4];
-		transMat[0][0] = 1.0;
-		transMat[1][1] = 1.0;
-		transMat[2][2] = 1.0;
-		transMat[3][3] = 1.0;
-		transMat[3][0] = translation.getX();
-		transMat[3][1] = translation.getY();
-		transMat[3][2] = translation.getZ();
-		return transMat;
+	private void setMesh(List<Point3D> meshVertices, int[] indices) {
+
+		double[] vertices = new double[meshVertices.size() * 3];
+
+		for (int i = 0; i < meshVertices.size(); i++) {
+			vertices[i * 3] = meshVertices.get(i).getX();
+			vertices[i * 3 + 1] = meshVertices.get(i).getY();
+			vertices[i * 3 + 2] = meshVertices.get(i).getZ();
+		}
+
+		setMesh(vertices, indices);
 	}
 
 	/**
-	 * Generiert eine neue "Welt"-Matrix (Worldmatrix / Modelmatrix)
-	 * 
-	 * @param shape	RenShape, von welchem die "Welt"-Matrix erstellt werden soll
-	 * @return		Gibt die "Welt"-Matrix des angegebenen RenShape zurck.
+	 * Ersetzt die Liste der Dreiecke und legt das dazugehrige indizierte Dreiecksnetz fest, ohne es aus den
+	 * Eckpunkten der Dreiecke zu ermitteln (wird von RenStaticBatch verwendet, dessen Dreiecksnetz bereits im
+	 * World-Space liegt).
+	 *
+	 * @param polys		Dreiecke (in der Reihenfolge der Indizes)
+	 * @param vertices	Eckpunkte des Dreiecksnetzes (x, y, z pro Eckpunkt)
+	 * @param indices	Indizes der Eckpunkte aller Dreiecke (drei pro Dreieck)
 	 */
-	protected static double[][] generateWorldMat(RenShape shape) {
-		
-		double[][] worldMat = RenUtilities.multMatMat(RenShape.generateTransMat(shape.getTranslation()), shape.getRotXMat());
-		worldMat = RenUtilities.multMatMat(worldMat, shape.getRotYMat());
-		worldMat = RenUtilities.multMatMat(worldMat, shape.getRotZMat());
-		worldMat = RenUtilities.multMatMat(RenShape.generateSizeMat(shape.getSize()), worldMat);
-		
-		return worldMat;
+	void setMesh(List<RenTriangle> polys, double[] vertices, int[] indices) {
+		this.polys = polys;
+		setMesh(vertices, indices);
+	}
+
+	/**
+	 * Legt das indizierte Dreiecksnetz fest (gehrt zu der aktuellen Liste der Dreiecke) und errechnet die
+	 * Flchen-Normalen und Ebenen aller Dreiecke, die Bounding-Box des Dreiecksnetzes sowie dessen Cluster.
+	 *
+	 * @param vertices	Eckpunkte des Dreiecksnetzes (x, y, z pro Eckpunkt)
+	 * @param indices	Indizes der Eckpunkte aller Dreiecke (drei pro Dreieck)
+	 */
+	private void setMesh(double[] vertices, int[] indices) {
+
+		double[] meshBounds = new double[6];
+
+		for (int i = 0; i < vertices.length; i++) {
+			meshBounds[i % 3] = i < 3 ? vertices[i] : Math.min(meshBounds[i % 3], vertices[i]);
+			meshBounds[i % 3 + 3] = i < 3 ? vertices[i] : Math.max(meshBounds[i % 3 + 3], vertices[i]);
+		}
+
+		// Normale eines Dreiecks: normiertes Kreuzprodukt (v2 - v1) x (v3 - v1)
+		double[] faceNormals = new double[indices.length];
+		double[] faceDistances = new double[indices.length / 3];
+
+		for (int n = 0; n < indices.length; n += 3) {
+
+			int i0 = indices[n] * 3, i1 = indices[n + 1] * 3, i2 = indices[n + 2] * 3;
+
+			double e1x = vertices[i1] - vertices[i0];
+			double e1y = vertices[i1 + 1] - vertices[i0 + 1];
+			double e1z = vertices[i1 + 2] - vertices[i0 + 2];
+			double e2x = vertices[i2] - vertices[i0];
+			double e2y = vertices[i2 + 1] - vertices[i0 + 1];
+			double e2z = vertices[i2 + 2] - vertices[i0 + 2];
+
+			Vec3.set(e1y * e2z - e1z * e2y, e1z * e2x - e1x * e2z, e1x * e2y - e1y * e2x, faceNormals, n);
+			Vec3.normalize(faceNormals, n);
+			
+			faceDistances[n / 3] = Vec3.dot(faceNormals, n, vertices, i0);
+		}
+
+		this.vertices = vertices;
+		this.verticesF = null;
+		this.indices = indices;
+		this.faceNormals = faceNormals;
+		this.faceDistances = faceDistances;
+		this.meshBounds = meshBounds;
+		buildClusters(vertices, indices, faceNormals);
+		this.worldNormals = null;
+		this.worldBounds = null;
+		this.meshPolys = polys;
+		this.meshVersion++;
+
+		boundsChanged();
+	}
+
+	/**
+	 * Teilt die Dreiecke des Dreiecksnetzes (in ihrer Reihenfolge) in Cluster von CLUSTER_MIN bis CLUSTER_MAX
+	 * Dreiecken und errechnet fr jedes Cluster eine Bounding-Kugel und einen Normalen-Kegel.
+	 *
+	 * @param vertices		Eckpunkte des Dreiecksnetzes
+	 * @param indices		Indizes der Eckpunkte aller Dreiecke
+	 * @param faceNormals	Flchen-Normalen aller Dreiecke
+	 */
+	private void buildClusters(double[] vertices, int[] indices, double[] faceNormals) {
+
+		int triCount = indices.length / 3;
+		int[] starts = new int[triCount / CLUSTER_MIN + 2];
+		int clusters = 0;
+
+		// Summe der Normalen des aktuellen Clusters
+		double sumX = 0, sumY = 0, sumZ = 0;
+		int start = 0;
+
+		for (int t = 0; t < triCount; t++) {
+
+			int size = t - start;
+			double nx = faceNormals[t * 3], ny = faceNormals[t * 3 + 1], nz = faceNormals[t * 3 + 2];
+
+			if (size == CLUSTER_MAX || size >= CLUSTER_MIN
+					&& nx * sumX + ny * sumY + nz * sumZ < CLUSTER_CONE * Math.sqrt(sumX * sumX + sumY * sumY + sumZ * sumZ)) {
+
+				starts[clusters++] = start;
+				start = t;
+				sumX = sumY = sumZ = 0;
+			}
+
+			sumX += nx;
+			sumY += ny;
+			sumZ += nz;
+		}
+
+		if (triCount > 0)
+			starts[clusters++] = start;
+
+		starts[clusters] = triCount;
+
+		double[] bounds = new double[clusters * 8];
+
+		for (int c = 0; c < clusters; c++) {
+
+			int first = starts[c], last = starts[c + 1];
+			int off = c * 8;
+
+			// Bounding-Kugel: Mittelpunkt der Bounding-Box, Radius bis zu dem entferntesten Eckpunkt
+			double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, minZ = Double.MAX_VALUE;
+			double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE, maxZ = -Double.MAX_VALUE;
+
+			for (int i = first * 3; i < last * 3; i++) {
+
+				int v = indices[i] * 3;
+
+				minX = Math.min(minX, vertices[v]);
+				minY = Math.min(minY, vertices[v + 1]);
+				minZ = Math.min(minZ, vertices[v + 2]);
+				maxX = Math.max(maxX, vertices[v]);
+				maxY = Math.max(maxY, vertices[v + 1]);
+				maxZ = Math.max(maxZ, vertices[v + 2]);
+			}
+
+			double cx = (minX + maxX) / 2, cy = (minY + maxY) / 2, cz = (minZ + maxZ) / 2;
+			double radius = 0;
+
+			for (int i = first * 3; i < last * 3; i++) {
+
+				int v = indices[i] * 3;
+				double dx = vertices[v] - cx, dy = vertices[v + 1] - cy, dz = vertices[v + 2] - cz;
+
+				radius = Math.max(radius, Math.sqrt(dx * dx + dy * dy + dz * dz));
+			}
+
+			Vec3.set(cx, cy, cz, bounds, off);
+			bounds[off + 3] = radius;
+
+			/*
+			 * Normalen-Kegel: Achse ist die normierte Summe der Normalen, der halbe ffnungswinkel a der grte
+			 * Winkel zwischen der Achse und einer Normale. Gespeichert wird cos(a). Ist a 90 Grad oder grer (oder
+			 * sind alle Dreiecke entartet), wird 0 gespeichert, sodass das Cluster nie als Rckseite erkannt wird.
+			 */
+			double ax = 0, ay = 0, az = 0;
+
+			for (int t = first; t < last; t++) {
+				ax += faceNormals[t * 3];
+				ay += faceNormals[t * 3 + 1];
+				az += faceNormals[t * 3 + 2];
+			}
+
+			Vec3.set(ax, ay, az, bounds, off + 4);
+			Vec3.normalize(bounds, off + 4);
+
+			double minDot = Vec3.dot(bounds, off + 4, bounds, off + 4) == 0 ? 0 : 1;
+
+			for (int t = first; t < last; t++)
+				if (Vec3.dot(faceNormals, t * 3, faceNormals, t * 3) != 0)
+					minDot = Math.min(minDot, Vec3.dot(faceNormals, t * 3, bounds, off + 4));
+
+			bounds[off + 7] = Math.max(minDot, 0);
+		}
+
+		this.clusterStarts = Arrays.copyOf(starts, clusters + 1);
+		this.clusterBounds = bounds;
+	}
+
+	/**
+	 * berprft, ob das indizierte Dreiecksnetz noch zu den Dreiecken gehrt, und ermittelt es sonst neu.
+	 * (Dies ist der Fall, wenn die Liste der Dreiecke ersetzt wurde oder sich deren Anzahl gendert hat.)
+	 */
+	void validateMesh() {
+		if (indices == null || meshPolys != polys || indices.length != polys.size() * 3)
+			updateMesh();
+	}
+
+	/**
+	 * Gibt die Eckpunkte des indizierten Dreiecksnetzes (im Object-Space) als fortlaufendes Array zurck
+	 * (x, y, z pro Eckpunkt). Jeder Eckpunkt ist nur einmal enthalten, auch wenn er zu mehreren Dreiecken gehrt.
+	 *
+	 * @return Eckpunkte des Dreiecksnetzes (darf nicht verndert werden)
+	 */
+	public double[] getVertices() {
+
+		validateMesh();
+
+		return vertices;
+	}
+
+	/**
+	 * Gibt die Eckpunkte des indizierten Dreiecksnetzes wie getVertices zurck, allerdings als float
+	 * (siehe RenPrecision.SINGLE). Das Array wird erst beim ersten Aufruf erstellt.
+	 *
+	 * @return Eckpunkte des Dreiecksnetzes (darf nicht verndert werden)
+	 */
+	public float[] getVerticesF() {
+
+		validateMesh();
+
+		if (verticesF == null) {
+
+			verticesF = new float[vertices.length];
+
+			for (int i = 0; i < vertices.length; i++)
+				verticesF[i] = (float) vertices[i];
+		}
+
+		return verticesF;
+	}
+
+	/**
+	 * Gibt die Indizes der Eckpunkte (siehe getVertices) aller Dreiecke zurck: Der i-te Eckpunkt des t-ten
+	 * Dreiecks (in der Reihenfolge von getPolys) ist der Eckpunkt indices[t * 3 + i].
+	 *
+	 * @return Indizes der Eckpunkte (darf nicht verndert werden)
+	 */
+	public int[] getIndices() {
+
+		validateMesh();
+
+		return indices;
+	}
+
+	/**
+	 * Gibt die Flchen-Normalen aller Dreiecke (im Object-Space, normiert) als fortlaufendes Array zurck
+	 * (x, y, z pro Dreieck in der Reihenfolge von getPolys). Die Normalen werden einmalig mit dem Dreiecksnetz
+	 * errechnet. (Fr entartete Dreiecke ist die Normale (0, 0, 0).)
+	 *
+	 * @return Flchen-Normalen (darf nicht verndert werden)
+	 */
+	public double[] getFaceNormals() {
+
+		validateMesh();
+
+		return faceNormals;
+	}
+
+	/**
+	 * Gibt die Abstnde der Ebenen aller Dreiecke (im Object-Space) zum Ursprung zurck: Die Ebene des t-ten
+	 * Dreiecks enthlt alle Punkte p mit n * p = distances[t], wobei n dessen Flchen-Normale ist
+	 * (siehe getFaceNormals). Ein Punkt p liegt vor dem Dreieck, wenn n * p - distances[t] > 0 ist.
+	 *
+	 * @return Abstnde der Ebenen (darf nicht verndert werden)
+	 */
+	public double[] getFaceDistances() {
+
+		validateMesh();
+
+		return faceDistances;
+	}
+
+	/**
+	 * Gibt die Cluster (Meshlets) des Dreiecksnetzes zurck: Das c-te Cluster enthlt die Dreiecke starts[c]
+	 * (einschlielich) bis starts[c + 1] (ausschlielich) in der Reihenfolge von getPolys. Die Cluster werden
+	 * einmalig mit dem Dreiecksnetz erstellt und ermglichen es, Teile einer groen Figur zu verwerfen
+	 * (siehe getClusterBounds).
+	 *
+	 * @return Index des ersten Dreiecks jedes Clusters, gefolgt von der Anzahl der Dreiecke (darf nicht verndert
+	 *         werden)
+	 */
+	public int[] getClusterStarts() {
+
+		validateMesh();
+
+		return clusterStarts;
+	}
+
+	/**
+	 * Gibt die Bounding-Volumes aller Cluster (siehe getClusterStarts) im Object-Space zurck, 8 Werte pro Cluster:
+	 * <ul>
+	 * <li>Bounding-Kugel (Mittelpunkt x, y, z und Radius)
+	 * <li>Normalen-Kegel (normierte Achse x, y, z und der Kosinus seines halben ffnungswinkels, 0 wenn kein Kegel
+	 * existiert). Die Normalen aller Dreiecke des Clusters liegen innerhalb des Kegels. Liegt die Kugel
+	 * (von der Kamera aus gesehen) weit genug in Richtung der Achse, so sind alle Dreiecke Rckseiten.
+	 * </ul>
+	 *
+	 * @return Bounding-Volumes der Cluster (darf nicht verndert werden)
+	 */
+	public double[] getClusterBounds() {
+
+		validateMesh();
+
+		return clusterBounds;
+	}
+
+	/**
+	 * Gibt einen Zhler zurck, welcher bei jeder nderung des Dreiecksnetzes (siehe updateMesh) oder der Liste der
+	 * Dreiecke (siehe setPolys) erhht wird. nderungen der Eckpunkte einzelner Dreiecke werden erst mit updateMesh
+	 * bernommen.
+	 *
+	 * @return Version des Dreiecksnetzes
+	 */
+	public int getMeshVersion() {
+
+		validateMesh();
+
+		return meshVersion;
+	}
+
+	/**
+	 * Gibt die achsenparallele Bounding-Box des Dreiecksnetzes im Object-Space zurck (minX, minY, minZ, maxX, maxY,
+	 * maxZ). Im Gegensatz zu minX bis maxZ wird sie stets aus den Eckpunkten des Dreiecksnetzes ermittelt.
+	 *
+	 * @return Bounding-Box im Object-Space (darf nicht verndert werden)
+	 */
+	public double[] getMeshBounds() {
+
+		validateMesh();
+
+		return meshBounds;
+	}
+
+	/**
+	 * Gibt die Flchen-Normalen aller Dreiecke im World-Space (normiert) wie getFaceNormals zurck.
+	 * Die Normalen werden nur nach einer nderung der Rotation oder Skalierung (oder des Dreiecksnetzes) mit der
+	 * Normalenmatrix (siehe RenTransform#getNormalMat) neu transformiert, fr Objekte, welche nur verschoben
+	 * werden, entfllt die Berechnung.
+	 *
+	 * @return Flchen-Normalen im World-Space (darf nicht verndert werden)
+	 */
+	public double[] getWorldNormals() {
+
+		validateMesh();
+
+		RenTransform transform = getTransform();
+
+		if (worldNormals == null || worldNormalsVersion != transform.getNormalVersion()) {
+
+			double[] normalMat = transform.getNormalMat();
+
+			if (worldNormals == null)
+				worldNormals = new double[faceNormals.length];
+
+			for (int n = 0; n < faceNormals.length; n += 3) {
+				Mat4.transformDir(normalMat, faceNormals[n], faceNormals[n + 1], faceNormals[n + 2], worldNormals, n);
+				Vec3.normalize(worldNormals, n);
+			}
+
+			worldNormalsVersion = transform.getNormalVersion();
+		}
+
+		return worldNormals;
+	}
+
+	/**
+	 * Gibt die Bounding-Volumes des Dreiecksnetzes im World-Space zurck:
+	 * <ul>
+	 * <li>[0] bis [5]: achsenparallele Bounding-Box (minX, minY, minZ, maxX, maxY, maxZ), welche die transformierte
+	 * Bounding-Box des Object-Space umschliet
+	 * <li>[6] bis [9]: Bounding-Kugel (Mittelpunkt x, y, z und Radius)
+	 * </ul>
+	 * Im Gegensatz zu minX bis maxZ werden die Werte stets aus den Eckpunkten des Dreiecksnetzes ermittelt. Sie
+	 * werden nur nach einer nderung der Transformation (oder des Dreiecksnetzes) neu errechnet.
+	 *
+	 * @return Bounding-Volumes im World-Space (darf nicht verndert werden)
+	 */
+	public double[] getWorldBounds() {
+
+		validateMesh();
+
+		RenTransform transform = getTransform();
+
+		if (worldBounds == null || worldBoundsVersion != transform.getVersion()) {
+
+			double[] m = transform.getWorldMat();
+
+			if (worldBounds == null)
+				worldBounds = new double[10];
+
+			// Mittelpunkt und halbe Kantenlngen der Box im Object-Space
+			double ex = (meshBounds[3] - meshBounds[0]) / 2;
+			double ey = (meshBounds[4] - meshBounds[1]) / 2;
+			double ez = (meshBounds[5] - meshBounds[2]) / 2;
+
+			Mat4.transformPoint(m, meshBounds[0] + ex, meshBounds[1] + ey, meshBounds[2] + ez, worldBounds, 6);
+
+			// halbe Kantenlngen der Box im World-Space und grte Skalierung der Worldmatrix
+			double scale = 0;
+
+			for (int i = 0; i < 3; i++) {
+
+				double extent = Math.abs(ex * m[i]) + Math.abs(ey * m[4 + i]) + Math.abs(ez * m[8 + i]);
+
+				worldBounds[i] = worldBounds[6 + i] - extent;
+				worldBounds[3 + i] = worldBounds[6 + i] + extent;
+
+				scale = Math.max(scale, Math.sqrt(m[i * 4] * m[i * 4] + m[i * 4 + 1] * m[i * 4 + 1]
+						+ m[i * 4 + 2] * m[i * 4 + 2]));
+			}
+
+			worldBounds[9] = Math.sqrt(ex * ex + ey * ey + ez * ez) * scale;
+			worldBoundsVersion = transform.getVersion();
+		}
+
+		return worldBounds;
+	}
+
+	/**
+	 * Fgt einen Listener hinzu, welcher benachrichtigt wird, wenn sich die Bounding-Volumes dieser Figur im
+	 * World-Space (siehe getWorldBounds) ndern knnten, also nach jeder nderung der Transformation, des
+	 * Dreiecksnetzes oder der Liste der Dreiecke, sowie wenn die Figur statisch wird oder es nicht mehr ist (siehe
+	 * setStatic). (Wird von der RenBvh und den Batches einer RenScene verwendet.)
+	 *
+	 * @param listener	Listener, welcher diese Figur erhlt
+	 */
+	public void addBoundsListener(Consumer<RenShape> listener) {
+		boundsListeners.add(listener);
+	}
+
+	/**
+	 * Entfernt einen Listener (siehe addBoundsListener).
+	 *
+	 * @param listener	Listener
+	 */
+	public void removeBoundsListener(Consumer<RenShape> listener) {
+		boundsListeners.remove(listener);
+	}
+
+	/**
+	 * Benachrichtigt alle Listener (siehe addBoundsListener).
+	 */
+	void boundsChanged() {
+		for (int i = 0; i < boundsListeners.size(); i++)
+			boundsListeners.get(i).accept(this);
 	}
 
 	public void setSize(Point3D size) {
-		this.size = size;
+		getTransform().setSize(size);
+	}
+
+	/**
+	 * @return true, wenn diese Figur statisch ist (siehe setStatic)
+	 */
+	public boolean isStatic() {
+		return staticShape;
+	}
+
+	/**
+	 * Legt fest, ob diese Figur statisch ist, sich also (fast) nie bewegt oder verndert. Statische Figuren einer
+	 * RenScene werden mit rumlich benachbarten statischen Figuren zu einem Batch zusammengefasst, dessen
+	 * Dreiecksnetz bereits im World-Space liegt (siehe RenStaticBatch). Der SebRenderer bearbeitet dann nur noch
+	 * den Batch als eine Figur, sodass fr die einzelnen statischen Figuren keine Kosten pro Frame entstehen.
+	 * Statische Figuren drfen verndert werden, dabei wird jedoch jedes Mal ihr gesamter Batch neu erstellt.
+	 * Farben knnen ohne Neuerstellung gendert werden (die Dreiecke werden nicht kopiert). Wird die Liste der
+	 * Dreiecke einer statischen Figur direkt verndert, muss anschlieend updateMesh aufgerufen werden.
+	 *
+	 * @param staticShape	true, wenn die Figur statisch ist
+	 */
+	public void setStatic(boolean staticShape) {
+
+		if (this.staticShape == staticShape)
+			return;
+
+		this.staticShape = staticShape;
+		boundsChanged();
 	}
 
 	public Color getColor() {
+		return RenUtilities.toColor(color);
+	}
+
+	/**
+	 * @return Farbe dieses Objektes als ARGB-Wert (siehe RenUtilities#toArgb)
+	 */
+	public int getArgb() {
 		return color;
 	}
 	
@@ -223,9 +779,9 @@ public class RenShape extends RenObject {
 	 * @param color Farbe
 	 */
 	public void setColor(Color color) {
-		this.color = color;
+		this.color = RenUtilities.toArgb(color);
 		for (RenTriangle tri : getPolys()) {
-			tri.setColor(color);
+			tri.setArgb(this.color);
 		}
 	}
 
@@ -235,6 +791,8 @@ public class RenShape extends RenObject {
 
 	public void setPolys(List<RenTriangle> polys) {
 		this.polys = polys;
+		this.meshVersion++;
+		boundsChanged();
 	}
 
 	public double getMaxX() {
@@ -262,15 +820,15 @@ public class RenShape extends RenObject {
 	}
 
 	public Point3D getSize() {
-		return size;
+		return getTransform().getSize();
 	}
 
 	public Point3D getTranslation() {
-		return translation;
+		return getTransform().getTranslation();
 	}
 
 	public void setTranslation(Point3D translation) {
-		this.translation = translation;
+		getTransform().setTranslation(translation);
 	}
 
 	public void setMaxX(double maxX) {
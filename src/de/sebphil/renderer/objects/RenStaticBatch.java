@@ -0,0 +1,153 @@
+package de.sebphil.renderer.objects;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import de.sebphil.renderer.math.Mat4;
+
+class RenStaticBatch extends RenShape {
+
+	// Figuren, deren Dreiecke dieser Batch enthlt
+	private List<RenShape> members;
+	// Anzahl der Dreiecke jeder Figur (zum Zeitpunkt ihres Hinzufgens bzw. der letzten Erstellung)
+	private List<Integer> memberTriangles;
+	private Consumer<RenShape> memberListener;
+	// Anzahl der Dreiecke aller Figuren (zum Zeitpunkt ihres Hinzufgens bzw. der letzten Erstellung)
+	private int triangles;
+	// true, wenn das Dreiecksnetz bei dem nchsten Zugriff neu erstellt werden muss
+	private boolean dirty;
+	// Zelle, zu welcher der Batch gehrt (siehe RenStaticBatcher)
+	private long cell;
+
+	/**
+	 * Constructor fr einen RenStaticBatch.
+	 *
+	 * Diese Klasse fasst statische Figuren (siehe RenShape#setStatic) zu einer Figur zusammen, deren Dreiecksnetz
+	 * die Eckpunkte aller Figuren bereits im World-Space enthlt (die eigene Transformation ist die Einheitsmatrix).
+	 * Die Liste der Dreiecke besteht aus den Dreiecken der Figuren selbst, sodass nderungen ihrer Farben sofort
+	 * bernommen werden. ndert sich die Transformation oder das Dreiecksnetz einer Figur, wird das Dreiecksnetz
+	 * erst bei dem nchsten Zugriff (z.B. durch die RenBvh) neu erstellt.
+	 *
+	 * @param cell	Zelle, zu welcher der Batch gehrt (siehe RenStaticBatcher)
+	 */
+	RenStaticBatch(long cell) {
+		super("staticBatch");
+		this.members = new ArrayList<RenShape>();
+		this.memberTriangles = new ArrayList<Integer>();
+		this.memberListener = member -> invalidate();
+		this.dirty = true;
+		this.cell = cell;
+	}
+
+	/**
+	 * Fgt eine Figur hinzu.
+	 *
+	 * @param member	statische Figur
+	 */
+	void add(RenShape member) {
+		int count = member.getPolys().size();
+
+		members.add(member);
+		memberTriangles.add(count);
+		member.addBoundsListener(memberListener);
+		triangles += count;
+		invalidate();
+	}
+
+	/**
+	 * Entfernt eine Figur.
+	 *
+	 * @param member	Figur
+	 */
+	void remove(RenShape member) {
+		int index = members.indexOf(member);
+
+		if (index < 0)
+			return;
+
+		members.remove(index);
+		member.removeBoundsListener(memberListener);
+		// Die Figur kann seit ihrem Hinzufgen Dreiecke verloren oder gewonnen haben.
+		triangles -= memberTriangles.remove(index);
+		invalidate();
+	}
+
+	/**
+	 * Markiert das Dreiecksnetz als veraltet und benachrichtigt (einmalig bis zur Neuerstellung) alle Listener.
+	 */
+	private void invalidate() {
+
+		if (dirty)
+			return;
+
+		dirty = true;
+		boundsChanged();
+	}
+
+	/**
+	 * Erstellt das Dreiecksnetz neu, falls sich eine Figur gendert hat.
+	 */
+	@Override
+	void validateMesh() {
+
+		if (!dirty)
+			return;
+
+		int vertexCount = 0, indexCount = 0;
+
+		for (RenShape member : members) {
+			vertexCount += member.getVertices().length;
+			indexCount += member.getIndices().length;
+		}
+
+		List<RenTriangle> polys = new ArrayList<RenTriangle>(indexCount / 3);
+		double[] vertices = new double[vertexCount];
+		int[] indices = new int[indexCount];
+		int vertexOff = 0, indexOff = 0;
+
+		for (int m = 0; m < members.size(); m++) {
+
+			RenShape member = members.get(m);
+			double[] memberVertices = member.getVertices();
+			int[] memberIndices = member.getIndices();
+			double[] worldMat = member.getTransform().getWorldMat();
+
+			for (int i = 0; i < memberVertices.length; i += 3)
+				Mat4.transformPoint(worldMat, memberVertices[i], memberVertices[i + 1], memberVertices[i + 2],
+						vertices, vertexOff + i);
+
+			for (int i = 0; i < memberIndices.length; i++)
+				indices[indexOff + i] = memberIndices[i] + vertexOff / 3;
+
+			polys.addAll(member.getPolys());
+			memberTriangles.set(m, member.getPolys().size());
+			vertexOff += memberVertices.length;
+			indexOff += memberIndices.length;
+		}
+
+		// nderungen der Figuren whrend der Erstellung (z.B. durch getVertices) sind bereits enthalten.
+		dirty = false;
+		triangles = polys.size();
+		setMesh(polys, vertices, indices);
+	}
+
+	/**
+	 * @return Figuren, deren Dreiecke dieser Batch enthlt
+	 */
+	List<RenShape> getMembers() {
+		return members;
+	}
+
+	/**
+	 * @return Anzahl der Dreiecke aller Figuren
+	 */
+	int getTriangles() {
+		return triangles;
+	}
+
+	long getCell() {
+		return cell;
+	}
+
+}
@@ -0,0 +1,255 @@
+package de.sebphil.renderer.objects;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import de.sebphil.renderer.math.Mat4;
+
+class RenStaticBatcher {
+
+	// Kantenlnge der Zellen, nach welchen statische Figuren zu Batches zusammengefasst werden (im World-Space)
+	static final double CELL_SIZE = 16;
+	// Anzahl der Dreiecke, ab welcher in einer Zelle ein weiterer Batch begonnen wird
+	static final int MAX_TRIANGLES = 1 << 16;
+
+	private RenBvh bvh;
+	// Anzahl, wie oft jede Figur der Szene hinzugefgt wurde
+	private Map<RenShape, Integer> counts;
+	// Batch jeder zusammengefassten Figur
+	private Map<RenShape, RenStaticBatch> batches;
+	// Batches jeder Zelle (der letzte Batch einer Zelle nimmt neue Figuren auf)
+	private Map<Long, List<RenStaticBatch>> cells;
+	// Figuren, welche seit dem letzten Aufruf von update statisch wurden bzw. es nicht mehr sind
+	private Set<RenShape> pending;
+	private Consumer<RenShape> shapeListener;
+	// wird aufgerufen, wenn eine Figur (oder ein Batch) aus der RenBvh entfernt wurde
+	private Consumer<RenShape> removeListener;
+
+	/**
+	 * Constructor fr einen RenStaticBatcher.
+	 *
+	 * Diese Klasse verteilt die Figuren einer RenScene: Nicht statische Figuren werden direkt in die RenBvh der
+	 * Szene eingefgt. Statische Figuren (siehe RenShape#setStatic) werden nach dem Mittelpunkt ihrer Bounding-Box
+	 * einer Zelle mit der Kantenlnge CELL_SIZE zugeordnet und mit den brigen Figuren dieser Zelle zu einem
+	 * RenStaticBatch (mit hchstens etwa MAX_TRIANGLES Dreiecken) zusammengefasst, welcher anstatt der Figuren in
+	 * die RenBvh eingefgt wird. Eine Figur bleibt in ihrem Batch, auch wenn sie spter verschoben wird.
+	 *
+	 * Figuren, deren Worldmatrix spiegelt (negative Determinante), werden nicht zusammengefasst, da sich die
+	 * Richtung ihrer Dreiecke im World-Space umkehrt.
+	 *
+	 * @param bvh				RenBvh der Szene
+	 * @param removeListener	wird mit jeder Figur (bzw. jedem Batch) aufgerufen, welche aus der RenBvh entfernt
+	 * 							wurde und deshalb nicht mehr selbst gerendert wird
+	 */
+	RenStaticBatcher(RenBvh bvh, Consumer<RenShape> removeListener) {
+		this.bvh = bvh;
+		this.removeListener = removeListener;
+		this.counts = new IdentityHashMap<RenShape, Integer>();
+		this.batches = new IdentityHashMap<RenShape, RenStaticBatch>();
+		this.cells = new LinkedHashMap<Long, List<RenStaticBatch>>();
+		this.pending = Collections.newSetFromMap(new IdentityHashMap<RenShape, Boolean>());
+		this.shapeListener = shape -> {
+			if (isBatchable(shape) != batches.containsKey(shape))
+				pending.add(shape);
+		};
+	}
+
+	/**
+	 * Fgt eine Figur der Szene hinzu. (Ist die Figur bereits enthalten, wird nur gezhlt, wie oft sie hinzugefgt
+	 * wurde.)
+	 *
+	 * @param shape	Figur
+	 */
+	void add(RenShape shape) {
+
+		Integer count = counts.get(shape);
+
+		counts.put(shape, count == null ? 1 : count + 1);
+
+		if (count != null)
+			return;
+
+		shape.addBoundsListener(shapeListener);
+
+		if (isBatchable(shape))
+			addMember(shape);
+		else
+			bvh.insert(shape);
+	}
+
+	/**
+	 * Entfernt eine Figur der Szene. (Wurde die Figur mehrfach hinzugefgt, wird sie erst beim letzten Entfernen
+	 * entfernt.)
+	 *
+	 * @param shape	Figur
+	 */
+	void remove(RenShape shape) {
+
+		Integer count = counts.get(shape);
+
+		if (count == null)
+			return;
+
+		if (count > 1) {
+			counts.put(shape, count - 1);
+			return;
+		}
+
+		counts.remove(shape);
+		pending.remove(shape);
+		shape.removeBoundsListener(shapeListener);
+
+		if (batches.containsKey(shape))
+			removeMember(shape);
+		else
+			removeFromBvh(shape);
+	}
+
+	/**
+	 * Verschiebt alle Figuren, welche seit dem letzten Aufruf statisch wurden (bzw. es nicht mehr sind), in einen
+	 * Batch bzw. in die RenBvh. Diese Funktion wird von dem SebRenderer vor jedem Frame aufgerufen. (Die Batches
+	 * selbst werden erst bei dem nchsten Zugriff auf ihr Dreiecksnetz neu erstellt.)
+	 */
+	void update() {
+
+		if (pending.isEmpty())
+			return;
+
+		List<RenShape> shapes = new ArrayList<RenShape>(pending);
+		pending.clear();
+
+		for (RenShape shape : shapes) {
+
+			boolean batchable = isBatchable(shape);
+
+			if (batchable == batches.containsKey(shape))
+				continue;
+
+			if (batchable) {
+				removeFromBvh(shape);
+				addMember(shape);
+			} else {
+				removeMember(shape);
+				bvh.insert(shape);
+			}
+		}
+	}
+
+	/**
+	 * @param shape	Figur
+	 * @return true, wenn die Figur statisch ist und ihre Worldmatrix nicht spiegelt
+	 */
+	private static boolean isBatchable(RenShape shape) {
+		return shape.isStatic() && Mat4.determinant3(shape.getTransform().getWorldMat()) > 0;
+	}
+
+	/**
+	 * Fgt eine statische Figur dem Batch ihrer Zelle hinzu (oder einem neuen Batch, wenn dieser voll ist).
+	 *
+	 * @param shape	Figur
+	 */
+	private void addMember(RenShape shape) {
+
+		double[] bounds = shape.getWorldBounds();
+		long cell = cellOf((bounds[0] + bounds[3]) / 2, (bounds[1] + bounds[4]) / 2, (bounds[2] + bounds[5]) / 2);
+		List<RenStaticBatch> cellBatches = cells.computeIfAbsent(cell, key -> new ArrayList<RenStaticBatch>());
+		RenStaticBatch batch = cellBatches.isEmpty() ? null : cellBatches.get(cellBatches.size() - 1);
+		boolean created = batch == null
+				|| batch.getTriangles() > 0 && batch.getTriangles() + shape.getPolys().size() > MAX_TRIANGLES;
+
+		if (created) {
+			batch = new RenStaticBatch(cell);
+			cellBatches.add(batch);
+		}
+
+		batch.add(shape);
+		batches.put(shape, batch);
+
+		if (created)
+			bvh.insert(batch);
+	}
+
+	/**
+	 * Entfernt eine Figur aus ihrem Batch (und den Batch, wenn er anschlieend leer ist).
+	 *
+	 * @param shape	Figur
+	 */
+	private void removeMember(RenShape shape) {
+
+		RenStaticBatch batch = batches.remove(shape);
+
+		batch.remove(shape);
+
+		if (!batch.getMembers().isEmpty())
+			return;
+
+		removeFromBvh(batch);
+
+		List<RenStaticBatch> cellBatches = cells.get(batch.getCell());
+
+		cellBatches.remove(batch);
+
+		if (cellBatches.isEmpty())
+			cells.remove(batch.getCell());
+	}
+
+	/**
+	 * Entfernt eine Figur (oder einen Batch) aus der RenBvh und benachrichtigt den removeListener.
+	 *
+	 * @param shape	Figur
+	 */
+	private void removeFromBvh(RenShape shape) {
+		bvh.remove(shape);
+		removeListener.accept(shape);
+	}
+
+	/**
+	 * @param x	x-Koordinate im World-Space
+	 * @param y	y-Koordinate im World-Space
+	 * @param z	z-Koordinate im World-Space
+	 * @return Zelle des Punktes (21 Bit pro Achse)
+	 */
+	private static long cellOf(double x, double y, double z) {
+
+		long cx = (long) Math.floor(x / CELL_SIZE) & 0x1FFFFF;
+		long cy = (long) Math.floor(y / CELL_SIZE) & 0x1FFFFF;
+		long cz = (long) Math.floor(z / CELL_SIZE) & 0x1FFFFF;
+
+		return cx << 42 | cy << 21 | cz;
+	}
+
+	/**
+	 * @param shape	Figur
+	 * @return true, wenn die Figur in einem Batch enthalten ist (und deshalb nicht selbst gerendert wird)
+	 */
+	boolean isBatched(RenShape shape) {
+		return batches.containsKey(shape);
+	}
+
+	/**
+	 * @return alle Batches (in der Reihenfolge ihrer Zellen)
+	 */
+	List<RenShape> getBatches() {
+
+		List<RenShape> result = new ArrayList<RenShape>();
+
+		for (List<RenStaticBatch> cellBatches : cells.values())
+			result.addAll(cellBatches);
+
+		return result;
+	}
+
+	/**
+	 * @return Anzahl der Figuren, welche in einem Batch enthalten sind
+	 */
+	int getBatchedCount() {
+		return batches.size();
+	}
+
+}
@@ -0,0 +1,386 @@
+package de.sebphil.renderer.objects;
+
+import java.util.Arrays;
+
+class RenTileBins {
+
+	private int tilesX, tilesY, tileSize, triCount;
+	private long occludedTris, occludedShapes, shadedTris, clippedTris, backfaceTris, transformedVerts, vertexRefs;
+	private long clusters, frustumClusters, backfaceClusters, occludedClusters, clusterTris;
+	private double[] verts;
+	private int[] colors;
+	// Daten fr die verzgerte Schattierung (Depth-Prepass und Visibility-Buffer), Normalen als x, y, z pro Dreieck
+	private double[] normals;
+	private RenTriangle[] sources;
+	private boolean[] visible;
+	private int[][] tileTris;
+	private int[] tileCounts;
+
+	/**
+	 * Constructor fr RenTileBins.
+	 *
+	 * Diese Klasse sammelt die Dreiecke, welche ein einzelner Thread im Screen-Space erzeugt hat,
+	 * und sortiert diese in die Kacheln (Tiles) des Framebuffers ein. Jede Kachel erhlt dabei
+	 * eine Liste von Indizes der Dreiecke, welche diese Kachel (zumindest teilweise) berdecken.
+	 * Die Reihenfolge, in welcher die Dreiecke hinzugefgt werden, bleibt in jeder Liste erhalten.
+	 *
+	 * @param tilesX	Anzahl der Kacheln in x-Richtung
+	 * @param tilesY	Anzahl der Kacheln in y-Richtung
+	 * @param tileSize	Kantenlnge einer Kachel in Pixel
+	 */
+	RenTileBins(int tilesX, int tilesY, int tileSize) {
+
+		this.tilesX = tilesX;
+		this.tilesY = tilesY;
+		this.tileSize = tileSize;
+
+		this.verts = new double[9 * 64];
+		this.colors = new int[64];
+		this.normals = new double[3 * 64];
+		this.sources = new RenTriangle[64];
+		this.visible = new boolean[64];
+		this.tileTris = new int[tilesX * tilesY][];
+		this.tileCounts = new int[tilesX * tilesY];
+
+		for (int i = 0; i < tileTris.length; i++)
+			tileTris[i] = new int[16];
+	}
+
+	/**
+	 * Leert alle Listen, ohne den reservierten Speicher freizugeben.
+	 * (Dadurch mssen die Arrays nicht in jedem Frame neu angelegt werden.)
+	 */
+	void clear() {
+		Arrays.fill(visible, 0, triCount, false);
+		Arrays.fill(sources, 0, triCount, null);
+		triCount = 0;
+		Arrays.fill(tileCounts, 0);
+	}
+
+	/**
+	 * Setzt die Statistiken (Anzahl der verdeckten Dreiecke und Figuren) zurck.
+	 */
+	void resetStats() {
+		occludedTris = 0;
+		occludedShapes = 0;
+		shadedTris = 0;
+		clippedTris = 0;
+		backfaceTris = 0;
+		transformedVerts = 0;
+		vertexRefs = 0;
+		clusters = 0;
+		frustumClusters = 0;
+		backfaceClusters = 0;
+		occludedClusters = 0;
+		clusterTris = 0;
+	}
+
+	/**
+	 * Zhlt ein Dreieck, welches aufgrund von Occlusion-Culling nicht hinzugefgt wurde.
+	 */
+	void countOccludedTri() {
+		occludedTris++;
+	}
+
+	/**
+	 * Zhlt ein Dreieck, welches geometrisch geclippt werden musste.
+	 */
+	void countClippedTri() {
+		clippedTris++;
+	}
+
+	/**
+	 * Zhlt Dreiecke, welche vor der Transformation ihrer Eckpunkte (im Object-Space) als Rckseite erkannt wurden.
+	 *
+	 * @param count Anzahl der Dreiecke
+	 */
+	void countBackfaceTris(int count) {
+		backfaceTris += count;
+	}
+
+	/**
+	 * Zhlt ein Cluster (siehe RenShape#getClusterStarts), welches vor dem Face-Culling getestet wurde.
+	 */
+	void countCluster() {
+		clusters++;
+	}
+
+	/**
+	 * Zhlt Dreiecke eines Clusters, welches auerhalb des sichtbaren Bereiches liegt.
+	 *
+	 * @param count		Anzahl der Dreiecke
+	 * @param first		true, wenn zustzlich das Cluster gezhlt werden soll
+	 */
+	void countFrustumCluster(int count, boolean first) {
+		frustumClusters += first ? 1 : 0;
+		clusterTris += count;
+	}
+
+	/**
+	 * Zhlt Dreiecke eines Clusters, dessen Dreiecke (laut Normalen-Kegel) alle Rckseiten sind. Die Dreiecke
+	 * mssen zustzlich mit countBackfaceTris gezhlt werden.
+	 *
+	 * @param count		Anzahl der Dreiecke
+	 * @param first		true, wenn zustzlich das Cluster gezhlt werden soll
+	 */
+	void countBackfaceCluster(int count, boolean first) {
+		backfaceClusters += first ? 1 : 0;
+		clusterTris += count;
+	}
+
+	/**
+	 * Zhlt Dreiecke eines Clusters, dessen Bounding-Kugel verdeckt ist.
+	 *
+	 * @param count		Anzahl der Dreiecke
+	 * @param first		true, wenn zustzlich das Cluster gezhlt werden soll
+	 */
+	void countOccludedCluster(int count, boolean first) {
+		occludedClusters += first ? 1 : 0;
+		clusterTris += count;
+	}
+
+	/**
+	 * Zhlt eine Figur, welche aufgrund von Occlusion-Culling vollstndig bersprungen wurde.
+	 */
+	void countOccludedShape() {
+		occludedShapes++;
+	}
+
+	/**
+	 * Zhlt Eckpunkte, welche (in der Vertex-Stufe) transformiert wurden.
+	 *
+	 * @param count Anzahl der Eckpunkte
+	 */
+	void countTransformedVerts(int count) {
+		transformedVerts += count;
+	}
+
+	/**
+	 * Zhlt Eckpunkte, welche von Dreiecken verwendet wurden (drei pro Dreieck).
+	 *
+	 * @param count Anzahl der Eckpunkte
+	 */
+	void countVertexRefs(int count) {
+		vertexRefs += count;
+	}
+
+	/**
+	 * Fgt ein Dreieck im Screen-Space hinzu und trgt dieses in alle Kacheln ein,
+	 * welche von seiner Bounding-Box berhrt werden.
+	 *
+	 * @param poly		Eckpunkte eines Polygons im Screen-Space (x, y, z pro Eckpunkt)
+	 * @param v0		Index des 1. Eckpunktes des Dreiecks in poly
+	 * @param v1		Index des 2. Eckpunktes des Dreiecks in poly
+	 * @param v2		Index des 3. Eckpunktes des Dreiecks in poly
+	 * @param color		Farbe des Dreiecks als ARGB-Wert
+	 * @param width		Breite des Framebuffers
+	 * @param height	Hhe des Framebuffers
+	 */
+	void add(double[] poly, int v0, int v1, int v2, int color, int width, int height) {
+
+		if (addTri(poly, v0, v1, v2, width, height)) {
+			colors[triCount - 1] = color;
+			shadedTris++;
+		}
+	}
+
+	/**
+	 * Fgt ein Dreieck im Screen-Space hinzu, welches noch nicht schattiert wurde.
+	 * (Die Farbe muss spter mit setColor festgelegt werden. Die Grundfarbe wird dabei erst zu diesem Zeitpunkt aus
+	 * dem ursprnglichen Dreieck gelesen, sodass auch eine genderte Farbe bernommen wird.)
+	 *
+	 * @param poly		Eckpunkte eines Polygons im Screen-Space (x, y, z pro Eckpunkt)
+	 * @param v0		Index des 1. Eckpunktes des Dreiecks in poly
+	 * @param v1		Index des 2. Eckpunktes des Dreiecks in poly
+	 * @param v2		Index des 3. Eckpunktes des Dreiecks in poly
+	 * @param source	ursprngliches Dreieck (der Figur), welches die Grundfarbe enthlt
+	 * @param normals	Array, welches die Flchen-Normale des Dreiecks (im World-Space) enthlt
+	 * @param normalOff	Index der Normale (x, y, z) in normals
+	 * @param width		Breite des Framebuffers
+	 * @param height	Hhe des Framebuffers
+	 */
+	void addDeferred(double[] poly, int v0, int v1, int v2, RenTriangle source, double[] normals, int normalOff,
+			int width, int height) {
+
+		if (addTri(poly, v0, v1, v2, width, height)) {
+			sources[triCount - 1] = source;
+			System.arraycopy(normals, normalOff, this.normals, (triCount - 1) * 3, 3);
+		}
+	}
+
+	/**
+	 * Fgt die Eckpunkte eines Dreiecks hinzu und trgt dieses in alle Kacheln ein,
+	 * welche von seiner Bounding-Box berhrt werden.
+	 *
+	 * @param poly		Eckpunkte eines Polygons im Screen-Space (x, y, z pro Eckpunkt)
+	 * @param v0		Index des 1. Eckpunktes des Dreiecks in poly
+	 * @param v1		Index des 2. Eckpunktes des Dreiecks in poly
+	 * @param v2		Index des 3. Eckpunktes des Dreiecks in poly
+	 * @param width		Breite des Framebuffers
+	 * @param height	Hhe des Framebuffers
+	 * @return true, wenn das Dreieck hinzugefgt wurde (als letztes Dreieck)
+	 */
+	private boolean addTri(double[] poly, int v0, int v1, int v2, int width, int height) {
+
+		v0 *= 3;
+		v1 *= 3;
+		v2 *= 3;
+
+		int minX = (int) Math.min(poly[v0], Math.min(poly[v1], poly[v2]));
+		int minY = (int) Math.min(poly[v0 + 1], Math.min(poly[v1 + 1], poly[v2 + 1]));
+		int maxX = (int) Math.max(poly[v0], Math.max(poly[v1], poly[v2]));
+		int maxY = (int) Math.max(poly[v0 + 1], Math.max(poly[v1 + 1], poly[v2 + 1]));
+
+		// Dreiecke, welche vollstndig auerhalb des Framebuffers liegen, werden nicht eingetragen.
+		if (maxX < 0 || maxY < 0 || minX >= width || minY >= height)
+			return false;
+
+		if (triCount == colors.length) {
+			verts = Arrays.copyOf(verts, verts.length * 2);
+			colors = Arrays.copyOf(colors, colors.length * 2);
+			normals = Arrays.copyOf(normals, normals.length * 2);
+			sources = Arrays.copyOf(sources, sources.length * 2);
+			visible = Arrays.copyOf(visible, visible.length * 2);
+		}
+
+		int offset = triCount * 9;
+
+		System.arraycopy(poly, v0, verts, offset, 3);
+		System.arraycopy(poly, v1, verts, offset + 3, 3);
+		System.arraycopy(poly, v2, verts, offset + 6, 3);
+
+		int tileMinX = Math.max(minX, 0) / tileSize;
+		int tileMinY = Math.max(minY, 0) / tileSize;
+		int tileMaxX = Math.min(maxX / tileSize, tilesX - 1);
+		int tileMaxY = Math.min(maxY / tileSize, tilesY - 1);
+
+		for (int ty = tileMinY; ty <= tileMaxY; ty++) {
+			for (int tx = tileMinX; tx <= tileMaxX; tx++) {
+
+				int tile = ty * tilesX + tx;
+
+				if (tileCounts[tile] == tileTris[tile].length)
+					tileTris[tile] = Arrays.copyOf(tileTris[tile], tileTris[tile].length * 2);
+
+				tileTris[tile][tileCounts[tile]++] = triCount;
+			}
+		}
+
+		triCount++;
+
+		return true;
+	}
+
+	/**
+	 * Markiert ein Dreieck als (zumindest teilweise) sichtbar.
+	 * (Dies kann von mehreren Threads gleichzeitig geschehen, da nur der Wert true geschrieben wird.)
+	 *
+	 * @param tri Index des Dreiecks
+	 */
+	void setVisible(int tri) {
+		visible[tri] = true;
+	}
+
+	boolean isVisible(int tri) {
+		return visible[tri];
+	}
+
+	/**
+	 * Legt die (schattierte) Farbe eines verzgert hinzugefgten Dreiecks fest.
+	 *
+	 * @param tri	Index des Dreiecks
+	 * @param color	Farbe als ARGB-Wert
+	 */
+	void setColor(int tri, int color) {
+		colors[tri] = color;
+		shadedTris++;
+	}
+
+	/**
+	 * @return Flchen-Normalen aller Dreiecke der verzgerten Schattierung (x, y, z pro Dreieck)
+	 */
+	double[] getNormals() {
+		return normals;
+	}
+
+	int getBaseColor(int tri) {
+		return sources[tri].getArgb();
+	}
+
+	int getTriCount() {
+		return triCount;
+	}
+
+	double[] getVerts() {
+		return verts;
+	}
+
+	int[] getColors() {
+		return colors;
+	}
+
+	int[] getTileTris(int tile) {
+		return tileTris[tile];
+	}
+
+	int getTileCount(int tile) {
+		return tileCounts[tile];
+	}
+
+	long getOccludedTris() {
+		return occludedTris;
+	}
+
+	long getOccludedShapes() {
+		return occludedShapes;
+	}
+
+	long getShadedTris() {
+		return shadedTris;
+	}
+
+	long getClippedTris() {
+		return clippedTris;
+	}
+
+	long getBackfaceTris() {
+		return backfaceTris;
+	}
+
+	long getTransformedVerts() {
+		return transformedVerts;
+	}
+
+	long getVertexRefs() {
+		return vertexRefs;
+	}
+
+	long getClusters() {
+		return clusters;
+	}
+
+	long getFrustumClusters() {
+		return frustumClusters;
+	}
+
+	long getBackfaceClusters() {
+		return backfaceClusters;
+	}
+
+	long getOccludedClusters() {
+		return occludedClusters;
+	}
+
+	long getClusterTris() {
+		return clusterTris;
+	}
+
+	int getTilesX() {
+		return tilesX;
+	}
+
+	int getTilesY() {
+		return tilesY;
+	}
+
+}
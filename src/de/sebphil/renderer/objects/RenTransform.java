@@ -0,0 +1,271 @@
+package de.sebphil.renderer.objects;
+
+import de.sebphil.renderer.math.Mat4;
+import javafx.geometry.Point3D;
+
+public class RenTransform {
+
+	private double angleX, angleY, angleZ;
+	private double[] rotXMat, rotYMat, rotZMat;
+	private Point3D position, size, translation;
+	// zwischengespeicherte Matrizen und Arrays fr Zwischenergebnisse
+	private double[] worldMat, inverseWorldMat, worldViewMat, normalMat, viewMat, tmpMat;
+	private boolean worldDirty, inverseDirty, worldViewDirty, normalDirty;
+	private int version, normalVersion;
+	// wird bei jeder nderung der Transformation aufgerufen (siehe setChangeListener)
+	private Runnable changeListener;
+
+	/**
+	 * Constructor fr eine RenTransform.
+	 *
+	 * Diese Klasse speichert die Transformation eines RenObject (Position, Rotation, Skalierung und Translation)
+	 * und die daraus zusammengesetzte Worldmatrix. Die Worldmatrix wird erst dann neu erstellt, wenn sie nach einer
+	 * nderung der Transformation abgefragt wird. Fr unbewegte Objekte entfllt die Berechnung somit in jedem Frame.
+	 */
+	public RenTransform() {
+		this.position = new Point3D(0, 0, 0);
+		this.size = new Point3D(1, 1, 1);
+		this.translation = new Point3D(0, 0, 0);
+		this.rotXMat = Mat4.rotationX(angleX, new double[16]);
+		this.rotYMat = Mat4.rotationX(angleY, new double[16]);
+		this.rotZMat = Mat4.rotationX(angleZ, new double[16]);
+		this.worldMat = new double[16];
+		this.inverseWorldMat = new double[16];
+		this.worldViewMat = new double[16];
+		this.normalMat = new double[16];
+		this.tmpMat = new double[16];
+		this.worldDirty = true;
+		this.inverseDirty = true;
+		this.worldViewDirty = true;
+		this.normalDirty = true;
+	}
+
+	/**
+	 * Markiert die zwischengespeicherten Matrizen als veraltet.
+	 *
+	 * @param orientation	true, wenn sich die Rotation oder Skalierung (und damit die Normalenmatrix) gendert hat
+	 */
+	private void changed(boolean orientation) {
+		worldDirty = true;
+		inverseDirty = true;
+		worldViewDirty = true;
+		version++;
+
+		if (orientation) {
+			normalDirty = true;
+			normalVersion++;
+		}
+
+		if (changeListener != null)
+			changeListener.run();
+	}
+
+	/**
+	 * Legt fest, wer bei jeder nderung der Transformation benachrichtigt wird (das RenObject, zu welchem diese
+	 * Transformation gehrt, z.B. um die RenBvh einer Szene anzupassen).
+	 *
+	 * @param changeListener	wird bei jeder nderung aufgerufen (oder null)
+	 */
+	void setChangeListener(Runnable changeListener) {
+		this.changeListener = changeListener;
+	}
+
+	/**
+	 * Gibt die "Welt"-Matrix (Worldmatrix / Modelmatrix) einschlielich der Position zurck.
+	 * Die Matrix wird nur neu erstellt, wenn sich die Transformation seit dem letzten Aufruf gendert hat.
+	 *
+	 * @return Worldmatrix (darf nicht verndert werden)
+	 */
+	public double[] getWorldMat() {
+
+		if (worldDirty) {
+
+			// Gre * (Translation * Rotation x * Rotation y * Rotation z), anschlieend Position addieren
+			Mat4.translation(translation.getX(), translation.getY(), translation.getZ(), worldMat);
+			Mat4.mulAffine(worldMat, rotXMat, worldMat);
+			Mat4.mulAffine(worldMat, rotYMat, worldMat);
+			Mat4.mulAffine(worldMat, rotZMat, worldMat);
+			Mat4.mulAffine(Mat4.scale(size.getX(), size.getY(), size.getZ(), tmpMat), worldMat, worldMat);
+
+			worldMat[12] += position.getX();
+			worldMat[13] += position.getY();
+			worldMat[14] += position.getZ();
+
+			worldDirty = false;
+		}
+
+		return worldMat;
+	}
+
+	/**
+	 * Gibt die Inverse der Worldmatrix zurck, mit welcher Punkte aus dem World-Space in den Object-Space
+	 * transformiert werden. Die Matrix wird nur nach einer nderung der Transformation neu erstellt.
+	 * (Ist eine Komponente der Gre 0, so ist die Worldmatrix nicht invertierbar und das Ergebnis ungltig.)
+	 *
+	 * @return inverse Worldmatrix (darf nicht verndert werden)
+	 */
+	public double[] getInverseWorldMat() {
+
+		if (inverseDirty) {
+			Mat4.invertAffine(getWorldMat(), inverseWorldMat);
+			inverseDirty = false;
+		}
+
+		return inverseWorldMat;
+	}
+
+	/**
+	 * Gibt die kombinierte World-View-Matrix zurck. Die Matrix wird nur neu erstellt, wenn sich die Transformation
+	 * oder die View-Matrix (ein anderes Array, siehe RenCamera#lookAt) seit dem letzten Aufruf gendert hat.
+	 *
+	 * @param viewMat	View-Matrix der Kamera (siehe RenCamera#lookAt)
+	 * @return World-View-Matrix (darf nicht verndert werden)
+	 */
+	public double[] getWorldViewMat(double[] viewMat) {
+
+		if (worldViewDirty || this.viewMat != viewMat) {
+			Mat4.mulAffine(getWorldMat(), viewMat, worldViewMat);
+			this.viewMat = viewMat;
+			worldViewDirty = false;
+		}
+
+		return worldViewMat;
+	}
+
+	/**
+	 * Gibt die Normalenmatrix der Worldmatrix zurck (siehe Mat4#normalMatrix), mit welcher die Flchen-Normalen
+	 * eines RenShape in den World-Space transformiert werden. Da Position und Translation keinen Einfluss auf die
+	 * Normalen haben, wird die Matrix nur nach einer nderung der Rotation oder Skalierung neu erstellt.
+	 *
+	 * @return Normalenmatrix (darf nicht verndert werden)
+	 */
+	public double[] getNormalMat() {
+
+		if (normalDirty) {
+			Mat4.normalMatrix(getWorldMat(), normalMat);
+			normalDirty = false;
+		}
+
+		return normalMat;
+	}
+
+	/**
+	 * @return Zhler, welcher bei jeder nderung der Transformation erhht wird
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return Zhler, welcher bei jeder nderung der Rotation oder Skalierung erhht wird
+	 */
+	public int getNormalVersion() {
+		return normalVersion;
+	}
+
+	/**
+	 * Legt einen neuen Winkel fr die Rotation um die x-Achse fest.
+	 * Diese Funktion erzeugt eine neue Rotationsmatrix fr die Rotation um
+	 * die x-Achse.
+	 *
+	 * @param angleX	Grad der Rotation in Gradma
+	 */
+	public void setAngleX(double angleX) {
+		this.angleX = angleX % 360;
+		Mat4.rotationX(Math.toRadians(angleX % 360), rotXMat);
+		changed(true);
+	}
+
+	/**
+	 * Legt einen neuen Winkel fr die Rotation um die y-Achse fest.
+	 * Diese Funktion erzeugt eine neue Rotationsmatrix fr die Rotation um
+	 * die y-Achse.
+	 *
+	 * @param angleY	Grad der Rotation in Gradma
+	 */
+	public void setAngleY(double angleY) {
+		this.angleY = angleY % 360;
+		Mat4.rotationY(Math.toRadians(angleY % 360), rotYMat);
+		changed(true);
+	}
+
+	/**
+	 * Legt einen neuen Winkel fr die Rotation um die z-Achse fest.
+	 * Diese Funktion erzeugt eine neue Rotationsmatrix fr die Rotation um
+	 * die z-Achse.
+	 *
+	 * @param angleZ	Grad der Rotation in Gradma
+	 */
+	public void setAngleZ(double angleZ) {
+		this.angleZ = angleZ % 360;
+		Mat4.rotationZ(Math.toRadians(angleZ % 360), rotZMat);
+		changed(true);
+	}
+
+	public double getAngleX() {
+		return angleX;
+	}
+
+	public double getAngleY() {
+		return angleY;
+	}
+
+	public double getAngleZ() {
+		return angleZ;
+	}
+
+	public double[] getRotXMat() {
+		return rotXMat;
+	}
+
+	public void setRotXMat(double[] rotXMat) {
+		this.rotXMat = rotXMat;
+		changed(true);
+	}
+
+	public double[] getRotYMat() {
+		return rotYMat;
+	}
+
+	public void setRotYMat(double[] rotYMat) {
+		this.rotYMat = rotYMat;
+		changed(true);
+	}
+
+	public double[] getRotZMat() {
+		return rotZMat;
+	}
+
+	public void setRotZMat(double[] rotZMat) {
+		this.rotZMat = rotZMat;
+		changed(true);
+	}
+
+	public Point3D getPosition() {
+		return position;
+	}
+
+	public void setPosition(Point3D position) {
+		this.position = position;
+		changed(false);
+	}
+
+	public Point3D getSize() {
+		return size;
+	}
+
+	public void setSize(Point3D size) {
+		this.size = size;
+		changed(true);
+	}
+
+	public Point3D getTranslation() {
+		return translation;
+	}
+
+	public void setTranslation(Point3D translation) {
+		this.translation = translation;
+		changed(false);
+	}
+
+}
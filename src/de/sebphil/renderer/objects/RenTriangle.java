@@ -2,13 +2,15 @@ package de.sebphil.renderer.objects;
 
 import java.util.Arrays;
 
+import de.sebphil.renderer.util.RenUtilities;
 import javafx.geometry.Point3D;
 import javafx.scene.paint.Color;
 
 public class RenTriangle {
 
 	private Point3D[] vert;
-	private Color color = Color.WHITE;
+	// Farbe als ARGB-Wert (siehe RenUtilities#toArgb)
+	private int color = 0xFFFFFFFF;
 
 	/**
 	 * Constructor fr ein RenTriangle.
@@ -36,8 +38,23 @@ public class RenTriangle {
 	 * @param color	Farbe des Dreiecks
 	 */
 	public RenTriangle(Point3D v1, Point3D v2, Point3D v3, Color color) {
+		this(v1, v2, v3, RenUtilities.toArgb(color));
+	}
+
+	/**
+	 * Constructor fr ein RenTriangle.
+	 * 
+	 * Diese Klasse reprsentiert ein Dreieck mit seinen drei Eckpunkten
+	 * und einer Farbe.
+	 * 
+	 * @param v1	1. Eckpunkt des Dreieckes
+	 * @param v2	2. Eckpunkt des Dreieckes
+	 * @param v3	3. Eckpunkt des Dreieckes
+	 * @param argb	Farbe des Dreiecks als ARGB-Wert (siehe RenUtilities#toArgb)
+	 */
+	public RenTriangle(Point3D v1, Point3D v2, Point3D v3, int argb) {
 		vert = new Point3D[] { v1, v2, v3 };
-		this.color = color;
+		this.color = argb;
 	}
 
 	public Point3D[] getVert() {
@@ -69,10 +86,21 @@ public class RenTriangle {
 	}
 
 	public Color getColor() {
-		return color;
+		return RenUtilities.toColor(color);
 	}
 
 	public void setColor(Color color) {
-		this.color = color;
+		this.color = RenUtilities.toArgb(color);
+	}
+
+	/**
+	 * @return Farbe des Dreiecks als ARGB-Wert (siehe RenUtilities#toArgb)
+	 */
+	public int getArgb() {
+		return color;
+	}
+
+	public void setArgb(int argb) {
+		this.color = argb;
 	}
 }
@@ -1,22 +1,90 @@
 package de.sebphil.renderer.objects;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import de.sebphil.renderer.util.RenUtilities;
-import javafx.geometry.Point2D;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+import de.sebphil.renderer.math.Mat4;
+import de.sebphil.renderer.math.Vec3;
 import javafx.geometry.Point3D;
 import javafx.scene.image.PixelFormat;
 import javafx.scene.image.PixelWriter;
-import javafx.scene.paint.Color;
 
 public class SebRenderer {
 
-	private int[] framebuffer;
-	private double near, far, fov, scale, width, height, aspectratio;
+	// Kantenlnge einer Kachel (Tile) des Frame- und Depthbuffers in Pixel (entspricht der Breite einer Maske des Coverage-Buffers)
+	private static final int TILE_SIZE = Integer.SIZE;
+	// Anzahl der Dreiecke, welche beim Occlusion-Culling gemeinsam transformiert und rasterisiert werden (min./max.)
+	private static final int OCCLUSION_BATCH_MIN = 256, OCCLUSION_BATCH_MAX = 4096;
+	// Ergebnisse von testCluster
+	private static final int CLUSTER_VISIBLE = 0, CLUSTER_FRUSTUM = 1, CLUSTER_BACKFACE = 2, CLUSTER_OCCLUDED = 3;
+	// grter Speicherbedarf des RenGeometryCache (standardmig) in Byte
+	private static final long GEOMETRY_CACHE_BYTES = 64L << 20;
+
+	// Klasse des Rasterizers mit der Vector API (liegt in src-vector, siehe RenVectorRasterizer)
+	private static final String VECTOR_RASTERIZER = "de.sebphil.renderer.objects.RenVectorRasterizer";
+
+	// null, solange nicht berprft wurde, ob die Vector API zur Verfgung steht
+	private static Boolean vectorAvailable;
+	private static Constructor<? extends RenRasterizer> vectorConstructor;
+
+	private boolean hierarchical, vectorized, binsVectorized, occlusionCulling, coverageBuffer,
+			depthPrepass, frustumCulling, clusterCulling, visibilityBuffer;
+	private int threadCount, tilesX, tilesY;
+	private int[] framebuffer, coverage, coveredRows;
+	/*
+	 * Visibility-Buffer: Nummer des sichtbaren Dreiecks pro Pixel (0 fr keines, sonst binOffsets[b] + Index + 1 fr
+	 * das Dreieck mit dem Index in bins[b]) und Szene, aus welcher der Inhalt stammt (null, wenn ungltig)
+	 */
+	private int[] visBuffer, binOffsets;
+	private RenScene visScene;
+	private double near, far, fov, scale, width, height, aspectratio, nearPlane, depthScale, depthBias;
 	private double[] depthBuffer;
-	private double[][] projMat;
+	private float[] depthBufferF;
+	private double[] projMat, viewProjMat;
 	private PixelFormat<IntBuffer> format;
+	private ForkJoinPool pool;
+	private RenTileBins[] bins;
+	private RenRasterizer[] rasterizers;
+	private RenClipper[] clippers;
+	// Eckpunkte jeder Figur im View-Space (Ergebnis der Vertex-Stufe, siehe transformVertices; viewVertsF bei RenPrecision.SINGLE)
+	private double[][] viewVerts;
+	private float[][] viewVertsF;
+	/*
+	 * Ergebnis des Face-Cullings im Object-Space (true fr vordere Dreiecke) und Nummer des Frames, in welchem
+	 * ein Eckpunkt zuletzt von einem vorderen Dreieck verwendet wurde (pro Figur, siehe transformVertices)
+	 */
+	private boolean[][] frontFaces;
+	private int[][] vertexFrames;
+	private int frame;
+	// Richtungen der Lichtquellen im World-Space (normiert, x, y, z pro Lichtquelle)
+	private double[] lights;
+	// Helligkeiten fr alle Richtungen der Flchen-Normale (null, wenn nicht verwendet)
+	private RenLightCache lightCache;
+	// Eckpunkt der Bounding-Box, welcher zuletzt transformiert wurde (siehe isShapeOccluded)
+	private double[] corner;
+	private RenFrameStats stats;
+	private RenHiZ hiZ;
+	private RenFrustum frustum;
+	private RenGeometryCache geometryCache;
+	// Szenen, bei welchen der geometryCache bereits als Listener registriert ist (siehe RenScene#addRemoveListener)
+	private Set<RenScene> observedScenes;
+	// Puffer pro Thread zum Sortieren der Dreiecke einer Kachel (Coverage-Buffer)
+	private long[][] tileOrder;
+	private RenDepthFormat depthFormat;
+	private RenPrecision precision;
 
 	/**
 	 * Constructor fr den SebRenderer.
@@ -41,10 +109,23 @@ public class SebRenderer {
 		this.far = 100;
 		this.fov = 60;
 
-		this.framebuffer = new int[(int) (width * height)];
-		this.depthBuffer = new double[(int) (width * height)];
+		this.threadCount = 1;
+		this.stats = new RenFrameStats();
+
+		this.depthFormat = RenDepthFormat.DOUBLE;
+		this.precision = RenPrecision.DOUBLE;
 
-		this.projMat = new double[4][4];
+		this.framebuffer = new int[(int) (width * height)];
+		createDepthBuffer();
+
+		this.projMat = new double[16];
+		this.viewProjMat = new double[16];
+		this.frustum = new RenFrustum();
+		this.frustumCulling = true;
+		this.clusterCulling = true;
+		this.geometryCache = new RenGeometryCache(GEOMETRY_CACHE_BYTES);
+		this.observedScenes = Collections.newSetFromMap(new WeakHashMap<RenScene, Boolean>());
+		this.corner = new double[3];
 		generateProjMat();
 
 		this.format = PixelFormat.getIntArgbPreInstance();
@@ -72,392 +153,1496 @@ public class SebRenderer {
 	 */
 	public void update(RenScene scene) {
 		
-		// Buffer mssen geleert werden, da sonst Artefakte von vorgangenem Frame auftauchen
-		refreshBuffer();
-		
+		// Eintrge von Figuren, welche nicht mehr gerendert werden, werden sofort verworfen.
+		if (observedScenes.add(scene))
+			scene.addRemoveListener(geometryCache::remove);
+
 		// Kamera
 		RenCamera camera = scene.getCamera();
 
 		Point3D to = new Point3D(0, 0, 1);
 		
-		double w = width / 2;
-		double h = height / 2;
+		double[] camView = camera.lookAt(to);
 		
-		double[][] camView = camera.lookAt(to);
+		prepareShading(scene);
+		prepareBins();
 		
-		// Rendern der Figuren
-		for (RenShape shape : scene.getShapes()) {
+		boolean prepass = isPrepassActive();
+		
+		// Beim Visibility-Buffer wird die Nummer des Dreiecks anstatt seiner Farbe in jedes Pixel eingetragen.
+		int[] target = framebuffer;
+		visScene = null;
+		
+		if (visibilityBuffer) {
 			
-			// Worldmatrix fr aktuelle Figur erstellen
-			double[][] worldMat = RenShape.generateWorldMat(shape);
+			if (visBuffer == null || visBuffer.length != framebuffer.length)
+				visBuffer = new int[framebuffer.length];
 			
-			// Jedes Dreieck der Figur abarbeiten
-			for (RenTriangle tri : shape.getPolys()) {
-
-				Point3D[] vert = tri.getVert();
-
-				// Eckpuntke in World-Space transformieren
-				for (int i = 0; i < vert.length; i++) {
-
-					vert[i] = RenUtilities.multMatVec(worldMat, vert[i]);
-					vert[i] = vert[i].add(shape.getPosition());
-
-				}
+			if (binOffsets == null || binOffsets.length != threadCount + 1)
+				binOffsets = new int[threadCount + 1];
+			
+			target = visBuffer;
+		}
+		
+		/*
+		 * View-Frustum-Culling: Die RenBvh der Szene wird durchlaufen, sodass Figuren (und ganze Teilbume), deren
+		 * Bounding-Volumes vollstndig auerhalb des sichtbaren Bereiches liegen, vor jeder weiteren Bearbeitung
+		 * verworfen werden. Die Dreiecke von Figuren, welche vollstndig innerhalb liegen, mssen nicht geclippt
+		 * werden (siehe inside).
+		 */
+		List<RenShape> shapes;
+		boolean[] inside;
+		int insideCount = 0;
+		int sceneShapes;
+		
+		// Statische Figuren werden nur ber ihre Batches gerendert (siehe RenShape#setStatic).
+		RenStaticBatcher batcher = scene.getBatcher();
+		batcher.update();
+		
+		if (frustumCulling) {
+			
+			RenBvh bvh = scene.getBvh();
+			bvh.update();
+			
+			frustum.update(Mat4.mul(camView, projMat, viewProjMat), nearPlane);
+			
+			shapes = new ArrayList<RenShape>();
+			inside = new boolean[bvh.getShapeCount()];
+			insideCount = bvh.cull(frustum, shapes, inside);
+			sceneShapes = bvh.getShapeCount();
+			
+		} else {
+			
+			shapes = new ArrayList<RenShape>();
+			
+			for (RenShape shape : scene.getShapes())
+				if (!batcher.isBatched(shape))
+					shapes.add(shape);
+			
+			shapes.addAll(batcher.getBatches());
+			inside = new boolean[shapes.size()];
+			sceneShapes = shapes.size();
+		}
+		
+		// Fr den Coverage-Buffer und den Depth-Prepass werden die Figuren grob von vorne nach hinten sortiert.
+		if (coverageBuffer || prepass)
+			sortFrontToBack(shapes, inside, camera.getPosition());
+		
+		/*
+		 * Die Dreiecke aller Figuren werden fortlaufend durchnummeriert (firstTri[i] ist der Index des ersten
+		 * Dreiecks der i-ten Figur). Jeder Thread bearbeitet anschlieend einen zusammenhngenden Bereich
+		 * dieser Dreiecke, sodass auch eine einzelne, groe Figur auf mehrere Threads verteilt wird.
+		 */
+		int[] firstTri = new int[shapes.size() + 1];
+		double[][] vertices = new double[shapes.size()][];
+		float[][] verticesF = precision == RenPrecision.SINGLE ? new float[shapes.size()][] : null;
+		int[][] indices = new int[shapes.size()][];
+		double[][] worldViews = new double[shapes.size()][];
+		double[][] normals = new double[shapes.size()][];
+		
+		for (int i = 0; i < shapes.size(); i++) {
+			
+			RenShape shape = shapes.get(i);
+			
+			vertices[i] = shape.getVertices();
+			if (verticesF != null)
+				verticesF[i] = shape.getVerticesF();
+			indices[i] = shape.getIndices();
+			worldViews[i] = shape.getTransform().getWorldViewMat(camView);
+			normals[i] = shape.getWorldNormals();
+			firstTri[i + 1] = firstTri[i] + indices[i].length / 3;
+		}
+		
+		int totalTris = firstTri[shapes.size()];
+		
+		/*
+		 * Figuren, deren Polygone im Screen-Space aus einem vorherigen Frame bernommen werden knnen
+		 * (siehe RenGeometryCache), werden weder transformiert noch geclippt.
+		 */
+		RenGeometryCache.Entry[] cached = geometryCache.begin(shapes, camView, threadCount);
+		int cachedCount = 0;
+		
+		for (RenGeometryCache.Entry entry : cached)
+			if (entry != null)
+				cachedCount++;
+		
+		prepareViewVerts(vertices, verticesF != null);
+		prepareFaceCulling(vertices, indices);
+		
+		// Figuren, deren Eckpunkte bereits transformiert wurden bzw. welche im aktuellen Durchgang verdeckt sind
+		boolean[] transformed = new boolean[shapes.size()];
+		boolean[] culled = new boolean[shapes.size()];
+		
+		for (int i = 0; i < threadCount; i++) {
+			
+			bins[i].resetStats();
+			
+			rasterizers[i].setTarget(target, depthBuffer, depthBufferF, (int) width);
+			rasterizers[i].setHierarchical(hierarchical);
+			rasterizers[i].setHiZ(hiZ);
+			rasterizers[i].setCoverage(coverageBuffer ? coverage : null, coveredRows, tilesX);
+			rasterizers[i].resetStats();
+			
+			clippers[i].setProjection(projMat, nearPlane);
+		}
+		
+		/*
+		 * Beim Occlusion-Culling werden die Dreiecke in mehreren Durchgngen bearbeitet, damit die Dreiecke eines
+		 * Durchganges gegen das RenHiZ aller vorherigen Durchgnge getestet werden knnen. Der erste Durchgang ist
+		 * klein (damit die ersten Figuren mglichst frh als Verdecker zur Verfgung stehen), jeder weitere doppelt
+		 * so gro (bis OCCLUSION_BATCH_MAX). Sonst werden alle Dreiecke in einem Durchgang bearbeitet.
+		 * Beim Coverage-Buffer wird ebenfalls nur ein Durchgang verwendet, da die Dreiecke nur innerhalb eines
+		 * Durchganges von vorne nach hinten sortiert werden knnen. Beim Depth-Prepass muss der Depthbuffer
+		 * vollstndig sein, bevor die Farben eingetragen werden. Beim Visibility-Buffer mssen alle Dreiecke bis zur
+		 * Schattierung (und einer erneuten Schattierung, siehe relight) in den RenTileBins erhalten bleiben.
+		 */
+		int batchSize = occlusionCulling && !coverageBuffer && !prepass && !visibilityBuffer ? OCCLUSION_BATCH_MIN
+				: Math.max(totalTris, 1);
+		int batchStart = 0;
+		
+		do {
+			
+			int start = batchStart;
+			int end = (int) Math.min((long) batchStart + batchSize, totalTris);
+			boolean clear = batchStart == 0;
+			
+			// 1. Stufe: Transformation der Eckpunkte (Vertex-Stufe)
+			transformVertices(shapes, vertices, verticesF, indices, worldViews, camera.getPosition(), inside, cached,
+					firstTri, start, end, transformed, culled);
+			
+			// 2. Stufe: Zusammensetzen, Culling, Clipping und Schattierung der Dreiecke; Einsortieren in die Kacheln
+			runParallel(worker -> {
 				
-				// Flchen-Normale des aktuellen Dreieckes ermitteln
-				Point3D line1 = new Point3D(vert[1].getX() - vert[0].getX(), vert[1].getY() - vert[0].getY(),
-						vert[1].getZ() - vert[0].getZ());
-				Point3D line2 = new Point3D(vert[2].getX() - vert[0].getX(), vert[2].getY() - vert[0].getY(),
-						vert[2].getZ() - vert[0].getZ());
-
-				Point3D normal = line1.crossProduct(line2).normalize();
+				RenTileBins workerBins = bins[worker];
+				workerBins.clear();
 				
-				// Face-Culling
-				double dot = normal.dotProduct(vert[0].subtract(camera.getPosition()));
-
-				if (dot < 0) {
+				int workerStart = start + (int) ((long) (end - start) * worker / threadCount);
+				int workerEnd = start + (int) ((long) (end - start) * (worker + 1) / threadCount);
+				
+				processTriangles(scene, shapes, indices, normals, inside, cached, firstTri, culled, workerStart,
+						workerEnd, worker, !prepass && !visibilityBuffer);
+			});
+			
+			if (visibilityBuffer)
+				for (int i = 0; i < threadCount; i++)
+					binOffsets[i + 1] = binOffsets[i] + bins[i].getTriCount();
+			
+			// 3. Stufe: Rasterisieren der Kacheln (jede Kachel wird von genau einem Thread bearbeitet)
+			if (prepass)
+				rasterizePrepass(scene);
+			else
+				runParallelTiles(worker -> tile -> rasterizeTile(tile, worker, clear));
+			
+			batchStart = end;
+			batchSize = Math.min(batchSize * 2, OCCLUSION_BATCH_MAX);
+			
+		} while (batchStart < totalTris);
+		
+		geometryCache.finish();
+		
+		// 4. Stufe (Visibility-Buffer): Schattierung der sichtbaren Dreiecke und Eintragen der Farben
+		if (visibilityBuffer) {
+			resolve(scene);
+			visScene = scene;
+		}
+		
+		stats.reset();
+		stats.countFrustumShapes(sceneShapes - shapes.size(), insideCount);
+		stats.countCachedShapes(cachedCount);
+		
+		for (RenShape shape : shapes)
+			if (shape instanceof RenStaticBatch)
+				stats.countBatch(((RenStaticBatch) shape).getMembers().size());
+		
+		for (int i = 0; i < threadCount; i++) {
+			stats.add(bins[i]);
+			stats.add(rasterizers[i]);
+		}
 
-					// Eckpunkte des aktuellen Dreieckes in View-Space transformieren
-					for (int i = 0; i < vert.length; i++) 
-						vert[i] = RenUtilities.multMatVec(camView, vert[i]);
-					
-					// Eckpunkte des aktuellen Dreieckes gegen die near Clipping-Ebene clippen
-					RenTriangle[] triangles = clipToPlane(new Point3D(0, 0, 0.5+near), new Point3D(0, 0, 1), vert,
-							tri.getColor());
+	}
+	
+	/**
+	 * Transformiert die Eckpunkte aller Figuren, welche Dreiecke in einem Bereich besitzen, mit der jeweiligen
+	 * World-View-Matrix in den View-Space (Vertex-Stufe). Jeder Eckpunkt einer Figur wird dabei (pro Frame) nur
+	 * einmal transformiert, auch wenn er von mehreren Dreiecken verwendet wird oder die Dreiecke der Figur auf
+	 * mehrere Durchgnge verteilt sind. Die Eckpunkte aller Figuren werden gleichmig auf die Threads verteilt,
+	 * sodass auch eine einzelne, groe Figur von mehreren Threads transformiert wird.
+	 * Figuren, deren Bounding-Box verdeckt ist, werden markiert und nicht transformiert.
+	 * 
+	 * Vor der Transformation wird das Face-Culling im Object-Space durchgefhrt: Die Position der Kamera wird
+	 * einmal pro Figur mit der inversen Worldmatrix in den Object-Space transformiert und mit den Ebenen der
+	 * Dreiecke (siehe RenShape#getFaceDistances) verglichen. Das Ergebnis wird in frontFaces gespeichert, und es
+	 * werden nur Eckpunkte transformiert, welche von mindestens einem vorderen Dreieck verwendet werden.
+	 * 
+	 * Bei groen Figuren wird zuvor jedes Cluster (siehe RenShape#getClusterStarts) getestet (siehe testCluster).
+	 * Wird ein Cluster verworfen, so werden alle seine Dreiecke ohne weitere Tests als nicht sichtbar markiert.
+	 * 
+	 * @param shapes		Figuren der Szene
+	 * @param vertices		Eckpunkte der Figuren (siehe RenShape#getVertices)
+	 * @param indices		Indizes der Eckpunkte der Dreiecke jeder Figur (siehe RenShape#getIndices)
+	 * @param worldViews	World-View-Matrizen der Figuren
+	 * @param camPos		Position der Kamera im World-Space
+	 * @param inside		Figuren, welche vollstndig innerhalb des sichtbaren Bereiches liegen
+	 * @param cached		Eintrge des RenGeometryCache (Figuren mit Eintrag werden nicht transformiert)
+	 * @param firstTri		Index des ersten Dreiecks jeder Figur (fortlaufend ber alle Figuren)
+	 * @param start			erstes Dreieck (einschlielich) des Bereiches
+	 * @param end			letztes Dreieck (ausschlielich) des Bereiches
+	 * @param transformed	Figuren, deren Eckpunkte bereits transformiert wurden (wird aktualisiert)
+	 * @param culled		Figuren, welche im aktuellen Bereich verdeckt sind (wird aktualisiert)
+	 */
+	private void transformVertices(List<RenShape> shapes, double[][] vertices, float[][] verticesF, int[][] indices,
+			double[][] worldViews, Point3D camPos, boolean[] inside, RenGeometryCache.Entry[] cached, int[] firstTri,
+			int start, int end, boolean[] transformed, boolean[] culled) {
+		
+		/*
+		 * Figuren, deren Eckpunkte in diesem Durchgang transformiert werden, Index ihres ersten Eckpunktes und
+		 * Dreiecks sowie Position der Kamera im Object-Space (x, y, z und Vorzeichen der Determinante der
+		 * Worldmatrix pro Figur), Cluster und grte Skalierung der Worldmatrix (fr die Bounding-Kugeln der Cluster)
+		 */
+		int[] pending = new int[shapes.size()];
+		int[] firstVert = new int[shapes.size() + 1];
+		int[] firstFace = new int[shapes.size() + 1];
+		double[] localCams = new double[shapes.size() * 4];
+		double[][] faceNormals = new double[shapes.size()][];
+		double[][] faceDistances = new double[shapes.size()][];
+		int[][] clusterStarts = new int[shapes.size()][];
+		double[][] clusterBounds = new double[shapes.size()][];
+		double[] worldScales = new double[shapes.size()];
+		int pendingCount = 0;
+		
+		for (int s = 0; s < shapes.size(); s++) {
+			
+			if (firstTri[s + 1] <= start)
+				continue;
+			if (firstTri[s] >= end)
+				break;
+			
+			// Ist die Bounding-Box der Figur verdeckt, werden ihre Dreiecke (in diesem Bereich) bersprungen.
+			culled[s] = occlusionCulling && isShapeOccluded(shapes.get(s), worldViews[s]);
+			
+			if (culled[s]) {
+				
+				if (firstTri[s] >= start)
+					bins[0].countOccludedShape();
+				
+				geometryCache.markIncomplete(s);
+				continue;
+			}
+			
+			if (transformed[s] || cached[s] != null)
+				continue;
+			
+			RenShape shape = shapes.get(s);
+			RenTransform transform = shape.getTransform();
+			
+			/*
+			 * Spiegelt die Worldmatrix (negative Determinante), so liegt die Kamera im Object-Space auf der
+			 * entgegengesetzten Seite der Ebene eines Dreiecks, dessen Vorderseite sie im World-Space sieht.
+			 */
+			Mat4.transformPoint(transform.getInverseWorldMat(), camPos.getX(), camPos.getY(), camPos.getZ(),
+					localCams, pendingCount * 4);
+			localCams[pendingCount * 4 + 3] = Math.signum(Mat4.determinant3(transform.getWorldMat()));
+			
+			faceNormals[pendingCount] = shape.getFaceNormals();
+			faceDistances[pendingCount] = shape.getFaceDistances();
+			clusterStarts[pendingCount] = shape.getClusterStarts();
+			clusterBounds[pendingCount] = shape.getClusterBounds();
+			worldScales[pendingCount] = maxScale(transform.getWorldMat());
+			
+			transformed[s] = true;
+			pending[pendingCount] = s;
+			firstVert[pendingCount + 1] = firstVert[pendingCount] + vertices[s].length / 3;
+			firstFace[pendingCount + 1] = firstFace[pendingCount] + indices[s].length / 3;
+			pendingCount++;
+		}
+		
+		int count = pendingCount;
+		int total = firstVert[count];
+		int totalFaces = firstFace[count];
+		
+		if (total == 0)
+			return;
+		
+		// Die Eckpunkte vorderer Dreiecke werden mit der Nummer des aktuellen Frames markiert (siehe vertexFrames).
+		int frame = ++this.frame;
+		
+		runParallel(worker -> {
+			
+			int from = (int) ((long) totalFaces * worker / threadCount);
+			int to = (int) ((long) totalFaces * (worker + 1) / threadCount);
+			RenTileBins workerBins = bins[worker];
+			double[] scratch = new double[3];
+			
+			for (int p = 0; p < count; p++) {
+				
+				int lo = Math.max(from, firstFace[p]) - firstFace[p];
+				int hi = Math.min(to, firstFace[p + 1]) - firstFace[p];
+				
+				if (lo >= hi)
+					continue;
+				
+				int s = pending[p];
+				int[] index = indices[s];
+				boolean[] front = frontFaces[s];
+				int[] marks = vertexFrames[s];
+				double[] normals = faceNormals[p];
+				double[] distances = faceDistances[p];
+				int[] starts = clusterStarts[p];
+				// Besteht die Figur aus nur einem Cluster, so entspricht dieses bereits der getesteten Figur.
+				boolean testClusters = clusterCulling && starts.length > 2;
+				
+				double cx = localCams[p * 4], cy = localCams[p * 4 + 1], cz = localCams[p * 4 + 2];
+				double orientation = localCams[p * 4 + 3];
+				int backfaces = 0, frontfaces = 0;
+				
+				/*
+				 * Die Cluster, welche den Bereich berhren, werden (auf den Bereich beschrnkt) nacheinander
+				 * bearbeitet. Liegt ein Cluster in den Bereichen mehrerer Threads, so testet es jeder dieser Threads,
+				 * gezhlt wird es aber nur von dem Thread, welcher sein erstes Dreieck bearbeitet.
+				 */
+				int cluster = Arrays.binarySearch(starts, lo);
+				
+				if (cluster < 0)
+					cluster = -cluster - 2;
+				
+				for (; cluster < starts.length - 1 && starts[cluster] < hi; cluster++) {
 					
-					if (triangles.length == 0)
-						continue;
+					int first = Math.max(starts[cluster], lo);
+					int last = Math.min(starts[cluster + 1], hi);
+					boolean counted = starts[cluster] >= lo;
 					
-					// Restliche Dreiecke werden weiter verarbeitet
+					int result = CLUSTER_VISIBLE;
 					
-					for (RenTriangle projTri : triangles) {
-						
-						Point3D[] projVert = projTri.getVert();
+					if (testClusters) {
 						
-						/*
-						 * Aktuelle Eckpunkte in NDC-Space transformieren.
-						 * Dabei werden diese zunchst in den Clip-Space transformiert und anschlieend
-						 * sofort in den NDC-Space mithilfe der Funktion 'multMatVec'.
-						 * View-Space -> (Clip-Space) -> NDC-Space
-						 */
-						for (int i = 0; i < projVert.length; i++)
-							projVert[i] = RenUtilities.multMatVec(projMat, projVert[i]);
+						result = testCluster(clusterBounds[p], cluster * 8, localCams, p * 4, worldScales[p],
+								shapes.get(s).getTransform().getWorldMat(), worldViews[s],
+								frustumCulling && !inside[s], scratch);
 						
-						// Das aktuelle Dreieck wird nun gegen alle restliche Clipping-Ebenen geclippt.
-						Color color2 = projTri.getColor();
-						List<RenTriangle> clipTriangles = new ArrayList<RenTriangle>();
-						
-						clipTriangles.add(new RenTriangle(projVert[0], projVert[1], projVert[2]));
+						if (counted)
+							workerBins.countCluster();
+					}
+					
+					if (result != CLUSTER_VISIBLE) {
 						
-						int trianglesToClip = 1;
+						Arrays.fill(front, first, last, false);
 						
-						for (int i = 0; i < 5; i++) {
-							
-							trianglesToClip = clipTriangles.size();
-							
-							while (trianglesToClip > 0) {
-								
-								RenTriangle testTri = clipTriangles.get(0);
-								clipTriangles.remove(0);
-								
-								RenTriangle[] clipped = new RenTriangle[0];
-								trianglesToClip--;
-								
-								
-								// Aufgrund von Ungenauigkeit muss in einigen Fllen 0.999... verwendet werden.
-								
-								if (i == 0) {
-									//right
-									clipped = clipToPlane(new Point3D(0.9999, 0, 0), new Point3D(-1, 0, 0), testTri.getVert(),
-											color2);
-									
-								} else if (i == 1) {
-									//left
-									clipped = clipToPlane(new Point3D(-1, 0, 0), new Point3D(1, 0, 0),
-											testTri.getVert(), color2);
-								} else if (i == 2) {
-									//bottom
-									clipped = clipToPlane(new Point3D(0, 0.998, 0), new Point3D(0, -1, 0),
-											testTri.getVert(), color2);
-								} else if (i == 3) {
-									//up
-									clipped = clipToPlane(new Point3D(0, -1, 0), new Point3D(0, 1, 0),
-											testTri.getVert(), color2);
-								} else if (i == 4) {
-									//far
-									clipped = clipToPlane(new Point3D(0, 0, 1), new Point3D(0, 0, -1),
-											testTri.getVert(), color2);
-								}
-
-								for (int n = 0; n < clipped.length; n++) 
-									clipTriangles.add(clipped[n]);
-
-							}
+						if (result == CLUSTER_FRUSTUM)
+							workerBins.countFrustumCluster(last - first, counted);
+						else if (result == CLUSTER_OCCLUDED) {
+							workerBins.countOccludedCluster(last - first, counted);
+							geometryCache.markIncomplete(s);
+						}
+						else {
+							workerBins.countBackfaceCluster(last - first, counted);
+							backfaces += last - first;
 						}
 						
-						// Alle, durch das Clipping entstandenen, Dreiecke in den Depth- und Framebuffer eintragen.
+						continue;
+					}
+					
+					for (int t = first; t < last; t++) {
+						
+						// Vorderseite, wenn die Kamera vor der Ebene des Dreiecks liegt
+						front[t] = (normals[t * 3] * cx + normals[t * 3 + 1] * cy + normals[t * 3 + 2] * cz
+								- distances[t]) * orientation > 0;
 						
-						for (int i=0; i < clipTriangles.size(); i++) {
-
-							RenTriangle triClip = clipTriangles.get(i);
-							
-							Point3D[] verts = triClip.getVert();
-							
-							// Aktuelles Dreieck in den Screen-Space transformieren.
-							
-							for(int j=0;j<verts.length;j++) 
-								verts[j] = new Point3D(verts[j].getX() * w + w, verts[j].getY() * h + h, projVert[j].getZ());
-							
-							clipTriangles.get(i).setV1(verts[0]);
-							clipTriangles.get(i).setV2(verts[1]);
-							clipTriangles.get(i).setV3(verts[2]);
-							
-							// Aktuelles Dreieck schattieren (Unter Einfluss der Lichtquellen).
-							
-							double r = 0, g = 0, b = 0, o = 0;
-							
-							for (Point3D dirLight : scene.getLights()) {
-
-								dirLight = dirLight.normalize();
-
-								double dotLight = normal.dotProduct(dirLight);
-								double shade = Math.max(scene.getAmbient(), dotLight);
-
-								Color shadeCol = shade(triClip.getColor(), shade);
-
-								r += shadeCol.getRed();
-								g += shadeCol.getGreen();
-								b += shadeCol.getBlue();
-								o += shadeCol.getOpacity();
-							}
-
-							if (r > 1)
-								r = 1;
-							if (g > 1)
-								g = 1;
-							if (b > 1)
-								b = 1;
-							if (o > 1)
-								o = 1;
-							
-							Color color = new Color(r, g, b, o);
-							
-							// Aktuelles Dreieck rasterieren
-							rasterizeTri(triClip.getVert(), color);
+						if (!front[t]) {
+							backfaces++;
+							continue;
 						}
-
+						
+						marks[index[t * 3]] = frame;
+						marks[index[t * 3 + 1]] = frame;
+						marks[index[t * 3 + 2]] = frame;
+						frontfaces++;
 					}
-
 				}
-
+				
+				workerBins.countBackfaceTris(backfaces);
+				workerBins.countVertexRefs(frontfaces * 3);
 			}
-
+		});
+		
+		runParallel(worker -> {
+			
+			int from = (int) ((long) total * worker / threadCount);
+			int to = (int) ((long) total * (worker + 1) / threadCount);
+			
+			for (int p = 0; p < count; p++) {
+				
+				int lo = Math.max(from, firstVert[p]) - firstVert[p];
+				int hi = Math.min(to, firstVert[p + 1]) - firstVert[p];
+				
+				if (lo >= hi)
+					continue;
+				
+				int s = pending[p];
+				int[] marks = vertexFrames[s];
+				
+				// Zusammenhngende Folgen markierter Eckpunkte transformieren
+				for (int first = lo; first < hi;) {
+					
+					while (first < hi && marks[first] != frame)
+						first++;
+					
+					int last = first;
+					
+					while (last < hi && marks[last] == frame)
+						last++;
+					
+					if (first == last)
+						break;
+					
+					if (verticesF != null)
+						Mat4.transformAffine(worldViews[s], verticesF[s], first, last, viewVertsF[s]);
+					else
+						Mat4.transformAffine(worldViews[s], vertices[s], first, last, viewVerts[s]);
+					
+					bins[worker].countTransformedVerts(last - first);
+					first = last;
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Testet ein Cluster einer Figur (siehe RenShape#getClusterBounds), bevor seine Dreiecke einzeln getestet werden.
+	 * Alle Tests sind konservativ, ein verworfenes Cluster enthlt also sicher kein sichtbares Dreieck:
+	 * <ol>
+	 * <li>Normalen-Kegel: Sind alle Normalen des Clusters von jedem Punkt der Bounding-Kugel aus (im Object-Space)
+	 * von der Kamera abgewandt, so sind alle Dreiecke Rckseiten.
+	 * <li>View-Frustum: Die Bounding-Kugel wird in den World-Space transformiert und mit dem RenFrustum getestet.
+	 * <li>Occlusion-Culling: Die Box um die Bounding-Kugel wird gegen das RenHiZ getestet (siehe isBoxOccluded).
+	 * </ol>
+	 * 
+	 * @param bounds		Bounding-Volumes der Cluster der Figur
+	 * @param off			Index des Clusters in bounds
+	 * @param localCams		Positionen der Kamera im Object-Space (x, y, z und Vorzeichen der Determinante)
+	 * @param camOff		Index der Position der Kamera in localCams
+	 * @param worldScale	grte Skalierung der Worldmatrix (siehe maxScale)
+	 * @param world			Worldmatrix der Figur
+	 * @param worldView		World-View-Matrix der Figur
+	 * @param frustumTest	true, wenn das Cluster gegen das RenFrustum getestet werden soll
+	 * @param scratch		Array (mindestens drei Werte) fr Zwischenergebnisse
+	 * @return CLUSTER_VISIBLE, CLUSTER_BACKFACE, CLUSTER_FRUSTUM oder CLUSTER_OCCLUDED
+	 */
+	private int testCluster(double[] bounds, int off, double[] localCams, int camOff, double worldScale,
+			double[] world, double[] worldView, boolean frustumTest, double[] scratch) {
+		
+		double radius = bounds[off + 3];
+		double cosAngle = bounds[off + 7];
+		
+		if (cosAngle > 0) {
+			
+			/*
+			 * Fr einen Punkt q der Kugel und eine Normale n des Kegels ist n * (q - Kamera) mindestens
+			 * |d| * cos(b + a) - radius, wobei d = Mittelpunkt - Kamera, b der Winkel zwischen d und der Achse und
+			 * a der halbe ffnungswinkel des Kegels ist. Ist dieser Wert positiv, so liegt die Kamera hinter der
+			 * Ebene jedes Dreiecks. (Ein kleiner Abstand gleicht Rundungsfehler gegenber dem Test pro Dreieck aus.)
+			 */
+			double dx = bounds[off] - localCams[camOff];
+			double dy = bounds[off + 1] - localCams[camOff + 1];
+			double dz = bounds[off + 2] - localCams[camOff + 2];
+			double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+			double along = (dx * bounds[off + 4] + dy * bounds[off + 5] + dz * bounds[off + 6]) * localCams[camOff + 3];
+			double across = Math.sqrt(Math.max(length * length - along * along, 0));
+			
+			if (along * cosAngle - across * Math.sqrt(1 - cosAngle * cosAngle) > radius + length * 1e-9)
+				return CLUSTER_BACKFACE;
 		}
-
+		
+		if (frustumTest) {
+			
+			Mat4.transformPoint(world, bounds[off], bounds[off + 1], bounds[off + 2], scratch, 0);
+			
+			if (frustum.classifySphere(scratch[0], scratch[1], scratch[2], radius * worldScale) == RenFrustum.OUTSIDE)
+				return CLUSTER_FRUSTUM;
+		}
+		
+		if (occlusionCulling && isBoxOccluded(worldView, bounds[off] - radius, bounds[off + 1] - radius,
+				bounds[off + 2] - radius, bounds[off] + radius, bounds[off + 1] + radius, bounds[off + 2] + radius,
+				scratch))
+			return CLUSTER_OCCLUDED;
+		
+		return CLUSTER_VISIBLE;
 	}
-
+	
 	/**
-	 * Stellt den Ursprungszustand des Framebuffers sowie Depthbuffers wieder her.
-	 * (Framebuffer wird mit der Farbe Schwarz und der Depthbuffer mit Double.Min_Value aufgefllt)
+	 * @param m	affine Matrix
+	 * @return grte Lnge einer der ersten drei Zeilen, also die grte Skalierung eines Vektors durch die Matrix
 	 */
-	private void refreshBuffer() {
-		for (int i = 0; i < framebuffer.length; i++) {
-			framebuffer[i] = 0xFF000000;
-			depthBuffer[i] = Double.MIN_VALUE;
+	private static double maxScale(double[] m) {
+		
+		double scale = 0;
+		
+		for (int row = 0; row < 3; row++)
+			scale = Math.max(scale, Math.sqrt(m[row * 4] * m[row * 4] + m[row * 4 + 1] * m[row * 4 + 1]
+					+ m[row * 4 + 2] * m[row * 4 + 2]));
+		
+		return scale;
+	}
+	
+	/**
+	 * Stellt sicher, dass fr jede Figur Arrays fr das Face-Culling im Object-Space (siehe frontFaces und
+	 * vertexFrames) vorhanden sind. Die Arrays werden ber mehrere Frames wiederverwendet.
+	 * 
+	 * @param vertices	Eckpunkte der Figuren (siehe RenShape#getVertices)
+	 * @param indices	Indizes der Eckpunkte der Dreiecke jeder Figur (siehe RenShape#getIndices)
+	 */
+	private void prepareFaceCulling(double[][] vertices, int[][] indices) {
+		
+		if (frontFaces == null || frontFaces.length < vertices.length) {
+			frontFaces = Arrays.copyOf(frontFaces == null ? new boolean[0][] : frontFaces, vertices.length);
+			vertexFrames = Arrays.copyOf(vertexFrames == null ? new int[0][] : vertexFrames, vertices.length);
+		}
+		
+		for (int i = 0; i < vertices.length; i++) {
+			
+			if (frontFaces[i] == null || frontFaces[i].length < indices[i].length / 3)
+				frontFaces[i] = new boolean[indices[i].length / 3];
+			
+			if (vertexFrames[i] == null || vertexFrames[i].length < vertices[i].length / 3)
+				vertexFrames[i] = new int[vertices[i].length / 3];
 		}
 	}
 	
 	/**
-	 * Clippt ein Dreieck gegen eine Ebene mithilfe des Sutherland-Hodgman Algorithmus.
+	 * Stellt sicher, dass fr jede Figur ein Array fr ihre Eckpunkte im View-Space (siehe viewVerts bzw.
+	 * viewVertsF) vorhanden ist. Die Arrays werden ber mehrere Frames wiederverwendet.
 	 * 
-	 * @param planeP 	Punkt auf Ebene
-	 * @param planeN 	Ebenen-Normale
-	 * @param vert 		Eckpunkt des Dreiecks
-	 * @param color 	Farbe des Dreiecks
-	 * @return returns 	Gibt die geclippten Dreiecke zurck (0 bis (einschlielich) 2 Dreiecke)
+	 * @param vertices	Eckpunkte der Figuren (siehe RenShape#getVertices)
+	 * @param single	true, wenn die Eckpunkte als float transformiert werden (RenPrecision.SINGLE)
 	 */
-	private RenTriangle[] clipToPlane(Point3D planeP, Point3D planeN, Point3D[] vert, Color color) {
+	private void prepareViewVerts(double[][] vertices, boolean single) {
 		
-		// Sutherland-Hodgman Algorithmus
+		if (single) {
+			
+			if (viewVertsF == null || viewVertsF.length < vertices.length)
+				viewVertsF = Arrays.copyOf(viewVertsF == null ? new float[0][] : viewVertsF, vertices.length);
+			
+			for (int i = 0; i < vertices.length; i++)
+				if (viewVertsF[i] == null || viewVertsF[i].length < vertices[i].length)
+					viewVertsF[i] = new float[vertices[i].length];
+			
+			return;
+		}
+		
+		if (viewVerts == null || viewVerts.length < vertices.length)
+			viewVerts = Arrays.copyOf(viewVerts == null ? new double[0][] : viewVerts, vertices.length);
+		
+		for (int i = 0; i < vertices.length; i++)
+			if (viewVerts[i] == null || viewVerts[i].length < vertices[i].length)
+				viewVerts[i] = new double[vertices[i].length];
+	}
+	
+	/**
+	 * Setzt einen zusammenhngenden Bereich der Dreiecke einer Szene aus den transformierten Eckpunkten
+	 * (siehe transformVertices) zusammen, cullt, clippt und schattiert diese und trgt die daraus resultierenden
+	 * Dreiecke (im Screen-Space) in die RenTileBins des aktuellen Threads ein.
+	 * Dreiecke, welche beim Face-Culling im Object-Space (siehe transformVertices) als Rckseite erkannt wurden,
+	 * werden bersprungen. Die Flchen-Normalen werden aus RenShape#getWorldNormals bernommen.
+	 * Fr Figuren mit einem Eintrag im RenGeometryCache werden die gespeicherten Polygone bernommen, andere Figuren
+	 * werden (wenn gewnscht) fr den RenGeometryCache aufgezeichnet.
+	 * 
+	 * @param scene			Szene, welche gerendert werden soll
+	 * @param shapes		Figuren der Szene (in der Reihenfolge, in welcher sie gezeichnet werden)
+	 * @param indices		Indizes der Eckpunkte der Dreiecke jeder Figur (siehe RenShape#getIndices)
+	 * @param normals		Flchen-Normalen der Dreiecke jeder Figur im World-Space (siehe RenShape#getWorldNormals)
+	 * @param inside		Figuren, welche vollstndig innerhalb des RenFrustum liegen (werden nicht geclippt)
+	 * @param cached		Eintrge des RenGeometryCache (oder null pro Figur)
+	 * @param firstTri		Index des ersten Dreiecks jeder Figur (fortlaufend ber alle Figuren)
+	 * @param culled		Figuren, welche im aktuellen Bereich verdeckt sind
+	 * @param start			erstes Dreieck (einschlielich), welches bearbeitet werden soll
+	 * @param end			letztes Dreieck (ausschlielich), welches bearbeitet werden soll
+	 * @param worker		Nummer des aktuellen Threads
+	 * @param shading		true, wenn die Dreiecke sofort schattiert werden sollen (sonst erst bei Bedarf)
+	 */
+	private void processTriangles(RenScene scene, List<RenShape> shapes, int[][] indices, double[][] normals,
+			boolean[] inside, RenGeometryCache.Entry[] cached, int[] firstTri, boolean[] culled, int start, int end,
+			int worker, boolean shading) {
 		
-		List<Point3D> output = new ArrayList<Point3D>();
+		RenTileBins bins = this.bins[worker];
+		RenClipper clipper = clippers[worker];
+		boolean single = precision == RenPrecision.SINGLE;
 		
-		for(int i=0;i<vert.length;i++) {
+		// Rendern der Figuren
+		for (int s = 0; s < shapes.size(); s++) {
+			
+			if (firstTri[s + 1] <= start)
+				continue;
+			if (firstTri[s] >= end)
+				break;
+			if (culled[s])
+				continue;
+			
+			List<RenTriangle> polys = shapes.get(s).getPolys();
+			double[] view = single ? null : viewVerts[s];
+			float[] viewF = single ? viewVertsF[s] : null;
+			int[] index = indices[s];
+			double[] normal = normals[s];
+			boolean[] front = frontFaces[s];
+			
+			int first = Math.max(start, firstTri[s]) - firstTri[s];
+			int last = Math.min(end, firstTri[s + 1]) - firstTri[s];
+			
+			if (cached[s] != null) {
+				
+				double[] verts = cached[s].getVerts();
+				int[] polyStarts = cached[s].getPolyStarts();
+				
+				for (int t = first; t < last; t++)
+					if (polyStarts[t + 1] - polyStarts[t] >= 3)
+						emitFan(scene, verts, polyStarts[t], polyStarts[t + 1] - polyStarts[t], polys.get(t), normal,
+								t * 3, bins, shading);
+				
+				continue;
+			}
 			
-			Point3D currentPoint = vert[i];
-			Point3D prevPoint = vert[(i + vert.length - 1) % vert.length];
-			Point3D interstection = lineIntersectPlane(planeP, planeN, currentPoint, prevPoint);
+			boolean recording = geometryCache.isRecording(s);
 			
-			double dist1 = getDistance(currentPoint, planeN, planeP);
-			double dist2 = getDistance(prevPoint, planeN, planeP);
+			if (recording)
+				geometryCache.beginSegment(worker, s, first);
 			
-			if(dist1 >= 0) {
+			// Jedes Dreieck der Figur (innerhalb des Bereiches) abarbeiten
+			for (int t = first; t < last; t++) {
 				
-				if(dist2 < 0) {
-					output.add(interstection);
+				if (!front[t])
+					continue;
+				
+				int i0 = index[t * 3] * 3;
+				int i1 = index[t * 3 + 1] * 3;
+				int i2 = index[t * 3 + 2] * 3;
+				
+				double x0, y0, z0, x1, y1, z1, x2, y2, z2;
+				
+				if (single) {
+					x0 = viewF[i0]; y0 = viewF[i0 + 1]; z0 = viewF[i0 + 2];
+					x1 = viewF[i1]; y1 = viewF[i1 + 1]; z1 = viewF[i1 + 2];
+					x2 = viewF[i2]; y2 = viewF[i2 + 1]; z2 = viewF[i2 + 2];
+				} else {
+					x0 = view[i0]; y0 = view[i0 + 1]; z0 = view[i0 + 2];
+					x1 = view[i1]; y1 = view[i1 + 1]; z1 = view[i1 + 2];
+					x2 = view[i2]; y2 = view[i2 + 1]; z2 = view[i2 + 2];
 				}
 				
-				output.add(currentPoint);
+				// Clippen im Clip-Space (das Ergebnis liegt im NDC-Space)
+				int count = inside[s] ? clipper.projectTriangle(x0, y0, z0, x1, y1, z1, x2, y2, z2)
+						: clipper.clipTriangle(x0, y0, z0, x1, y1, z1, x2, y2, z2);
+				
+				if (count == 0)
+					continue;
 				
-			}else if(dist2 >= 0) {
-				output.add(interstection);
+				if (clipper.wasClipped())
+					bins.countClippedTri();
+				
+				emitPolygon(scene, clipper.getResult(), count, polys.get(t), normal, t * 3, bins, shading);
+				
+				if (recording)
+					geometryCache.record(worker, s, t, clipper.getResult(), count);
 			}
 			
 		}
 		
-		// Konstruieren der Dreiecke (wenn Eckpunkte vorhanden)
+	}
+	
+	/**
+	 * Schattiert die Pixel des Framebuffers erneut aus dem Visibility-Buffer des letzten Frames, ohne die Figuren
+	 * erneut zu transformieren, zu clippen oder zu rasterisieren. Dies ist nur mglich, wenn der Visibility-Buffer
+	 * verwendet wird und zuletzt dieselbe Szene mit update gerendert wurde. Die Funktion darf nur verwendet werden,
+	 * wenn sich seitdem lediglich die Lichtquellen, das Umgebungslicht oder die Farben der Dreiecke
+	 * (z.B. RenShape#setColor) gendert haben, nicht aber die Geometrie, die Transformationen oder die Kamera.
+	 * 
+	 * @param scene	Szene, welche zuletzt gerendert wurde
+	 * @return true, wenn der Framebuffer neu schattiert wurde; false, wenn die Szene mit update gerendert werden muss
+	 */
+	public boolean relight(RenScene scene) {
 		
-		if(output.isEmpty())
-			return new RenTriangle[] {};
-		else if(output.size() == 3) {
-			return new RenTriangle[] {
-					new RenTriangle(output.get(0), output.get(1), output.get(2), color),
-					};
-		}else if(output.size() == 4) {
-			return new RenTriangle[] {
-					new RenTriangle(output.get(2), output.get(0), output.get(1), color),
-					new RenTriangle(output.get(2), output.get(0), output.get(3), color),
-					};
-		}
+		if (!visibilityBuffer || scene != visScene)
+			return false;
 		
-		return null;
+		prepareShading(scene);
+		resolve(scene);
+		
+		return true;
 	}
 	
 	/**
-	 * Rasteriert ein Dreieck, d.h. das Dreieck wird in den Depth- und Framebuffer
-	 * eingetragen.
+	 * bernimmt die Lichtquellen einer Szene (siehe updateLights) und erstellt die Karte des RenLightCache neu,
+	 * wenn sich die Lichtquellen gendert haben.
 	 * 
-	 * @param vert Scheitelpunkt des Dreiecks
-	 * @param color Farbe des Dreiecks (mit Schattierung)
+	 * @param scene	Szene, welche gerendert wird
 	 */
-	private void rasterizeTri(Point3D[] vert, Color color) {
-
-		double a = edgeFunction(vert[0], vert[1], new Point2D(vert[2].getX(), vert[2].getY()));
-		double dZ1 = vert[1].getZ() - vert[0].getZ();
-		double dZ2 = vert[2].getZ() - vert[0].getZ();
-
-		int maxX = (int) Math.max(vert[0].getX(), Math.max(vert[1].getX(), vert[2].getX()));
-		int maxY = (int) Math.max(vert[0].getY(), Math.max(vert[1].getY(), vert[2].getY()));
-		int minX = (int) Math.min(vert[0].getX(), Math.min(vert[1].getX(), vert[2].getX()));
-		int minY = (int) Math.min(vert[0].getY(), Math.min(vert[1].getY(), vert[2].getY()));
-
-		// Jedes Pixel der zu zeichnenden Flche wird untersucht, ob es von dem beschriebenen Dreieck beeinflusst wird.
-		for (int x = minX; x <= maxX; x++) {
-			for (int y = minY; y <= maxY; y++) {
-
-				int index = (int) (y * width + x);
-				Point2D p = new Point2D(x, y);
-
-				double w1 = edgeFunction(vert[1], vert[2], p);
-				double w2 = edgeFunction(vert[2], vert[0], p);
-				double w3 = edgeFunction(vert[0], vert[1], p);
+	private void prepareShading(RenScene scene) {
+		
+		updateLights(scene);
+		
+		if (lightCache != null && lightCache.prepare(scene))
+			runParallel(worker -> lightCache.build(RenLightCache.RESOLUTION * worker / threadCount,
+					RenLightCache.RESOLUTION * (worker + 1) / threadCount));
+	}
+	
+	/**
+	 * Schattiert die Dreiecke, welche im Visibility-Buffer sichtbar sind, und trgt ihre Farben in den Framebuffer
+	 * ein (Resolve). Dies geschieht in drei parallelen Schritten:
+	 * <ol>
+	 * <li>Alle Dreiecke, welche in mindestens einem Pixel sichtbar sind, werden markiert.
+	 * <li>Jedes markierte Dreieck wird genau einmal schattiert (von dem Thread, welcher es erzeugt hat).
+	 * <li>Jedes Pixel erhlt die Farbe seines Dreiecks.
+	 * </ol>
+	 * Da die Dreiecke flach schattiert werden, ist das Bild identisch mit dem Bild ohne Visibility-Buffer.
+	 * 
+	 * @param scene	Szene, welche gerendert wird
+	 */
+	private void resolve(RenScene scene) {
+		
+		int pixels = framebuffer.length;
+		
+		runParallel(worker -> {
+			
+			int from = (int) ((long) pixels * worker / threadCount);
+			int to = (int) ((long) pixels * (worker + 1) / threadCount);
+			
+			for (int i = from; i < to; i++) {
 				
-				/*
-				 * berprfen, ob Pixel von beschriebenen Dreieck beeinflusst wird
-				 * true, wenn Pixel ist in Dreieck (einschlielich Grenzen des Dreiecks)
-				 * false, wenn Pixel ist auerhalb
-				 */
-				boolean inTri = (w1 <= 0 && w2 <= 0 && w3 <= 0) || (w1 >= 0 && w2 >= 0 && w3 >= 0);
+				int id = visBuffer[i] - 1;
 				
-				if (inTri) {
-					
-					// z-Koordiante des Pixels bestimmen
-					
-					w1 /= a;
-					w2 /= a;
-					w3 /= a;
-
-					// Depthtest vollfhren
-					
-					double z = vert[0].getZ() + w1 * dZ1 + w3 * dZ2;
-					z = 1 / z;
-
-					if (depthBuffer[index] < z) {
-						// Wert in Depth- und Framebuffer aktualisieren
-						depthBuffer[index] = z;
-						framebuffer[index] = color.hashCode();
-					}
-
+				if (id < 0)
+					continue;
+				
+				int b = binOf(id);
+				bins[b].setVisible(id - binOffsets[b]);
+			}
+		});
+		
+		runParallel(worker -> {
+			
+			RenTileBins workerBins = bins[worker];
+			
+			for (int t = 0; t < workerBins.getTriCount(); t++)
+				if (workerBins.isVisible(t))
+					workerBins.setColor(t, shadeTriangle(scene, workerBins.getNormals(), t * 3, workerBins.getBaseColor(t)));
+		});
+		
+		runParallel(worker -> {
+			
+			int from = (int) ((long) pixels * worker / threadCount);
+			int to = (int) ((long) pixels * (worker + 1) / threadCount);
+			
+			for (int i = from; i < to; i++) {
+				
+				int id = visBuffer[i] - 1;
+				
+				if (id < 0) {
+					framebuffer[i] = 0xFF000000;
+					continue;
 				}
+				
+				int b = binOf(id);
+				framebuffer[i] = bins[b].getColors()[id - binOffsets[b]];
 			}
-		}
-
+		});
 	}
-
+	
 	/**
-	 * Errechnet den Schnittpunkt einer Geraden mit einer Ebene
-	 * 
-	 * @param planeP Punkt auf Ebene
-	 * @param planeN Ebenen-Normale
-	 * @param lineStart Punkt auf Geraden
-	 * @param lineEnd Punkt auf Geraden
-	 * @return returns Gibt den Schnittpunkt von der beschriebenen Gerade und Ebene zurck (wenn vorhanden).
+	 * @param id	Nummer eines Dreiecks im Visibility-Buffer (ohne + 1)
+	 * @return Index der RenTileBins, welche das Dreieck enthalten
 	 */
-	private Point3D lineIntersectPlane(Point3D planeP, Point3D planeN, Point3D lineStart, Point3D lineEnd) {
+	private int binOf(int id) {
 		
-		planeN = planeN.normalize();
+		int b = 0;
 		
-		double planeDot = -planeN.dotProduct(planeP);
+		while (id >= binOffsets[b + 1])
+			b++;
 		
-		double a = lineStart.dotProduct(planeN);
-		double b = lineEnd.dotProduct(planeN);
-		double c = (-planeDot - a) / (b - a);
-
-		Point3D line = lineEnd.subtract(lineStart);
-		Point3D intersection = line.multiply(c);
-
-		return lineStart.add(intersection);
+		return b;
 	}
-
+	
 	/**
+	 * Gibt den Wert zurck, welcher fr ein Dreieck in den Framebuffer (bzw. den Visibility-Buffer) eingetragen wird.
 	 * 
-	 * @param point3d Punkt, welcher bearbeitet werden soll
-	 * @param planeN Ebenen-Normale
-	 * @param planeP Punkt auf Ebene
-	 * @return returns Gibt die Distanz des beschriebenen Punktes zu der Ebene zurck 
-	 * (wenn Punkt auf Seite von Normale liegt: positiv; wenn auf Ebene: 0; sonst negativ).
+	 * @param b		Index der RenTileBins, welche das Dreieck enthalten
+	 * @param tri	Index des Dreiecks
+	 * @return Farbe des Dreiecks als ARGB-Wert bzw. seine Nummer im Visibility-Buffer
 	 */
-	private double getDistance(Point3D point3d, Point3D planeN, Point3D planeP) {
-		return (planeN.getX() * point3d.getX() + planeN.getY() * point3d.getY() + planeN.getZ() * point3d.getZ()
-				- planeN.dotProduct(planeP));
+	private int triValue(int b, int tri) {
+		return visibilityBuffer ? binOffsets[b] + tri + 1 : bins[b].getColors()[tri];
 	}
-
+	
 	/**
-	 * gibt einen negativen Wert zurck, wenn Punkt auf der rechten Seite der beschriebenen Geraden (durch v1 und v2) liegt.
-	 * gibt einen positiven Wert zurck, wenn Punkt auf der linken Seite der beschriebenen Geraden (durch v1 und v2) liegt.
+	 * bernimmt die normierten Richtungen aller Lichtquellen einer Szene (siehe lights). Da die Flchen-Normalen im
+	 * World-Space vorliegen, mssen die Lichtquellen nicht transformiert werden.
 	 * 
-	 * @param v1 Geraden Punkt
-	 * @param v2 zweiter Geraden Punkt
-	 * @param p Punkt, welcher bearbeitet werden soll
-	 * @return returns gibt den Wert der Edge-Function zurck
+	 * @param scene	Szene, welche gerendert wird
 	 */
-	private double edgeFunction(Point3D v1, Point3D v2, Point2D p) {
-		return (p.getX() - v1.getX()) * (v2.getY() - v1.getY()) - (p.getY() - v1.getY()) * (v2.getX() - v1.getX());
+	private void updateLights(RenScene scene) {
+		
+		int count = scene.getLights().size();
+		
+		if (lights == null || lights.length != count * 3)
+			lights = new double[count * 3];
+		
+		for (int i = 0; i < count; i++) {
+			
+			Point3D dir = scene.getLights().get(i).normalize();
+			
+			Vec3.set(dir.getX(), dir.getY(), dir.getZ(), lights, i * 3);
+		}
 	}
 
 	/**
-	 * Schattiert eine Farbe mit einem bestimmten Wert
+	 * Transformiert ein (geclipptes) konvexes Polygon aus dem NDC-Space in den Screen-Space, zerlegt dieses in einen
+	 * Fcher von Dreiecken um den ersten Eckpunkt und trgt diese (schattiert oder zur verzgerten Schattierung)
+	 * in die angegebenen RenTileBins ein.
 	 * 
-	 * @param color Grundfarbe
-	 * @param shade Wert, mit welchem schattiert wird
-	 * @return returns schattierte Farbe
+	 * @param scene		Szene, welche gerendert wird
+	 * @param poly		Eckpunkte des Polygons im NDC-Space (x, y, z pro Eckpunkt; wird berschrieben)
+	 * @param count		Anzahl der Eckpunkte des Polygons
+	 * @param source	Dreieck der Figur, aus welchem das Polygon entstanden ist (enthlt die Farbe)
+	 * @param normals	Flchen-Normalen im World-Space (x, y, z pro Dreieck)
+	 * @param normalOff	Index der Normale des Polygons in normals
+	 * @param bins		RenTileBins, in welche die Dreiecke eingetragen werden
+	 * @param shading	true, wenn die Dreiecke sofort schattiert werden sollen
 	 */
-	private Color shade(Color color, double shade) {
-
-		double red = color.getRed() * shade;
-		double green = color.getGreen() * shade;
-		double blue = color.getBlue() * shade;
-		double opacity = color.getOpacity() * shade;
-
-		return new Color(opacity, Math.abs(red), Math.abs(green), Math.abs(blue));
-
+	private void emitPolygon(RenScene scene, double[] poly, int count, RenTriangle source, double[] normals,
+			int normalOff, RenTileBins bins, boolean shading) {
+		
+		double w = width / 2;
+		double h = height / 2;
+		
+		/*
+		 * Polygon in den Screen-Space transformieren.
+		 * Als z-Koordinate wird der Wert fr den Depthbuffer gespeichert (linear zu 1/z, 
+		 * z im View-Space), da sich dieser Wert im Screen-Space linear interpolieren lsst.
+		 */
+		for (int i = 0; i < count * 3; i += 3) {
+			poly[i] = poly[i] * w + w;
+			poly[i + 1] = poly[i + 1] * h + h;
+			poly[i + 2] = ndcToDepth(poly[i + 2]);
+		}
+		
+		// Bei RenPrecision.SINGLE erhlt der Rasterizer auf float gerundete Koordinaten.
+		if (precision == RenPrecision.SINGLE)
+			for (int i = 0; i < count * 3; i++)
+				poly[i] = (float) poly[i];
+		
+		emitFan(scene, poly, 0, count, source, normals, normalOff, bins, shading);
+	}
+	
+	/**
+	 * Zerlegt ein konvexes Polygon im Screen-Space in einen Fcher von Dreiecken um seinen ersten Eckpunkt und trgt
+	 * diese (schattiert oder zur verzgerten Schattierung) in die angegebenen RenTileBins ein.
+	 * 
+	 * @param scene		Szene, welche gerendert wird
+	 * @param poly		Array, welches die Eckpunkte des Polygons im Screen-Space enthlt (x, y, z pro Eckpunkt)
+	 * @param first		Index des ersten Eckpunktes des Polygons in poly
+	 * @param count		Anzahl der Eckpunkte des Polygons
+	 * @param source	Dreieck der Figur, aus welchem das Polygon entstanden ist (enthlt die Farbe)
+	 * @param normals	Flchen-Normalen im World-Space (x, y, z pro Dreieck)
+	 * @param normalOff	Index der Normale des Polygons in normals
+	 * @param bins		RenTileBins, in welche die Dreiecke eingetragen werden
+	 * @param shading	true, wenn die Dreiecke sofort schattiert werden sollen
+	 */
+	private void emitFan(RenScene scene, double[] poly, int first, int count, RenTriangle source, double[] normals,
+			int normalOff, RenTileBins bins, boolean shading) {
+		
+		// Die Farbe wird hchstens einmal pro Polygon ermittelt.
+		int shaded = 0;
+		boolean isShaded = false;
+		
+		for (int i = first + 1; i < first + count - 1; i++) {
+			
+			// Verdeckte Dreiecke mssen weder schattiert noch rasterisiert werden.
+			if (occlusionCulling && isTriangleOccluded(poly, first, i, i + 1)) {
+				bins.countOccludedTri();
+				continue;
+			}
+			
+			// Aktuelles Dreieck schattieren und in die Kacheln einsortieren
+			if (shading) {
+				
+				if (!isShaded) {
+					shaded = shadeTriangle(scene, normals, normalOff, source.getArgb());
+					isShaded = true;
+				}
+				
+				bins.add(poly, first, i, i + 1, shaded, (int) width, (int) height);
+				
+			} else {
+				bins.addDeferred(poly, first, i, i + 1, source, normals, normalOff, (int) width, (int) height);
+			}
+		}
 	}
+	
+	/**
+	 * Schattiert ein Dreieck unter Einfluss der Lichtquellen einer Szene (siehe lights).
+	 * Jede Lichtquelle trgt die Grundfarbe (alle vier Kanle) multipliziert mit ihrer Helligkeit bei, die Summe
+	 * wird pro Kanal auf 1 begrenzt. Da die Grundfarbe fr alle Lichtquellen gleich ist, gengt es, die Helligkeiten
+	 * zu addieren. Es werden keine Objekte erzeugt.
+	 * Wird der RenLightCache verwendet, so wird die Summe der Helligkeiten fr die Normale aus dessen Karte gelesen,
+	 * anstatt ber alle Lichtquellen zu iterieren.
+	 * 
+	 * @param scene		Szene, deren Umgebungslicht verwendet wird
+	 * @param normals	Flchen-Normalen im World-Space (x, y, z pro Dreieck)
+	 * @param off		Index der Normale des Dreiecks in normals
+	 * @param baseColor	Grundfarbe des Dreiecks als ARGB-Wert
+	 * @return schattierte Farbe des Dreiecks als ARGB-Wert
+	 */
+	private int shadeTriangle(RenScene scene, double[] normals, int off, int baseColor) {
+		
+		double shade = 0;
+		
+		if (lightCache != null) {
+			
+			shade = lightCache.lookup(normals[off], normals[off + 1], normals[off + 2]);
+			
+		} else {
+			
+			for (int i = 0; i < lights.length; i += 3) {
 
+				double dotLight = normals[off] * lights[i] + normals[off + 1] * lights[i + 1]
+						+ normals[off + 2] * lights[i + 2];
+				
+				shade += Math.max(scene.getAmbient(), dotLight);
+			}
+		}
+		
+		return shadeChannel(baseColor >>> 24, shade) << 24 | shadeChannel((baseColor >> 16) & 0xFF, shade) << 16
+				| shadeChannel((baseColor >> 8) & 0xFF, shade) << 8 | shadeChannel(baseColor & 0xFF, shade);
+	}
+	
+	/**
+	 * Schattiert einen Kanal einer Farbe.
+	 * 
+	 * @param channel	Wert des Kanals (0 bis 255)
+	 * @param shade		Summe der Helligkeiten aller Lichtquellen
+	 * @return schattierter Wert des Kanals (0 bis 255)
+	 */
+	private static int shadeChannel(int channel, double shade) {
+		return (int) Math.round(Math.min(Math.abs(channel * shade), 255));
+	}
+	
+	/**
+	 * Rasteriert die Dreiecke aller Kacheln in drei Stufen (Depth-Prepass):
+	 * <ol>
+	 * <li>Alle Dreiecke werden nur in den Depthbuffer eingetragen. Anschlieend wird das RenHiZ der Kachel ermittelt
+	 * und jedes Dreieck, welches in der Kachel nicht vollstndig verdeckt ist, als sichtbar markiert.
+	 * <li>Nur die sichtbaren Dreiecke werden schattiert.
+	 * <li>Die sichtbaren Dreiecke werden erneut rasterisiert. Dabei werden nur die Pixel eingetragen, deren Wert mit dem
+	 * Wert im Depthbuffer bereinstimmt.
+	 * </ol>
+	 * In der 3. Stufe werden die Dreiecke in umgekehrter Reihenfolge gezeichnet, sodass bei gleichen Werten (wie mit
+	 * Depthtest) das zuerst eingetragene Dreieck sichtbar ist. Das Bild ist somit identisch mit dem Bild ohne Depth-Prepass.
+	 * 
+	 * @param scene Szene, welche gerendert wird
+	 */
+	private void rasterizePrepass(RenScene scene) {
+		
+		// 1. Depth-Pass
+		runParallelTiles(worker -> tile -> {
+			
+			RenRasterizer rasterizer = rasterizers[worker];
+			int tileX = (tile % tilesX) * TILE_SIZE;
+			int tileY = (tile / tilesX) * TILE_SIZE;
+			int tileMaxX = Math.min(tileX + TILE_SIZE, (int) width) - 1;
+			int tileMaxY = Math.min(tileY + TILE_SIZE, (int) height) - 1;
+			
+			clearTile(tileX, tileY, tileMaxX, tileMaxY);
+			
+			rasterizer.setPass(RenRasterizer.PASS_DEPTH);
+			
+			for (RenTileBins workerBins : bins) {
+				
+				int[] tris = workerBins.getTileTris(tile);
+				
+				for (int i = 0; i < workerBins.getTileCount(tile); i++) {
+					
+					if (occlusionCulling && rasterizer.isHidden(workerBins.getVerts(), tris[i] * 9, tileX, tileY,
+							tileMaxX, tileMaxY))
+						continue;
+					
+					rasterizer.rasterizeTri(workerBins.getVerts(), tris[i] * 9, 0, tileX, tileY, tileMaxX, tileMaxY);
+				}
+			}
+			
+			hiZ.rebuildTile(tile, depthBuffer, depthBufferF);
+			
+			// Dreiecke, welche in dieser Kachel (zumindest teilweise) sichtbar sein knnen, markieren
+			for (RenTileBins workerBins : bins) {
+				
+				int[] tris = workerBins.getTileTris(tile);
+				
+				for (int i = 0; i < workerBins.getTileCount(tile); i++)
+					if (!rasterizer.isOccluded(workerBins.getVerts(), tris[i] * 9, tileX, tileY, tileMaxX, tileMaxY))
+						workerBins.setVisible(tris[i]);
+			}
+		});
+		
+		// 2. Schattierung der sichtbaren Dreiecke
+		runParallel(worker -> {
+			
+			RenTileBins workerBins = bins[worker];
+			
+			for (int t = 0; t < workerBins.getTriCount(); t++)
+				if (workerBins.isVisible(t))
+					workerBins.setColor(t, shadeTriangle(scene, workerBins.getNormals(), t * 3, workerBins.getBaseColor(t)));
+		});
+		
+		// 3. Farb-Pass (in umgekehrter Reihenfolge)
+		runParallelTiles(worker -> tile -> {
+			
+			RenRasterizer rasterizer = rasterizers[worker];
+			int tileX = (tile % tilesX) * TILE_SIZE;
+			int tileY = (tile / tilesX) * TILE_SIZE;
+			int tileMaxX = Math.min(tileX + TILE_SIZE, (int) width) - 1;
+			int tileMaxY = Math.min(tileY + TILE_SIZE, (int) height) - 1;
+			
+			rasterizer.setPass(RenRasterizer.PASS_COLOR);
+			
+			for (int b = bins.length - 1; b >= 0; b--) {
+				
+				int[] tris = bins[b].getTileTris(tile);
+				
+				for (int i = bins[b].getTileCount(tile) - 1; i >= 0; i--) {
+					
+					int tri = tris[i];
+					
+					if (!bins[b].isVisible(tri) || rasterizer.isHidden(bins[b].getVerts(), tri * 9, tileX, tileY,
+							tileMaxX, tileMaxY))
+						continue;
+					
+					rasterizer.rasterizeTri(bins[b].getVerts(), tri * 9, bins[b].getColors()[tri], tileX, tileY,
+							tileMaxX, tileMaxY);
+				}
+			}
+			
+			rasterizer.setPass(RenRasterizer.PASS_NORMAL);
+		});
+	}
+	
+	/**
+	 * Sortiert Figuren nach dem Abstand ihrer Position zu der Kamera (die nchste Figur zuerst).
+	 * Figuren mit gleichem Abstand behalten ihre Reihenfolge. (Bei einem RenStaticBatch wird der Mittelpunkt seiner
+	 * Bounding-Kugel verwendet, da seine Position stets der Ursprung ist.)
+	 * 
+	 * @param shapes	Figuren, welche sortiert werden sollen (wird sortiert)
+	 * @param inside	Markierungen der Figuren (siehe RenBvh#cull), werden mit den Figuren umsortiert
+	 * @param camPos	Position der Kamera
+	 */
+	private static void sortFrontToBack(List<RenShape> shapes, boolean[] inside, Point3D camPos) {
+		
+		Integer[] order = new Integer[shapes.size()];
+		
+		for (int i = 0; i < order.length; i++)
+			order[i] = i;
+		
+		double[] distances = new double[order.length];
+		
+		for (int i = 0; i < order.length; i++) {
+			
+			RenShape shape = shapes.get(i);
+			
+			if (shape instanceof RenStaticBatch) {
+				double[] bounds = shape.getWorldBounds();
+				distances[i] = camPos.distance(bounds[6], bounds[7], bounds[8]);
+			} else {
+				distances[i] = shape.getPosition().distance(camPos);
+			}
+		}
+		
+		Arrays.sort(order, Comparator.comparingDouble(i -> distances[i]));
+		
+		List<RenShape> unsorted = new ArrayList<RenShape>(shapes);
+		boolean[] unsortedInside = Arrays.copyOf(inside, order.length);
+		
+		for (int i = 0; i < order.length; i++) {
+			shapes.set(i, unsorted.get(order[i]));
+			inside[i] = unsortedInside[order[i]];
+		}
+	}
+	
+	/**
+	 * berprft, ob ein Dreieck im Screen-Space vollstndig verdeckt ist.
+	 * 
+	 * @param poly	Eckpunkte eines Polygons im Screen-Space (x, y, z pro Eckpunkt; z ist der Wert fr den Depthbuffer)
+	 * @param v0	Index des 1. Eckpunktes des Dreiecks in poly
+	 * @param v1	Index des 2. Eckpunktes des Dreiecks in poly
+	 * @param v2	Index des 3. Eckpunktes des Dreiecks in poly
+	 * @return true, wenn das Dreieck verdeckt ist
+	 */
+	private boolean isTriangleOccluded(double[] poly, int v0, int v1, int v2) {
+		
+		v0 *= 3;
+		v1 *= 3;
+		v2 *= 3;
+		
+		double minX = Math.min(poly[v0], Math.min(poly[v1], poly[v2]));
+		double minY = Math.min(poly[v0 + 1], Math.min(poly[v1 + 1], poly[v2 + 1]));
+		double maxX = Math.max(poly[v0], Math.max(poly[v1], poly[v2]));
+		double maxY = Math.max(poly[v0 + 1], Math.max(poly[v1 + 1], poly[v2 + 1]));
+		double nearest = Math.max(poly[v0 + 2], Math.max(poly[v1 + 2], poly[v2 + 2]));
+		
+		return hiZ.isOccluded((int) Math.floor(minX) - 1, (int) Math.floor(minY) - 1, (int) maxX + 1, (int) maxY + 1,
+				nearest);
+	}
+	
+	/**
+	 * berprft, ob die Bounding-Box des Dreiecksnetzes einer Figur (siehe RenShape#getMeshBounds) vollstndig
+	 * verdeckt ist (siehe isBoxOccluded). Figuren, deren Bounding-Box nur aus einem Punkt besteht, gelten nie als
+	 * verdeckt.
+	 * 
+	 * @param shape		Figur, welche berprft werden soll
+	 * @param worldView	World-View-Matrix der Figur
+	 * @return true, wenn die Figur verdeckt ist
+	 */
+	private boolean isShapeOccluded(RenShape shape, double[] worldView) {
+		
+		double[] bounds = shape.getMeshBounds();
+		
+		if (bounds[0] == bounds[3] && bounds[1] == bounds[4] && bounds[2] == bounds[5])
+			return false;
+		
+		return isBoxOccluded(worldView, bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5], corner);
+	}
+	
+	/**
+	 * berprft, ob eine Box im Object-Space vollstndig verdeckt ist.
+	 * Dazu werden die acht Eckpunkte der Box in den Screen-Space transformiert. Die Box ist verdeckt, wenn das
+	 * Rechteck um diese Eckpunkte bereits berall nher an der Kamera liegt als der nchste dieser Eckpunkte.
+	 * Boxen, welche die near Clipping-Ebene schneiden, gelten nie als verdeckt. (Mit verschiedenen Arrays fr
+	 * Zwischenergebnisse kann diese Funktion von mehreren Threads gleichzeitig aufgerufen werden.)
+	 * 
+	 * @param worldView	World-View-Matrix der Figur, zu welcher die Box gehrt
+	 * @param boxMinX	kleinste x-Koordinate der Box
+	 * @param boxMinY	kleinste y-Koordinate der Box
+	 * @param boxMinZ	kleinste z-Koordinate der Box
+	 * @param boxMaxX	grte x-Koordinate der Box
+	 * @param boxMaxY	grte y-Koordinate der Box
+	 * @param boxMaxZ	grte z-Koordinate der Box
+	 * @param corner	Array (mindestens drei Werte) fr Zwischenergebnisse
+	 * @return true, wenn die Box verdeckt ist
+	 */
+	private boolean isBoxOccluded(double[] worldView, double boxMinX, double boxMinY, double boxMinZ, double boxMaxX,
+			double boxMaxY, double boxMaxZ, double[] corner) {
+		
+		double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, nearest = -Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+		
+		for (int i = 0; i < 8; i++) {
+			
+			Mat4.transformPoint(worldView, (i & 1) == 0 ? boxMinX : boxMaxX, (i & 2) == 0 ? boxMinY : boxMaxY,
+					(i & 4) == 0 ? boxMinZ : boxMaxZ, corner, 0);
+			
+			if (corner[2] < nearPlane)
+				return false;
+			
+			Mat4.transformPoint(projMat, corner[0], corner[1], corner[2], corner, 0);
+			
+			double x = corner[0] * width / 2 + width / 2;
+			double y = corner[1] * height / 2 + height / 2;
+			
+			minX = Math.min(minX, x);
+			minY = Math.min(minY, y);
+			maxX = Math.max(maxX, x);
+			maxY = Math.max(maxY, y);
+			nearest = Math.max(nearest, ndcToDepth(corner[2]));
+		}
+		
+		return hiZ.isOccluded((int) Math.max(Math.floor(minX) - 1, -1), (int) Math.max(Math.floor(minY) - 1, -1),
+				(int) Math.min(maxX + 1, width), (int) Math.min(maxY + 1, height), nearest);
+	}
+	
+	/**
+	 * Fhrt eine Aufgabe auf allen Threads des Renderers aus und wartet, bis alle Threads fertig sind.
+	 * Die Aufgabe erhlt dabei die Nummer des jeweiligen Threads (0 bis threadCount - 1).
+	 * Wird nur ein Thread verwendet, so wird die Aufgabe direkt auf dem aufrufenden Thread ausgefhrt.
+	 * 
+	 * @param task	Aufgabe, welche ausgefhrt werden soll
+	 */
+	private void runParallel(IntConsumer task) {
+		
+		if (threadCount == 1) {
+			task.accept(0);
+			return;
+		}
+		
+		ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[threadCount];
+		
+		for (int i = 0; i < threadCount; i++) {
+			int worker = i;
+			tasks[i] = pool.submit(() -> task.accept(worker));
+		}
+		
+		for (ForkJoinTask<?> task2 : tasks)
+			task2.join();
+	}
+	
+	/**
+	 * Fhrt eine Aufgabe fr jede Kachel des Framebuffers aus. Die Kacheln werden dabei dynamisch auf die Threads
+	 * verteilt, wobei jede Kachel von genau einem Thread bearbeitet wird.
+	 * 
+	 * @param task	liefert fr die Nummer eines Threads die Aufgabe, welche dieser fr jede seiner Kacheln ausfhrt
+	 */
+	private void runParallelTiles(IntFunction<IntConsumer> task) {
+		
+		AtomicInteger nextTile = new AtomicInteger();
+		int tileAmount = tilesX * tilesY;
+		
+		runParallel(worker -> {
+			
+			IntConsumer tileTask = task.apply(worker);
+			int tile;
+			
+			while ((tile = nextTile.getAndIncrement()) < tileAmount)
+				tileTask.accept(tile);
+		});
+	}
+	
+	/**
+	 * Erstellt die RenTileBins und RenRasterizer fr jeden Thread neu, wenn sich die Anzahl der Threads
+	 * oder die Anzahl der Kacheln gendert hat. Auerdem wird das RenHiZ (falls bentigt) vorbereitet.
+	 */
+	private void prepareBins() {
+		
+		tilesX = ((int) width + TILE_SIZE - 1) / TILE_SIZE;
+		tilesY = ((int) height + TILE_SIZE - 1) / TILE_SIZE;
+		
+		if (!occlusionCulling && !isPrepassActive())
+			hiZ = null;
+		else if (hiZ == null || hiZ.getWidth() != (int) width || hiZ.getHeight() != (int) height)
+			hiZ = new RenHiZ((int) width, (int) height, TILE_SIZE);
+		else
+			hiZ.reset();
+		
+		if (!coverageBuffer) {
+			coverage = null;
+			coveredRows = null;
+		} else if (coverage == null || coverage.length != tilesX * (int) height || coveredRows.length != tilesX * tilesY) {
+			coverage = new int[tilesX * (int) height];
+			coveredRows = new int[tilesX * tilesY];
+		}
+		
+		if (bins != null && bins.length == threadCount && bins[0].getTilesX() == tilesX
+				&& bins[0].getTilesY() == tilesY && binsVectorized == vectorized)
+			return;
+		
+		binsVectorized = vectorized;
+		
+		bins = new RenTileBins[threadCount];
+		rasterizers = new RenRasterizer[threadCount];
+		clippers = new RenClipper[threadCount];
+		tileOrder = new long[threadCount][64];
+		
+		for (int i = 0; i < threadCount; i++) {
+			bins[i] = new RenTileBins(tilesX, tilesY, TILE_SIZE);
+			rasterizers[i] = vectorized ? newVectorRasterizer() : new RenRasterizer();
+			clippers[i] = new RenClipper();
+		}
+	}
+	
+	/**
+	 * Leert (wenn gewnscht) eine Kachel des Frame- und Depthbuffers und rasteriert anschlieend alle Dreiecke,
+	 * welche in diese Kachel einsortiert wurden.
+	 * Die Dreiecke werden dabei in der Reihenfolge der Threads (und innerhalb eines Threads in der Reihenfolge,
+	 * in welcher sie eingetragen wurden) gezeichnet. Dadurch ist das Ergebnis unabhngig von der Anzahl der Threads.
+	 * Beim Occlusion-Culling werden Dreiecke, welche in dieser Kachel verdeckt sind, bersprungen und das RenHiZ
+	 * der Kachel anschlieend exakt aus dem Depthbuffer neu ermittelt.
+	 * Beim Coverage-Buffer werden die Dreiecke zuvor von vorne nach hinten sortiert; ist die Kachel vollstndig
+	 * berdeckt, werden die restlichen Dreiecke bersprungen.
+	 * 
+	 * @param tile		Index der Kachel
+	 * @param worker	Nummer des aktuellen Threads
+	 * @param clear		true, wenn die Kachel zuvor geleert werden soll
+	 */
+	private void rasterizeTile(int tile, int worker, boolean clear) {
+		
+		RenRasterizer rasterizer = rasterizers[worker];
+		
+		int tileX = (tile % tilesX) * TILE_SIZE;
+		int tileY = (tile / tilesX) * TILE_SIZE;
+		int tileMaxX = Math.min(tileX + TILE_SIZE, (int) width) - 1;
+		int tileMaxY = Math.min(tileY + TILE_SIZE, (int) height) - 1;
+		
+		if (clear)
+			clearTile(tileX, tileY, tileMaxX, tileMaxY);
+		
+		if (coverage != null) {
+			rasterizeTileSorted(tile, worker, tileX, tileY, tileMaxX, tileMaxY);
+			return;
+		}
+		
+		for (int b = 0; b < bins.length; b++) {
+			
+			RenTileBins workerBins = bins[b];
+			int[] tris = workerBins.getTileTris(tile);
+			int count = workerBins.getTileCount(tile);
+			
+			for (int i = 0; i < count; i++) {
+				
+				if (rasterizer.isOccluded(workerBins.getVerts(), tris[i] * 9, tileX, tileY, tileMaxX, tileMaxY))
+					continue;
+				
+				rasterizer.rasterizeTri(workerBins.getVerts(), tris[i] * 9, triValue(b, tris[i]), tileX, tileY,
+						tileMaxX, tileMaxY);
+			}
+		}
+		
+		if (hiZ != null)
+			hiZ.rebuildTile(tile, depthBuffer, depthBufferF);
+	}
+	
+	/**
+	 * Leert eine Kachel des Frame- und Depthbuffers bzw. des Visibility-Buffers (sowie des Coverage-Buffers).
+	 * 
+	 * @param tileX		linke Grenze der Kachel (einschlielich)
+	 * @param tileY		obere Grenze der Kachel (einschlielich)
+	 * @param tileMaxX	rechte Grenze der Kachel (einschlielich)
+	 * @param tileMaxY	untere Grenze der Kachel (einschlielich)
+	 */
+	private void clearTile(int tileX, int tileY, int tileMaxX, int tileMaxY) {
+		
+		// Buffer mssen geleert werden, da sonst Artefakte von vorgangenem Frame auftauchen
+		for (int y = tileY; y <= tileMaxY; y++) {
+			
+			int index = (int) (y * width);
+			
+			if (visibilityBuffer)
+				Arrays.fill(visBuffer, index + tileX, index + tileMaxX + 1, 0);
+			else
+				Arrays.fill(framebuffer, index + tileX, index + tileMaxX + 1, 0xFF000000);
+			if (depthBufferF != null)
+				Arrays.fill(depthBufferF, index + tileX, index + tileMaxX + 1, 0);
+			else
+				Arrays.fill(depthBuffer, index + tileX, index + tileMaxX + 1, 0);
+			
+			// Bits auerhalb des Framebuffers gelten als berdeckt.
+			if (coverage != null)
+				coverage[y * tilesX + tileX / TILE_SIZE] = tileMaxX - tileX + 1 == TILE_SIZE ? 0
+						: -1 << (tileMaxX - tileX + 1);
+		}
+		
+		if (coverage != null)
+			coveredRows[(tileY / TILE_SIZE) * tilesX + tileX / TILE_SIZE] = 0;
+	}
+	
+	/**
+	 * Rasteriert die Dreiecke einer Kachel von vorne nach hinten in den Coverage-Buffer. Die Dreiecke werden dazu
+	 * nach dem Mittelwert der Werte ihrer Eckpunkte fr den Depthbuffer sortiert (bei gleichem Wert bleibt die Reihenfolge, in welcher sie eingetragen
+	 * wurden, erhalten, sodass das Ergebnis unabhngig von der Anzahl der Threads ist).
+	 * 
+	 * @param tile		Index der Kachel
+	 * @param worker	Nummer des aktuellen Threads
+	 * @param tileX		linke Grenze der Kachel (einschlielich)
+	 * @param tileY		obere Grenze der Kachel (einschlielich)
+	 * @param tileMaxX	rechte Grenze der Kachel (einschlielich)
+	 * @param tileMaxY	untere Grenze der Kachel (einschlielich)
+	 */
+	private void rasterizeTileSorted(int tile, int worker, int tileX, int tileY, int tileMaxX, int tileMaxY) {
+		
+		RenRasterizer rasterizer = rasterizers[worker];
+		int count = 0;
+		
+		for (RenTileBins workerBins : bins)
+			count += workerBins.getTileCount(tile);
+		
+		if (tileOrder[worker].length < count)
+			tileOrder[worker] = new long[Math.max(count, tileOrder[worker].length * 2)];
+		
+		long[] order = tileOrder[worker];
+		int n = 0;
+		
+		/*
+		 * Schlssel: obere 32 Bit - mittlerer Wert fr den Depthbuffer (absteigend), 
+		 * untere 32 Bit - Position in der Reihenfolge, in welcher die Dreiecke eingetragen wurden
+		 */
+		for (RenTileBins workerBins : bins) {
+			
+			double[] verts = workerBins.getVerts();
+			int[] tris = workerBins.getTileTris(tile);
+			
+			for (int i = 0; i < workerBins.getTileCount(tile); i++, n++) {
+				
+				int offset = tris[i] * 9;
+				float depth = (float) ((verts[offset + 2] + verts[offset + 5] + verts[offset + 8]) / 3);
+				
+				order[n] = (long) (Integer.MAX_VALUE - Float.floatToIntBits(Math.max(depth, 0))) << 32 | n;
+			}
+		}
+		
+		Arrays.sort(order, 0, n);
+		
+		int rows = tileMaxY - tileY + 1;
+		
+		for (int i = 0; i < n && coveredRows[tile] < rows; i++) {
+			
+			// Thread und Index des Dreiecks aus der Position ermitteln
+			int pos = (int) order[i];
+			int b = 0;
+			
+			while (pos >= bins[b].getTileCount(tile))
+				pos -= bins[b++].getTileCount(tile);
+			
+			int tri = bins[b].getTileTris(tile)[pos];
+			
+			if (rasterizer.isOccluded(bins[b].getVerts(), tri * 9, tileX, tileY, tileMaxX, tileMaxY))
+				continue;
+			
+			rasterizer.rasterizeTri(bins[b].getVerts(), tri * 9, triValue(b, tri), tileX, tileY, tileMaxX, tileMaxY);
+		}
+		
+		if (hiZ != null)
+			hiZ.rebuildTile(tile, depthBuffer, depthBufferF);
+	}
+	
+	/**
+	 * Stellt den Ursprungszustand des Framebuffers sowie Depthbuffers wieder her.
+	 * (Framebuffer wird mit der Farbe Schwarz und der Depthbuffer mit 0 (unendlich weit entfernt) aufgefllt)
+	 */
+	private void refreshBuffer() {
+		Arrays.fill(framebuffer, 0xFF000000);
+		
+		if (depthBufferF != null)
+			Arrays.fill(depthBufferF, 0);
+		else
+			Arrays.fill(depthBuffer, 0);
+	}
+	
+	/**
+	 * Erstellt einen neuen Depthbuffer in dem aktuellen Format (der Depthbuffer des anderen Formates
+	 * wird dabei freigegeben).
+	 */
+	private void createDepthBuffer() {
+		
+		if (depthFormat == RenDepthFormat.FLOAT_REVERSED) {
+			depthBuffer = null;
+			depthBufferF = new float[(int) (width * height)];
+		} else {
+			depthBuffer = new double[(int) (width * height)];
+			depthBufferF = null;
+		}
+	}
+	
+	/**
+	 * Rechnet die z-Koordinate eines Punktes im NDC-Space in den Wert um, welcher in den Depthbuffer 
+	 * eingetragen wird. Dieser Wert ist linear zu 1/z, wobei z die Entfernung des Punktes zu der Kamera im View-Space ist.
+	 * (Ein grerer Wert bedeutet somit, dass der Punkt nher an der Kamera liegt.)
+	 * @see de.sebphil.renderer.objects.RenDepthFormat
+	 * 
+	 * @param z	z-Koordinate im NDC-Space
+	 * @return Wert fr den Depthbuffer
+	 */
+	private double ndcToDepth(double z) {
+		return (-projMat[10] - z) / projMat[14] * depthScale + depthBias;
+	}
+	
 	/**
 	 * Aktualisiert die (Werte fr die) Projektionsmatrix
 	 */
 	private void generateProjMat() {
 
+		// Die Polygone im RenGeometryCache gelten nur fr die bisherige Projektion.
+		geometryCache.clear();
+
 		scale = Math.tan(Math.toRadians(fov) / 2) * near;
 
 		double right = scale * aspectratio;
@@ -465,15 +1650,30 @@ public class SebRenderer {
 		double left = -right;
 		double bottom = -top;
 		
-		projMat[0][0] = -2 * near / (right - left);
-		projMat[1][1] = 2 * near / (top - bottom);
-		projMat[2][0] = (right + left) / (right - left);
-		projMat[2][1] = (top + bottom) / (top - bottom);
+		projMat[0] = -2 * near / (right - left);
+		projMat[5] = 2 * near / (top - bottom);
+		projMat[8] = (right + left) / (right - left);
+		projMat[9] = (top + bottom) / (top - bottom);
+		
+		projMat[10] = -(far+near) / (far - near);
+		projMat[11] = -1;
 		
-		projMat[2][2] = -(far+near) / (far - near);
-		projMat[2][3] = -1;
+		projMat[14] = 2 * far * near / (far - near);
 		
-		projMat[3][2] = 2 * far * near / (far - near);
+		// Die near Clipping-Ebene liegt etwas hinter der near Ebene der Projektionsmatrix.
+		nearPlane = 0.5 + near;
+		
+		/*
+		 * Umrechnung von 1/z in den Wert fr den Depthbuffer: depth = 1/z * depthScale + depthBias
+		 * Bei FLOAT_REVERSED wird 1/z so skaliert, dass die near Clipping-Ebene 1 und die far Ebene 0 entspricht.
+		 */
+		if (depthFormat == RenDepthFormat.FLOAT_REVERSED) {
+			depthScale = 1 / (1 / nearPlane - 1 / far);
+			depthBias = -depthScale / far;
+		} else {
+			depthScale = 1;
+			depthBias = 0;
+		}
 	}
 
 	/**
@@ -489,7 +1689,8 @@ public class SebRenderer {
 		this.aspectratio = width / height;
 
 		this.framebuffer = new int[(int) (width * height)];
-		this.depthBuffer = new double[(int) (width * height)];
+		this.visScene = null;
+		createDepthBuffer();
 
 		refreshBuffer();
 
@@ -508,6 +1709,340 @@ public class SebRenderer {
 		generateProjMat();
 	}
 
+	/**
+	 * Legt die Anzahl der Threads fest, welche fr das Rendern verwendet werden.
+	 * Bei mehr als einem Thread werden die Dreiecke auf einem eigenen ForkJoinPool transformiert und
+	 * anschlieend die Kacheln des Framebuffers parallel rasteriert. Jede Kachel wird von genau einem Thread
+	 * gezeichnet, und die Dreiecke werden darin in derselben Reihenfolge wie mit einem einzelnen Thread eingetragen.
+	 * Abweichungen einzelner Pixel von einem anderen Bild entstehen deshalb nur durch die brigen Einstellungen
+	 * (z.B. setFrustumCulling oder setOcclusionCulling), nicht durch die Anzahl der Threads.
+	 * 
+	 * @param threadCount Anzahl der Threads (wird auf 1 bis zur Anzahl der verfgbaren Prozessoren begrenzt)
+	 */
+	public void setThreadCount(int threadCount) {
+		
+		threadCount = Math.max(1, Math.min(threadCount, Runtime.getRuntime().availableProcessors()));
+		
+		if (threadCount == this.threadCount)
+			return;
+		
+		if (pool != null)
+			pool.shutdown();
+		
+		this.threadCount = threadCount;
+		this.pool = threadCount > 1 ? new ForkJoinPool(threadCount) : null;
+		this.visScene = null;
+	}
+
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	/**
+	 * Aktiviert bzw. deaktiviert die hierarchische Rasterisierung.
+	 * Ist diese aktiviert, werden die Dreiecke zunchst in Blcken von 8x8 Pixeln getestet und nur
+	 * Blcke, welche teilweise von einem Dreieck berdeckt werden, Pixel fr Pixel untersucht.
+	 * (Wie viele Blcke dabei bersprungen werden, kann mit getStats() ermittelt werden.)
+	 * 
+	 * @param hierarchical true, wenn hierarchisch rasterisiert werden soll
+	 */
+	public void setHierarchical(boolean hierarchical) {
+		this.hierarchical = hierarchical;
+	}
+
+	public boolean isHierarchical() {
+		return hierarchical;
+	}
+
+	/**
+	 * Aktiviert bzw. deaktiviert die Rasterisierung mithilfe der Vector API (jdk.incubator.vector).
+	 * Dabei werden mehrere Pixel einer Zeile gleichzeitig ausgewertet. Steht das Modul zur Laufzeit 
+	 * nicht zur Verfgung, wird weiterhin ohne die Vector API rasterisiert.
+	 * (Ob die Vector API tatschlich verwendet wird, kann mit isVectorized() berprft werden.)
+	 * 
+	 * @param vectorized true, wenn die Vector API verwendet werden soll
+	 */
+	public void setVectorized(boolean vectorized) {
+		this.vectorized = vectorized && isVectorAvailable();
+	}
+
+	public boolean isVectorized() {
+		return vectorized;
+	}
+
+	/**
+	 * berprft (einmalig), ob das Modul jdk.incubator.vector zur Laufzeit vorhanden ist und
+	 * der RenVectorRasterizer (aus src-vector) geladen und verwendet werden kann.
+	 * 
+	 * @return true, wenn die Vector API verwendet werden kann
+	 */
+	private static synchronized boolean isVectorAvailable() {
+		
+		if (vectorAvailable == null) {
+			
+			vectorAvailable = false;
+			
+			if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+				try {
+					Constructor<? extends RenRasterizer> constructor = Class.forName(VECTOR_RASTERIZER)
+							.asSubclass(RenRasterizer.class).getDeclaredConstructor();
+					
+					// Ein Test-Rasterizer zeigt, ob die bevorzugte Vektorgre untersttzt wird.
+					constructor.newInstance();
+					vectorConstructor = constructor;
+					vectorAvailable = true;
+				} catch (ClassNotFoundException | InvocationTargetException e) {
+					// src-vector wurde nicht kompiliert bzw. die Vektorgre wird nicht untersttzt
+				} catch (ReflectiveOperationException | LinkageError e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		
+		return vectorAvailable;
+	}
+	
+	/**
+	 * @return neuer RenVectorRasterizer (nur wenn isVectorAvailable() true ergab)
+	 */
+	private static RenRasterizer newVectorRasterizer() {
+		try {
+			return vectorConstructor.newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Legt das Format des Depthbuffers fest. Der Depthbuffer wird dabei neu erstellt.
+	 * @see de.sebphil.renderer.objects.RenDepthFormat
+	 * 
+	 * @param depthFormat Format des Depthbuffers
+	 */
+	public void setDepthFormat(RenDepthFormat depthFormat) {
+		
+		if (depthFormat == this.depthFormat)
+			return;
+		
+		this.depthFormat = depthFormat;
+		
+		createDepthBuffer();
+		refreshBuffer();
+		generateProjMat();
+	}
+
+	public RenDepthFormat getDepthFormat() {
+		return depthFormat;
+	}
+
+	/**
+	 * Legt die Genauigkeit fest, mit welcher die Geometrie verarbeitet wird. Dabei wird auch das passende Format des
+	 * Depthbuffers festgelegt (RenDepthFormat.FLOAT_REVERSED bzw. RenDepthFormat.DOUBLE), welches anschlieend mit
+	 * setDepthFormat gendert werden kann.
+	 * @see de.sebphil.renderer.objects.RenPrecision
+	 * 
+	 * @param precision Genauigkeit der Geometrie
+	 */
+	public void setPrecision(RenPrecision precision) {
+		
+		this.precision = precision;
+		geometryCache.clear();
+		
+		setDepthFormat(precision == RenPrecision.SINGLE ? RenDepthFormat.FLOAT_REVERSED : RenDepthFormat.DOUBLE);
+	}
+
+	public RenPrecision getPrecision() {
+		return precision;
+	}
+
+	/**
+	 * Rendert eine Szene einmal mit RenPrecision.DOUBLE und einmal mit RenPrecision.SINGLE (mit den brigen
+	 * aktuellen Einstellungen) und vergleicht beide Bilder. Anschlieend werden die vorherige Genauigkeit und das
+	 * vorherige Format des Depthbuffers wiederhergestellt und die Szene mit diesen erneut gerendert.
+	 * 
+	 * @param scene	Szene, welche gerendert werden soll
+	 * @return Unterschied des Bildes mit RenPrecision.SINGLE zu dem Bild mit RenPrecision.DOUBLE
+	 */
+	public RenImageDiff comparePrecision(RenScene scene) {
+		
+		RenPrecision oldPrecision = precision;
+		RenDepthFormat oldDepthFormat = depthFormat;
+		
+		setPrecision(RenPrecision.DOUBLE);
+		update(scene);
+		int[] reference = framebuffer.clone();
+		
+		setPrecision(RenPrecision.SINGLE);
+		update(scene);
+		RenImageDiff diff = new RenImageDiff(reference, framebuffer);
+		
+		// setPrecision verwirft auch die Polygone des RenGeometryCache, welche mit RenPrecision.SINGLE entstanden sind.
+		setPrecision(oldPrecision);
+		setDepthFormat(oldDepthFormat);
+		update(scene);
+		
+		return diff;
+	}
+
+	/**
+	 * Aktiviert bzw. deaktiviert den RenLightCache. Dabei wird die Summe der Helligkeiten aller Lichtquellen einmalig
+	 * fr alle Richtungen einer Flchen-Normale ermittelt (und nur neu ermittelt, wenn sich die Lichtquellen oder das
+	 * Umgebungslicht der Szene ndern), sodass fr jedes Dreieck nur ein Zugriff auf die Karte und die wenigen
+	 * Lichtquellen, deren Grenze zum Umgebungslicht in der Nhe seiner Normale liegt, errechnet werden. Dies lohnt
+	 * sich bei vielen Lichtquellen. Die Farben unterscheiden sich nur durch Rundungsfehler (in seltenen Fllen um
+	 * eine Stufe) von dem Bild ohne RenLightCache.
+	 * 
+	 * @param lightingCache true, wenn der RenLightCache verwendet werden soll
+	 */
+	public void setLightingCache(boolean lightingCache) {
+		this.lightCache = lightingCache ? new RenLightCache() : null;
+	}
+
+	public boolean isLightingCache() {
+		return lightCache != null;
+	}
+
+	/**
+	 * Aktiviert bzw. deaktiviert das Occlusion-Culling mithilfe eines hierarchischen Depthbuffers (RenHiZ).
+	 * Dabei werden ganze Figuren (anhand ihrer Bounding-Box) sowie einzelne Dreiecke bersprungen, wenn diese
+	 * vollstndig von bereits gezeichneten Dreiecken verdeckt werden. Das Bild kann sich dadurch in einzelnen Pixeln
+	 * unterscheiden, in welchen sich Dreiecke mit gleichen Tiefenwerten berdecken. (Wie viele Figuren und Dreiecke
+	 * dabei bersprungen werden, kann mit getStats() ermittelt werden.)
+	 * 
+	 * @param occlusionCulling true, wenn verdeckte Figuren und Dreiecke bersprungen werden sollen
+	 */
+	public void setOcclusionCulling(boolean occlusionCulling) {
+		this.occlusionCulling = occlusionCulling;
+	}
+
+	public boolean isOcclusionCulling() {
+		return occlusionCulling;
+	}
+
+	/**
+	 * Aktiviert bzw. deaktiviert das View-Frustum-Culling (standardmig aktiviert). Dabei werden Figuren, deren
+	 * Bounding-Volumes (siehe RenShape#getWorldBounds) vollstndig auerhalb des sichtbaren Bereiches liegen,
+	 * bersprungen, und die Dreiecke von Figuren, welche vollstndig innerhalb liegen, werden ohne Outcodes
+	 * projiziert (siehe RenClipper#projectTriangle), whrend die brigen Figuren den RenClipper durchlaufen. Da dieser
+	 * Dreiecke innerhalb des Guard-Bands ebenfalls nicht clippt, unterscheiden sich die Bilder nur in einzelnen Pixeln
+	 * bei gleichen Tiefenwerten (siehe RenClipper). (Wie viele Figuren dabei bersprungen werden, kann mit getStats()
+	 * ermittelt werden.)
+	 * 
+	 * @param frustumCulling true, wenn Figuren auerhalb des sichtbaren Bereiches bersprungen werden sollen
+	 */
+	public void setFrustumCulling(boolean frustumCulling) {
+		this.frustumCulling = frustumCulling;
+	}
+
+	public boolean isFrustumCulling() {
+		return frustumCulling;
+	}
+
+	/**
+	 * Aktiviert bzw. deaktiviert das Culling von Clustern (standardmig aktiviert). Dabei werden die Cluster groer
+	 * Figuren (siehe RenShape#getClusterStarts) vor dem Face-Culling gegen ihren Normalen-Kegel, das View-Frustum und
+	 * (beim Occlusion-Culling) das RenHiZ getestet, sodass ganze Teile einer Figur ohne Tests pro Dreieck verworfen
+	 * werden. Verworfen werden nur Cluster, deren Dreiecke alle unsichtbar sind; beim Occlusion-Culling knnen sich
+	 * jedoch wie bei setOcclusionCulling einzelne Pixel mit gleichen Tiefenwerten unterscheiden. (Wie viele Cluster
+	 * dabei verworfen werden, kann mit getStats() ermittelt werden.)
+	 * 
+	 * @param clusterCulling true, wenn Cluster vor ihren Dreiecken getestet werden sollen
+	 */
+	public void setClusterCulling(boolean clusterCulling) {
+		this.clusterCulling = clusterCulling;
+	}
+
+	public boolean isClusterCulling() {
+		return clusterCulling;
+	}
+
+	/**
+	 * Legt den grten Speicherbedarf des RenGeometryCache fest (standardmig 64 MiB). Darin werden die Polygone
+	 * jeder Figur im Screen-Space gespeichert, sodass Figuren, deren Transformation und Dreiecksnetz sich ebenso wie
+	 * die Kamera und die Projektion nicht gendert haben, ohne Transformation und Clipping gezeichnet werden.
+	 * Wird der Speicherbedarf berschritten, so werden die am lngsten nicht verwendeten Figuren verworfen.
+	 * Die gespeicherten Polygone stammen aus dem Frame, in welchem sie aufgezeichnet wurden. Wurde seitdem z.B.
+	 * setFrustumCulling gendert, so knnen sie auf dem anderen Weg durch den RenClipper entstanden sein und sich
+	 * deshalb in einzelnen Pixeln von dem Bild ohne Cache unterscheiden. (Wie viele Figuren bernommen werden, kann
+	 * mit getStats() ermittelt werden.)
+	 * 
+	 * @param bytes grter Speicherbedarf in Byte (0 deaktiviert den RenGeometryCache)
+	 */
+	public void setGeometryCacheSize(long bytes) {
+		geometryCache.setMaxBytes(Math.max(bytes, 0));
+	}
+
+	public long getGeometryCacheSize() {
+		return geometryCache.getMaxBytes();
+	}
+
+	/**
+	 * Aktiviert bzw. deaktiviert den Coverage-Buffer. Dabei werden die Figuren und (innerhalb jeder Kachel) die
+	 * Dreiecke von vorne nach hinten gezeichnet und jedes Pixel nur von dem ersten Dreieck beschrieben, welches
+	 * dieses berdeckt (ohne Depthtest). Zeilen und Kacheln, welche vollstndig berdeckt sind, werden bersprungen.
+	 * Da die Dreiecke nur nach der mittleren Entfernung ihrer Eckpunkte sortiert werden, kann sich das Bild bei sich
+	 * schneidenden Figuren (oder ungnstig berlappenden Dreiecken) von dem Bild mit Depthtest unterscheiden.
+	 * (Die Anzahl der Schreibzugriffe auf den Framebuffer kann mit getStats() ermittelt werden.)
+	 * 
+	 * @param coverageBuffer true, wenn der Coverage-Buffer verwendet werden soll
+	 */
+	public void setCoverageBuffer(boolean coverageBuffer) {
+		this.coverageBuffer = coverageBuffer;
+	}
+
+	public boolean isCoverageBuffer() {
+		return coverageBuffer;
+	}
+
+	/**
+	 * Aktiviert bzw. deaktiviert den Depth-Prepass. Dabei werden die Figuren von vorne nach hinten sortiert und
+	 * alle Dreiecke zunchst nur in den Depthbuffer eingetragen. Erst anschlieend werden die Dreiecke, welche
+	 * nicht vollstndig verdeckt sind, schattiert und nur die Pixel, welche tatschlich sichtbar sind, in den
+	 * Framebuffer eingetragen. Dies lohnt sich vor allem bei vielen Lichtquellen und viel Overdraw.
+	 * Wird der Coverage-Buffer oder der Visibility-Buffer verwendet, so wird der Depth-Prepass nicht ausgefhrt.
+	 * 
+	 * @param depthPrepass true, wenn der Depth-Prepass verwendet werden soll
+	 */
+	public void setDepthPrepass(boolean depthPrepass) {
+		this.depthPrepass = depthPrepass;
+	}
+
+	public boolean isDepthPrepass() {
+		return depthPrepass;
+	}
+
+	/**
+	 * Aktiviert bzw. deaktiviert den Visibility-Buffer. Dabei trgt der Rasterizer anstatt der Farben nur die Nummern
+	 * der Dreiecke (und den Depthbuffer) ein. Anschlieend wird jedes sichtbare Dreieck genau einmal schattiert und
+	 * seine Farbe in die Pixel bernommen (siehe resolve). ndern sich danach nur die Lichtquellen oder Farben, so kann
+	 * das Bild mit relight neu schattiert werden, ohne die Geometrie erneut zu bearbeiten. Das erzeugte Bild ndert
+	 * sich dadurch nicht; beim Occlusion-Culling werden die Dreiecke allerdings in einem Durchgang bearbeitet.
+	 * 
+	 * @param visibilityBuffer true, wenn der Visibility-Buffer verwendet werden soll
+	 */
+	public void setVisibilityBuffer(boolean visibilityBuffer) {
+		this.visibilityBuffer = visibilityBuffer;
+		this.visScene = null;
+	}
+
+	public boolean isVisibilityBuffer() {
+		return visibilityBuffer;
+	}
+
+	/**
+	 * @return true, wenn der Depth-Prepass im nchsten Frame tatschlich ausgefhrt wird
+	 */
+	private boolean isPrepassActive() {
+		return depthPrepass && !coverageBuffer && !visibilityBuffer;
+	}
+
+	/**
+	 * @return Statistiken ber den zuletzt gerenderten Frame
+	 */
+	public RenFrameStats getStats() {
+		return stats;
+	}
+
 	public void setNear(double near) {
 		this.near = near;
 
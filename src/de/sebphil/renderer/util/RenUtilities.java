@@ -72,88 +72,25 @@ public class RenUtilities {
 	}
 
 	/**
-	 * Multipliziert einen Vektor mit einer 4x4 Matrix und teilt das Ergbeniss mit der w-Komponente.
-	 * Die w-Koordiante des Vektors wird als 1 angenommen.
+	 * Wandelt eine Farbe in einen ARGB-Wert um (8 Bit pro Kanal: Deckkraft, Rot, Grn, Blau von dem hchsten zu dem
+	 * niedrigsten Byte), wie er im Framebuffer des SebRenderer verwendet wird.
 	 * 
-	 * @param matrix 4x4 Matrix
-	 * @param vector Vektor
-	 * @return returns Gibt das Ergebnis als neuen Vektor (bzw. Punkt) zurck.
+	 * @param color Farbe
+	 * @return ARGB-Wert der Farbe
 	 */
-	public static Point3D multMatVec(double[][] matrix, Point3D vector) {
-
-		double[] result = new double[3];
-
-		result[0] = vector.getX() * matrix[0][0] + vector.getY() * matrix[1][0] + vector.getZ() * matrix[2][0]
-				+ matrix[3][0];
-		result[1] = vector.getX() * matrix[0][1] + vector.getY() * matrix[1][1] + vector.getZ() * matrix[2][1]
-				+ matrix[3][1];
-		result[2] = vector.getX() * matrix[0][2] + vector.getY() * matrix[1][2] + vector.getZ() * matrix[2][2]
-				+ matrix[3][2];
-
-		double w = vector.getX() * matrix[0][3] + vector.getY() * matrix[1][3] + vector.getZ() * matrix[2][3]
-				+ matrix[3][3];
-		
-		if (w != 0.0f) {
-			result[0] /= w;
-			result[1] /= w;
-			result[2] /= w;
-		}
-
-		return new Point3D(result[0], result[1], result[2]);
-	}
-
-	/**
-	 * Multipliziert zwei Matrizen.
-	 * 
-	 * @param m1 Matrix1
-	 * @param m2 Matrix2
-	 * @return Gibt das Ergebnis von m1 * m2 als neue Matrix zurck.
-	 */
-	public static double[][] multMatMat(double[][] m1, double[][] m2) {
-
-		double[][] result = new double[m1.length][m2[0].length];
-
-		for (int i = 0; i < result[0].length; i++) {
-			for (int j = 0; j < result.length; j++) {
-
-				double s = 0;
-
-				for (int k = 0; k < m2.length; k++)
-					s += m1[j][k] * m2[k][i];
-
-				result[j][i] = s;
-			}
-		}
-
-		return result;
+	public static int toArgb(Color color) {
+		return (int) Math.round(color.getOpacity() * 255) << 24 | (int) Math.round(color.getRed() * 255) << 16
+				| (int) Math.round(color.getGreen() * 255) << 8 | (int) Math.round(color.getBlue() * 255);
 	}
 
 	/**
-	 * Invertiert die lookAt-Matrix.
+	 * Wandelt einen ARGB-Wert (siehe toArgb) in eine Farbe um.
 	 * 
-	 * @param mat lookAt-Matrix
-	 * @return Gibt die neue, invertierte lookAt-Matrix zurck.
+	 * @param argb ARGB-Wert
+	 * @return returns Gibt die Farbe als neues Objekt zurck.
 	 */
-	public static double[][] invertLookAtMat(double[][] mat) {
-
-		double[][] result = new double[4][4];
-		result[0][0] = mat[0][0];
-		result[0][1] = mat[1][0];
-		result[0][2] = mat[2][0];
-		result[0][3] = 0;
-		result[1][0] = mat[0][1];
-		result[1][1] = mat[1][1];
-		result[1][2] = mat[2][1];
-		result[1][3] = 0;
-		result[2][0] = mat[0][2];
-		result[2][1] = mat[1][2];
-		result[2][2] = mat[2][2];
-		result[2][3] = 0;
-		result[3][0] = -(mat[3][0] * result[0][0] + mat[3][1] * result[1][0] + mat[3][2] * result[2][0]);
-		result[3][1] = -(mat[3][0] * result[0][1] + mat[3][1] * result[1][1] + mat[3][2] * result[2][1]);
-		result[3][2] = -(mat[3][0] * result[0][2] + mat[3][1] * result[1][2] + mat[3][2] * result[2][2]);
-		result[3][3] = 1;
-		return result;
+	public static Color toColor(int argb) {
+		return Color.rgb((argb >> 16) & 0xFF, (argb >> 8) & 0xFF, argb & 0xFF, (argb >>> 24) / 255.0);
 	}
 
 	/**
@@ -227,12 +164,12 @@ public class RenUtilities {
 	 * Gibt eine Matrix in Textform aus.
 	 * (Es wird der standardmige Outputstream verwendet.)
 	 * 
-	 * @param mat	Matrix, welche ausgegeben werden soll
+	 * @param mat	4x4 Matrix (siehe Mat4), welche ausgegeben werden soll
 	 */
-	public static void printMat(double[][] mat) {
-		for(int i=0;i<mat.length;i++) {
-			for(int j=0;j<mat[0].length;j++) {
-				System.out.print(mat[i][j]+" ");
+	public static void printMat(double[] mat) {
+		for(int i=0;i<4;i++) {
+			for(int j=0;j<4;j++) {
+				System.out.print(mat[i*4+j]+" ");
 			}
 			System.out.println();
 		}